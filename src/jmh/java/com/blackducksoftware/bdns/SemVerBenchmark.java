@@ -0,0 +1,186 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for {@code SemVer} precedence. The "legacy" comparator reproduces the original implementation which
+ * parsed every pre-release identifier (using exceptions to detect alphanumeric identifiers) on every comparison.
+ * <p>
+ * The "npm" corpus is the checked in {@code npm-versions.txt} sample of real npm package versions; it contains only
+ * releases so the "synthetic" corpus, shaped like the npm registry with roughly 30% pre-releases, is also measured.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ *
+ * @author jgustie
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class SemVerBenchmark {
+
+    /**
+     * Pre-release tags seen on the npm registry, roughly by frequency.
+     */
+    private static final String[] TAGS = { "beta", "alpha", "rc", "next", "canary", "dev", "pre", "beta", "alpha",
+            "rc", "beta" };
+
+    @Param({ "npm", "synthetic" })
+    public String corpus;
+
+    private SemVer[] versions;
+
+    @Setup
+    public void setup() throws IOException {
+        List<SemVer> result = corpus.equals("npm") ? npm() : synthetic(10_000);
+        Collections.shuffle(result, new Random(8L));
+        versions = result.toArray(new SemVer[0]);
+    }
+
+    /**
+     * Loads the real npm versions, each line is "name@version" and the name may itself start with an "@".
+     */
+    private static List<SemVer> npm() throws IOException {
+        List<SemVer> result = new ArrayList<>();
+        try (InputStream in = SemVerBenchmark.class.getResourceAsStream("npm-versions.txt");
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty() && line.charAt(0) != '#') {
+                    result.add(SemVer.valueOf(line.substring(line.lastIndexOf('@') + 1)));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Generates versions like "2.0.0-beta.3", "16.7.0-alpha.0" or "3.1.0-canary.9f2a1c3", mostly releases clustered
+     * on a few majors.
+     */
+    private static List<SemVer> synthetic(int size) {
+        Random random = new Random(8L);
+        List<SemVer> result = new ArrayList<>(size);
+        while (result.size() < size) {
+            int major = random.nextInt(4) == 0 ? random.nextInt(30) : random.nextInt(4);
+            int minor = random.nextInt(random.nextBoolean() ? 5 : 40);
+            int patch = random.nextInt(random.nextBoolean() ? 3 : 25);
+            StringBuilder value = new StringBuilder().append(major).append('.').append(minor).append('.').append(patch);
+            if (random.nextInt(10) < 3) {
+                String tag = TAGS[random.nextInt(TAGS.length)];
+                value.append('-').append(tag);
+                if (tag.equals("canary") || tag.equals("dev")) {
+                    value.append('.').append(Integer.toHexString(random.nextInt(1 << 28)));
+                } else if (random.nextInt(5) > 0) {
+                    value.append('.').append(random.nextInt(20));
+                }
+            }
+            result.add(SemVer.valueOf(value));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public SemVer[] sort() {
+        SemVer[] result = versions.clone();
+        Arrays.sort(result);
+        return result;
+    }
+
+    @Benchmark
+    public SemVer[] sortLegacy() {
+        SemVer[] result = versions.clone();
+        Arrays.sort(result, LEGACY_ORDER);
+        return result;
+    }
+
+    private static final Comparator<SemVer> LEGACY_ORDER = (v1, v2) -> {
+        int result;
+        if ((result = Integer.compare(v1.getMajorVersion(), v2.getMajorVersion())) != 0) {
+            return result;
+        }
+        if ((result = Integer.compare(v1.getMinorVersion(), v2.getMinorVersion())) != 0) {
+            return result;
+        }
+        if ((result = Integer.compare(v1.getPatchVersion(), v2.getPatchVersion())) != 0) {
+            return result;
+        }
+
+        List<String> p1 = v1.getPreReleaseVersion();
+        List<String> p2 = v2.getPreReleaseVersion();
+        int len = Math.min(p1.size(), p2.size());
+        if (len > 0) {
+            for (int i = 0; i < len; ++i) {
+                if ((result = legacyCompareIdentifier(p1.get(i), p2.get(i))) != 0) {
+                    return result;
+                }
+            }
+            return Integer.compare(p1.size(), p2.size());
+        } else if (p1.isEmpty()) {
+            return p2.isEmpty() ? 0 : 1;
+        } else {
+            return p2.isEmpty() ? -1 : 0;
+        }
+    };
+
+    private static int legacyCompareIdentifier(String i1, String i2) {
+        int ni1;
+        int ni2;
+        try {
+            ni1 = Integer.parseInt(i1);
+        } catch (NumberFormatException e) {
+            ni1 = -1;
+        }
+        try {
+            ni2 = Integer.parseInt(i2);
+        } catch (NumberFormatException e) {
+            ni2 = -1;
+        }
+        if (ni1 < 0 && ni2 < 0) {
+            return i1.compareTo(i2);
+        } else if (ni1 < 0) {
+            return 1;
+        } else if (ni2 < 0) {
+            return -1;
+        } else {
+            return Integer.compare(ni1, ni2);
+        }
+    }
+
+}
@@ -25,6 +25,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Alias namespace managers allow the functionality of one namespace to be accessed via another. This may be necessary
@@ -102,4 +103,34 @@ public class AliasNamespaceManager extends NamespaceManager {
         return delegate().scope(scope);
     }
 
+    @Override
+    public ParseResult<? extends Context> tryContext(CharSequence context) {
+        return delegate().tryContext(context);
+    }
+
+    @Override
+    public ParseResult<? extends Identifier> tryIdentifier(CharSequence identifier) {
+        return delegate().tryIdentifier(identifier);
+    }
+
+    @Override
+    public ParseResult<? extends Version> tryVersion(CharSequence version) {
+        return delegate().tryVersion(version);
+    }
+
+    @Override
+    public ParseResult<? extends VersionRange> tryVersionRange(CharSequence versionRange) {
+        return delegate().tryVersionRange(versionRange);
+    }
+
+    @Override
+    public ParseResult<? extends Scope> tryScope(CharSequence scope) {
+        return delegate().tryScope(scope);
+    }
+
+    @Override
+    public Optional<? extends VersionCodec<?>> versionCodec() {
+        return delegate().versionCodec();
+    }
+
 }
@@ -0,0 +1,444 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A namespace manager that caches the values parsed by another namespace manager. Parsed values are immutable, so
+ * repeated inputs return a shared canonical instance instead of being parsed again.
+ * <p>
+ * Each kind of value (contexts, identifiers, versions, version ranges and scopes) has its own cache, the memory budget
+ * is divided evenly between them. The caches are split into independently locked segments, within a segment entries
+ * are evicted in least recently used order but a new entry is only admitted if it has been requested more frequently
+ * than the entry it would evict (frequencies are estimated using a small count-min sketch). This prevents a burst of
+ * one-off inputs from flushing the hot entries. Only successfully parsed values are cached.
+ *
+ * @author jgustie
+ */
+public class CachingNamespaceManager extends NamespaceManager {
+
+    /**
+     * The default memory budget, 64MB.
+     */
+    private static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+    /**
+     * Estimated overhead of a cache entry: the map entry, the key string and the parsed value excluding characters.
+     */
+    private static final int ENTRY_OVERHEAD = 160;
+
+    /**
+     * Estimated bytes per input character: once for the key and once for the copy retained by the parsed value.
+     */
+    private static final int BYTES_PER_CHAR = 4;
+
+    /**
+     * Statistics for a single cache.
+     */
+    public static final class CacheStats {
+        private final long hitCount;
+
+        private final long missCount;
+
+        private final long evictionCount;
+
+        private final long weight;
+
+        private CacheStats(long hitCount, long missCount, long evictionCount, long weight) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.weight = weight;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * Returns the number of entries removed to stay within the memory budget, including new entries which were
+         * rejected because they were requested less frequently than the entries they would have replaced.
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /**
+         * Returns the estimated number of bytes currently used by the cache.
+         */
+        public long getWeight() {
+            return weight;
+        }
+
+        public double hitRate() {
+            long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + ", weight=" + weight;
+        }
+    }
+
+    private final NamespaceManager delegate;
+
+    private final Cache<Context> contexts;
+
+    private final Cache<Identifier> identifiers;
+
+    private final Cache<Version> versions;
+
+    private final Cache<VersionRange> versionRanges;
+
+    private final Cache<Scope> scopes;
+
+    private CachingNamespaceManager(Builder builder) {
+        super(builder.delegate.namespace());
+        this.delegate = builder.delegate;
+        long budget = builder.memoryBudget / 5;
+        this.contexts = new Cache<>(budget);
+        this.identifiers = new Cache<>(budget);
+        this.versions = new Cache<>(budget);
+        this.versionRanges = new Cache<>(budget);
+        this.scopes = new Cache<>(budget);
+    }
+
+    /**
+     * Returns the namespace manager whose values are cached.
+     */
+    public NamespaceManager delegate() {
+        return delegate;
+    }
+
+    public CacheStats getContextStats() {
+        return contexts.stats();
+    }
+
+    public CacheStats getIdentifierStats() {
+        return identifiers.stats();
+    }
+
+    public CacheStats getVersionStats() {
+        return versions.stats();
+    }
+
+    public CacheStats getVersionRangeStats() {
+        return versionRanges.stats();
+    }
+
+    public CacheStats getScopeStats() {
+        return scopes.stats();
+    }
+
+    @Override
+    public Context context(CharSequence context) {
+        return contexts.get(context, delegate::context);
+    }
+
+    @Override
+    public Identifier identifier(CharSequence identifier) {
+        return identifiers.get(identifier, delegate::identifier);
+    }
+
+    @Override
+    public Version version(CharSequence version) {
+        return versions.get(version, delegate::version);
+    }
+
+    @Override
+    public VersionRange versionRange(CharSequence versionRange) {
+        return versionRanges.get(versionRange, delegate::versionRange);
+    }
+
+    @Override
+    public Scope scope(CharSequence scope) {
+        return scopes.get(scope, delegate::scope);
+    }
+
+    @Override
+    public ParseResult<? extends Context> tryContext(CharSequence context) {
+        return contexts.tryGet(context, delegate::tryContext);
+    }
+
+    @Override
+    public ParseResult<? extends Identifier> tryIdentifier(CharSequence identifier) {
+        return identifiers.tryGet(identifier, delegate::tryIdentifier);
+    }
+
+    @Override
+    public ParseResult<? extends Version> tryVersion(CharSequence version) {
+        return versions.tryGet(version, delegate::tryVersion);
+    }
+
+    @Override
+    public ParseResult<? extends VersionRange> tryVersionRange(CharSequence versionRange) {
+        return versionRanges.tryGet(versionRange, delegate::tryVersionRange);
+    }
+
+    @Override
+    public ParseResult<? extends Scope> tryScope(CharSequence scope) {
+        return scopes.tryGet(scope, delegate::tryScope);
+    }
+
+    @Override
+    public Optional<? extends VersionCodec<?>> versionCodec() {
+        return delegate.versionCodec();
+    }
+
+    /**
+     * A size bounded cache of parsed values.
+     */
+    private static final class Cache<T> {
+        private final Segment<T>[] segments;
+
+        private final LongAdder hitCount = new LongAdder();
+
+        private final LongAdder missCount = new LongAdder();
+
+        private final LongAdder evictionCount = new LongAdder();
+
+        @SuppressWarnings("unchecked")
+        private Cache(long maximumWeight) {
+            // Keep at least 64KB in each segment so small budgets are not fragmented
+            int segmentCount = (int) Math.min(16, Long.highestOneBit(Math.max(1, maximumWeight >> 16)));
+            segments = (Segment<T>[]) new Segment<?>[segmentCount];
+            for (int i = 0; i < segmentCount; ++i) {
+                segments[i] = new Segment<>(maximumWeight / segmentCount);
+            }
+        }
+
+        public T get(CharSequence input, Function<CharSequence, ? extends T> parser) {
+            String key = input.toString();
+            int hash = spread(key.hashCode());
+            Segment<T> segment = segments[hash & (segments.length - 1)];
+            T value = segment.get(key, hash);
+            if (value != null) {
+                hitCount.increment();
+                return value;
+            }
+
+            missCount.increment();
+            value = Objects.requireNonNull(parser.apply(key));
+            evictionCount.add(segment.put(key, hash, value));
+            return value;
+        }
+
+        public ParseResult<? extends T> tryGet(CharSequence input,
+                Function<CharSequence, ParseResult<? extends T>> parser) {
+            String key = input.toString();
+            int hash = spread(key.hashCode());
+            Segment<T> segment = segments[hash & (segments.length - 1)];
+            T value = segment.get(key, hash);
+            if (value != null) {
+                hitCount.increment();
+                return ParseResult.success(value);
+            }
+
+            missCount.increment();
+            ParseResult<? extends T> result = parser.apply(key);
+            if (result.isSuccess()) {
+                evictionCount.add(segment.put(key, hash, result.orElseThrow()));
+            }
+            return result;
+        }
+
+        public CacheStats stats() {
+            long weight = 0;
+            for (Segment<T> segment : segments) {
+                weight += segment.weight();
+            }
+            return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), weight);
+        }
+
+        /**
+         * Spreads the bits of the string hash code so both the segment index and the sketch see well mixed bits.
+         */
+        private static int spread(int hash) {
+            hash *= 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    /**
+     * An independently locked portion of a cache.
+     */
+    private static final class Segment<T> {
+        private final long maximumWeight;
+
+        private final LinkedHashMap<String, T> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private final FrequencySketch sketch;
+
+        private long weight;
+
+        private Segment(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+            this.sketch = new FrequencySketch((int) Math.min(1 << 20, Math.max(64, maximumWeight / ENTRY_OVERHEAD)));
+        }
+
+        public synchronized T get(String key, int hash) {
+            sketch.increment(hash);
+            return entries.get(key);
+        }
+
+        /**
+         * Adds a new value, returning the number of entries evicted.
+         */
+        public synchronized int put(String key, int hash, T value) {
+            long entryWeight = weigh(key);
+            if (entryWeight > maximumWeight) {
+                return 1;
+            } else if (entries.containsKey(key)) {
+                // Another thread already parsed the same input
+                return 0;
+            }
+
+            int evicted = 0;
+            Iterator<Map.Entry<String, T>> victims = entries.entrySet().iterator();
+            if (weight + entryWeight > maximumWeight && victims.hasNext()) {
+                String victim = victims.next().getKey();
+                if (sketch.frequency(hash) <= sketch.frequency(Cache.spread(victim.hashCode()))) {
+                    return 1;
+                }
+                while (true) {
+                    weight -= weigh(victim);
+                    victims.remove();
+                    evicted++;
+                    if (weight + entryWeight <= maximumWeight || !victims.hasNext()) {
+                        break;
+                    }
+                    victim = victims.next().getKey();
+                }
+            }
+            entries.put(key, value);
+            weight += entryWeight;
+            return evicted;
+        }
+
+        public synchronized long weight() {
+            return weight;
+        }
+
+        private static long weigh(String key) {
+            return ENTRY_OVERHEAD + (long) BYTES_PER_CHAR * key.length();
+        }
+    }
+
+    /**
+     * A count-min sketch of 4-bit counters used to estimate how often each key is requested. Counters are periodically
+     * halved so the estimates favor recent activity.
+     */
+    private static final class FrequencySketch {
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private static final int[] SEEDS = { 0x97CB3127, 0xB492B66F, 0x9AE16A3B, 0xC2B2AE35 };
+
+        private final long[] table;
+
+        private final int sampleSize;
+
+        private int additions;
+
+        private FrequencySketch(int expectedEntries) {
+            // Each long holds 16 counters
+            table = new long[Math.max(8, Integer.highestOneBit(expectedEntries - 1) << 1) >>> 2];
+            sampleSize = 10 * expectedEntries;
+        }
+
+        public int frequency(int hash) {
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < SEEDS.length; ++i) {
+                int h = rehash(hash, i);
+                frequency = Math.min(frequency, (int) ((table[index(h)] >>> offset(h)) & 0xF));
+            }
+            return frequency;
+        }
+
+        public void increment(int hash) {
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; ++i) {
+                int h = rehash(hash, i);
+                int index = index(h);
+                int offset = offset(h);
+                if (((table[index] >>> offset) & 0xF) != 0xF) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < table.length; ++i) {
+                    table[i] = (table[i] >>> 1) & RESET_MASK;
+                }
+                additions /= 2;
+            }
+        }
+
+        private int index(int h) {
+            return (h >>> 4) & (table.length - 1);
+        }
+
+        private static int offset(int h) {
+            return (h & 0xF) << 2;
+        }
+
+        private static int rehash(int hash, int i) {
+            int h = (hash + SEEDS[i]) * SEEDS[i];
+            return h ^ (h >>> 17);
+        }
+    }
+
+    /**
+     * Builder for caching namespace managers.
+     */
+    public static final class Builder {
+
+        private final NamespaceManager delegate;
+
+        private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+
+        public Builder(NamespaceManager delegate) {
+            this.delegate = Objects.requireNonNull(delegate);
+        }
+
+        /**
+         * Sets the approximate number of bytes that may be retained by the caches.
+         */
+        public Builder memoryBudget(long memoryBudget) {
+            if (memoryBudget < 0) {
+                throw new IllegalArgumentException("memory budget must be non-negative: " + memoryBudget);
+            }
+            this.memoryBudget = memoryBudget;
+            return this;
+        }
+
+        public CachingNamespaceManager build() {
+            return new CachingNamespaceManager(this);
+        }
+    }
+
+}
@@ -55,4 +55,17 @@ public interface Dependency {
      */
     Identifier resolve(Version version);
 
+    /**
+     * Returns a stable 64-bit fingerprint of this dependency. Equal dependencies must have equal fingerprints, and
+     * unlike {@code hashCode} the value must not depend on the JVM.
+     *
+     * @implSpec the default implementation returns the {@linkplain Fingerprint fingerprint} of the string
+     *           representation
+     *
+     * @return the fingerprint of this dependency
+     */
+    default long fingerprint64() {
+        return Fingerprint.of(toString());
+    }
+
 }
@@ -0,0 +1,572 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Sorts and optionally deduplicates sequences of values that do not fit in memory. Values are ordered by a binary
+ * sort key using an unsigned lexicographic comparison, so the sort never calls {@code compareTo} on the values
+ * themselves (for example, a key built from a {@link VersionCodec} orders identifiers by the namespace version order).
+ * <p>
+ * Each value is serialized as it is added. When the buffered records exceed their share of the memory budget they are
+ * sorted and written to a temporary run file in the background while more input is buffered; the runs are then merged
+ * using a loser tree. At most a bounded number of runs are merged at once, so when there are more runs they are first
+ * reduced by intermediate merge passes; this bounds both the open files and the read buffers of the merge. Input that fits in memory is never written to disk. Records with equal sort keys are ordered by
+ * their serialized form, so equal values are always adjacent in the output.
+ *
+ * @author jgustie
+ */
+public final class ExternalSorter<T> {
+
+    /**
+     * The smallest read buffer given to each run being merged.
+     */
+    private static final int MIN_READ_BUFFER = 4096;
+
+    private static final int MAX_READ_BUFFER = 1 << 16;
+
+    /**
+     * Serializes values to and from the temporary run files.
+     */
+    public interface Serializer<T> {
+        void write(DataOutput output, T value) throws IOException;
+
+        T read(DataInput input) throws IOException;
+    }
+
+    /**
+     * The deduplication applied to the sorted output.
+     */
+    public enum Deduplication {
+        /**
+         * Every value is retained.
+         */
+        NONE,
+
+        /**
+         * Only the first of the values which are {@code equals} to each other is retained, values which are equal must
+         * have equal sort keys.
+         */
+        EQUALS,
+
+        /**
+         * Only the first of the values which have equal sort keys is retained.
+         */
+        SORT_KEY,
+    }
+
+    /**
+     * Returns a sort key function for identifiers which orders by the identifier without its version and then by the
+     * version encoded with the supplied codec. Identifiers without a version sort before the versions of the same
+     * identifier.
+     */
+    public static Function<Identifier, byte[]> identifierSortKey(VersionCodec<?> codec) {
+        Objects.requireNonNull(codec);
+        return identifier -> {
+            byte[] name = identifier.withoutVersion().toString().getBytes(UTF_8);
+            byte[] version = identifier.getVersion().map(codec::encode).orElse(null);
+            if (version == null) {
+                return name;
+            }
+            byte[] result = Arrays.copyOf(name, name.length + 1 + version.length);
+            System.arraycopy(version, 0, result, name.length + 1, version.length);
+            return result;
+        };
+    }
+
+    private final Function<? super T, byte[]> sortKey;
+
+    private final Serializer<T> serializer;
+
+    private final long memoryBudget;
+
+    private final int parallelism;
+
+    private final Path tempDirectory;
+
+    private final Deduplication deduplication;
+
+    private final ExecutorService executor;
+
+    private final int maxFanIn;
+
+    private ExternalSorter(Builder<T> builder) {
+        this.sortKey = builder.sortKey;
+        this.serializer = builder.serializer;
+        this.memoryBudget = builder.memoryBudget;
+        this.parallelism = builder.parallelism;
+        this.tempDirectory = builder.tempDirectory;
+        this.deduplication = builder.deduplication;
+        this.executor = builder.executor;
+        this.maxFanIn = builder.maxFanIn;
+    }
+
+    /**
+     * Sorts the input, passing the sorted (and deduplicated) values to the output.
+     *
+     * @return the number of values passed to the output
+     */
+    public long sort(Iterator<? extends T> input, Consumer<? super T> output) throws IOException {
+        // Leave room for the runs being written in the background
+        long chunkBudget = Math.max(1L, memoryBudget / (parallelism + 1));
+        Deque<Future<Path>> pending = new ArrayDeque<>();
+        List<Path> runs = new ArrayList<>();
+        // Writing runs blocks on the file system, without a supplied executor use dedicated threads for this sort
+        ExecutorService executor = this.executor != null ? this.executor : Executors.newFixedThreadPool(parallelism,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "external-sort");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            List<Record> chunk = new ArrayList<>();
+            long chunkSize = 0L;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(bytes);
+            while (input.hasNext()) {
+                T value = input.next();
+                bytes.reset();
+                serializer.write(data, value);
+                Record record = new Record(sortKey.apply(value), bytes.toByteArray());
+                chunk.add(record);
+                chunkSize += record.size();
+                if (chunkSize >= chunkBudget) {
+                    if (pending.size() >= parallelism) {
+                        runs.add(await(pending.removeFirst()));
+                    }
+                    List<Record> full = chunk;
+                    pending.addLast(executor.submit(() -> writeRun(full)));
+                    chunk = new ArrayList<>();
+                    chunkSize = 0L;
+                }
+            }
+            while (!pending.isEmpty()) {
+                runs.add(await(pending.removeFirst()));
+            }
+
+            if (runs.isEmpty()) {
+                return emit(sortChunk(chunk).iterator(), output);
+            } else if (!chunk.isEmpty()) {
+                runs.add(writeRun(chunk));
+            }
+            return merge(reduce(runs), records -> emit(records, output));
+        } finally {
+            for (Future<Path> future : pending) {
+                try {
+                    runs.add(await(future));
+                } catch (IOException | RuntimeException e) {
+                    // Already failing, the run could not have been written
+                }
+            }
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            if (executor != this.executor) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Sorts a chunk, dropping records that can never be emitted.
+     */
+    private List<Record> sortChunk(List<Record> chunk) {
+        Record[] records = chunk.toArray(new Record[0]);
+        Arrays.sort(records, Record::compareTo);
+        List<Record> result = new ArrayList<>(records.length);
+        Record previous = null;
+        for (Record record : records) {
+            if (previous != null && previous.sameKey(record)
+                    && (deduplication == Deduplication.SORT_KEY
+                            || (deduplication == Deduplication.EQUALS && previous.compareTo(record) == 0))) {
+                continue;
+            }
+            result.add(record);
+            previous = record;
+        }
+        return result;
+    }
+
+    private Path writeRun(List<Record> chunk) throws IOException {
+        Path run = Files.createTempFile(tempDirectory, "sort", ".run");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+            for (Record record : sortChunk(chunk)) {
+                record.writeTo(out);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(run);
+            throw e;
+        }
+        return run;
+    }
+
+    /**
+     * Returns the number of runs merged at once: no more than the configured limit and few enough that every reader
+     * gets a buffer of at least {@value #MIN_READ_BUFFER} bytes from the memory budget.
+     */
+    private int fanIn() {
+        return (int) Math.max(2L, Math.min(maxFanIn, memoryBudget / MIN_READ_BUFFER));
+    }
+
+    private int readBufferSize(int runCount) {
+        return (int) Math.max(MIN_READ_BUFFER, Math.min(MAX_READ_BUFFER, memoryBudget / runCount));
+    }
+
+    /**
+     * Merges the oldest runs into new runs until no more than the fan-in remain. The supplied list is updated in place
+     * so it always names every run file which exists.
+     */
+    private List<Path> reduce(List<Path> runs) throws IOException {
+        int fanIn = fanIn();
+        while (runs.size() > fanIn) {
+            List<Path> inputs = new ArrayList<>(runs.subList(0, fanIn));
+            Path run = Files.createTempFile(tempDirectory, "sort", ".run");
+            runs.add(run);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(run), readBufferSize(fanIn)))) {
+                // Deduplication is deferred to the final merge
+                merge(inputs, records -> {
+                    while (records.hasNext()) {
+                        records.next().writeTo(out);
+                    }
+                    return null;
+                });
+            }
+            for (Path input : inputs) {
+                Files.delete(input);
+            }
+            runs.subList(0, fanIn).clear();
+        }
+        return runs;
+    }
+
+    private <R> R merge(List<Path> runs, MergeFunction<R> function) throws IOException {
+        int bufferSize = readBufferSize(runs.size());
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        try {
+            for (Path run : runs) {
+                readers.add(new RunReader(run, bufferSize));
+            }
+            return function.apply(new LoserTree(readers));
+        } catch (UncheckedIOException e) {
+            // Failures reading the runs are wrapped by the iterator
+            throw e.getCause();
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private long emit(Iterator<Record> records, Consumer<? super T> output) throws IOException {
+        long count = 0L;
+        Record previous = null;
+        List<T> group = new ArrayList<>();
+        while (records.hasNext()) {
+            Record record = records.next();
+            boolean sameKey = previous != null && previous.sameKey(record);
+            if (sameKey && deduplication == Deduplication.SORT_KEY) {
+                continue;
+            }
+            T value = serializer.read(new DataInputStream(new ByteArrayInputStream(record.value)));
+            if (deduplication == Deduplication.EQUALS) {
+                if (!sameKey) {
+                    group.clear();
+                } else if (group.contains(value)) {
+                    continue;
+                }
+                group.add(value);
+            }
+            output.accept(value);
+            previous = record;
+            count++;
+        }
+        return count;
+    }
+
+    private static Path await(Future<Path> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while writing sorted run", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("failed to write sorted run", e.getCause());
+        }
+    }
+
+    /**
+     * Consumes the merged records of a set of runs.
+     */
+    @FunctionalInterface
+    private interface MergeFunction<R> {
+        R apply(Iterator<Record> records) throws IOException;
+    }
+
+    /**
+     * A serialized value and its sort key.
+     */
+    private static final class Record {
+        private final byte[] key;
+
+        private final byte[] value;
+
+        private Record(byte[] key, byte[] value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        private void writeTo(DataOutput out) throws IOException {
+            out.writeInt(key.length);
+            out.write(key);
+            out.writeInt(value.length);
+            out.write(value);
+        }
+
+        private long size() {
+            // Rough overhead of the record and its two arrays
+            return key.length + value.length + 64L;
+        }
+
+        private boolean sameKey(Record other) {
+            return Arrays.equals(key, other.key);
+        }
+
+        private int compareTo(Record other) {
+            int result = VersionCodec.compare(key, other.key);
+            return result != 0 ? result : VersionCodec.compare(value, other.value);
+        }
+    }
+
+    /**
+     * Sequentially reads the records of a run.
+     */
+    private static final class RunReader {
+        private final DataInputStream in;
+
+        private Record current;
+
+        private RunReader(Path run, int bufferSize) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), bufferSize));
+            advance();
+        }
+
+        private void advance() throws IOException {
+            int keyLength;
+            try {
+                keyLength = in.readInt();
+            } catch (EOFException e) {
+                current = null;
+                return;
+            }
+            byte[] key = new byte[keyLength];
+            in.readFully(key);
+            byte[] value = new byte[in.readInt()];
+            in.readFully(value);
+            current = new Record(key, value);
+        }
+
+        private void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * A k-way merge of runs using a tree of losers: each internal node holds the run that lost the comparison at that
+     * node, so replacing the winner only replays the comparisons on the path from its leaf to the root.
+     */
+    private static final class LoserTree implements Iterator<Record> {
+        private final List<RunReader> runs;
+
+        private final int[] tree;
+
+        private LoserTree(List<RunReader> runs) {
+            this.runs = runs;
+            this.tree = new int[runs.size()];
+            // Start with a virtual run that beats everything, then push each real run in
+            Arrays.fill(tree, runs.size());
+            for (int run = runs.size() - 1; run >= 0; --run) {
+                adjust(run);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return runs.get(tree[0]).current != null;
+        }
+
+        @Override
+        public Record next() {
+            RunReader winner = runs.get(tree[0]);
+            Record result = winner.current;
+            try {
+                winner.advance();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            adjust(tree[0]);
+            return result;
+        }
+
+        private void adjust(int run) {
+            int winner = run;
+            for (int node = (run + tree.length) >> 1; node > 0; node >>= 1) {
+                if (beats(tree[node], winner)) {
+                    int loser = winner;
+                    winner = tree[node];
+                    tree[node] = loser;
+                }
+            }
+            tree[0] = winner;
+        }
+
+        private boolean beats(int run1, int run2) {
+            if (run1 == runs.size()) {
+                return true;
+            } else if (run2 == runs.size()) {
+                return false;
+            }
+            Record record1 = runs.get(run1).current;
+            Record record2 = runs.get(run2).current;
+            if (record1 == null) {
+                return false;
+            } else if (record2 == null) {
+                return true;
+            }
+            int result = record1.compareTo(record2);
+            return result < 0 || (result == 0 && run1 < run2);
+        }
+    }
+
+    /**
+     * Builder for external sorters.
+     */
+    public static final class Builder<T> {
+
+        private final Function<? super T, byte[]> sortKey;
+
+        private final Serializer<T> serializer;
+
+        private long memoryBudget = 64L << 20;
+
+        private int parallelism = 1;
+
+        private Path tempDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+
+        private Deduplication deduplication = Deduplication.NONE;
+
+        private ExecutorService executor;
+
+        private int maxFanIn = 128;
+
+        public Builder(Function<? super T, byte[]> sortKey, Serializer<T> serializer) {
+            this.sortKey = Objects.requireNonNull(sortKey);
+            this.serializer = Objects.requireNonNull(serializer);
+        }
+
+        /**
+         * The approximate number of bytes of serialized records held in memory, including runs being written.
+         */
+        public Builder<T> memoryBudget(long memoryBudget) {
+            if (memoryBudget <= 0L) {
+                throw new IllegalArgumentException("memory budget must be positive: " + memoryBudget);
+            }
+            this.memoryBudget = memoryBudget;
+            return this;
+        }
+
+        /**
+         * The maximum number of runs being sorted and written in the background.
+         */
+        public Builder<T> parallelism(int parallelism) {
+            if (parallelism <= 0) {
+                throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public Builder<T> tempDirectory(Path tempDirectory) {
+            this.tempDirectory = Objects.requireNonNull(tempDirectory);
+            return this;
+        }
+
+        public Builder<T> deduplication(Deduplication deduplication) {
+            this.deduplication = Objects.requireNonNull(deduplication);
+            return this;
+        }
+
+        /**
+         * The executor used to sort and write runs. By default each sort uses its own threads (one per unit of
+         * parallelism) which are shut down when the sort completes; the executor should tolerate tasks that block
+         * on file I/O.
+         */
+        public Builder<T> executor(ExecutorService executor) {
+            this.executor = Objects.requireNonNull(executor);
+            return this;
+        }
+
+        /**
+         * The maximum number of runs merged at once, more runs are reduced using intermediate merge passes. The
+         * fan-in is further limited so each run gets a read buffer of at least 4 KB from the memory budget.
+         */
+        public Builder<T> maxFanIn(int maxFanIn) {
+            if (maxFanIn < 2) {
+                throw new IllegalArgumentException("maximum fan-in must be at least 2: " + maxFanIn);
+            }
+            this.maxFanIn = maxFanIn;
+            return this;
+        }
+
+        public ExternalSorter<T> build() {
+            return new ExternalSorter<>(this);
+        }
+    }
+
+}
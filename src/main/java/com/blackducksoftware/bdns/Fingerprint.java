@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns;
+
+/**
+ * Stable 64-bit fingerprints. Unlike {@code hashCode}, a fingerprint is fully specified and will produce the same
+ * value on any JVM (or in any other language), making it suitable for partitioning work across processes.
+ * <p>
+ * A fingerprint is computed over a sequence of fields. Starting from the FNV-1a 64-bit offset basis, each byte is
+ * absorbed using FNV-1a: the UTF-8 encoding of each field (unpaired surrogates are encoded as {@code '?'}) followed
+ * by the terminator {@code 0xFF}, or the single byte {@code 0xFE} for a {@code null} field. Neither byte can occur
+ * in UTF-8, so the field boundaries are unambiguous. The final state is passed through the MurmurHash3
+ * {@code fmix64} finalizer.
+ *
+ * @author jgustie
+ */
+public final class Fingerprint {
+
+    private static final long OFFSET_BASIS = 0xCBF29CE484222325L;
+
+    private static final long PRIME = 0x100000001B3L;
+
+    /**
+     * Returns the fingerprint of the supplied fields, any of which may be {@code null}.
+     */
+    public static long of(CharSequence... fields) {
+        long hash = OFFSET_BASIS;
+        for (CharSequence field : fields) {
+            hash = field != null ? absorb(absorb(hash, field), 0xFF) : absorb(hash, 0xFE);
+        }
+        return fmix64(hash);
+    }
+
+    /**
+     * Returns the partition in {@code [0, partitions)} that owns the supplied fingerprint, using the "jump" consistent
+     * hash of Lamping and Veach. When the number of partitions grows from {@code n} to {@code n + 1}, only
+     * {@code 1/(n + 1)} of the fingerprints move, and they all move to the new partition.
+     *
+     * @throws IllegalArgumentException
+     *             if the number of partitions is not positive
+     */
+    public static int partition(long fingerprint, int partitions) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        }
+        long key = fingerprint;
+        long b = -1L;
+        long j = 0L;
+        while (j < partitions) {
+            b = j;
+            key = key * 2862933555777941757L + 1L;
+            j = (long) ((b + 1L) * ((double) (1L << 31) / (double) ((key >>> 33) + 1L)));
+        }
+        return (int) b;
+    }
+
+    /**
+     * The MurmurHash3 64-bit finalizer.
+     */
+    public static long fmix64(long value) {
+        long h = value;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB93FE1A85B6BL;
+        return h ^ (h >>> 33);
+    }
+
+    private static long absorb(long hash, CharSequence value) {
+        long result = hash;
+        int length = value.length();
+        for (int i = 0; i < length; ++i) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                result = absorb(result, c);
+            } else if (c < 0x800) {
+                result = absorb(result, 0xC0 | (c >>> 6));
+                result = absorb(result, 0x80 | (c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                result = absorb(result, 0xE0 | (c >>> 12));
+                result = absorb(result, 0x80 | ((c >>> 6) & 0x3F));
+                result = absorb(result, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                result = absorb(result, 0xF0 | (cp >>> 18));
+                result = absorb(result, 0x80 | ((cp >>> 12) & 0x3F));
+                result = absorb(result, 0x80 | ((cp >>> 6) & 0x3F));
+                result = absorb(result, 0x80 | (cp & 0x3F));
+            } else {
+                result = absorb(result, '?');
+            }
+        }
+        return result;
+    }
+
+    private static long absorb(long hash, int b) {
+        return (hash ^ b) * PRIME;
+    }
+
+    private Fingerprint() {
+    }
+
+}
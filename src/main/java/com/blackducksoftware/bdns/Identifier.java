@@ -49,4 +49,17 @@ public interface Identifier {
      */
     Identifier withoutVersion();
 
+    /**
+     * Returns a stable 64-bit fingerprint of this identifier. Equal identifiers must have equal fingerprints, and
+     * unlike {@code hashCode} the value must not depend on the JVM.
+     *
+     * @implSpec the default implementation returns the {@linkplain Fingerprint fingerprint} of the string
+     *           representation
+     *
+     * @return the fingerprint of this identifier
+     */
+    default long fingerprint64() {
+        return Fingerprint.of(toString());
+    }
+
 }
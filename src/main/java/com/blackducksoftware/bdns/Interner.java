@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides canonical instances of immutable values, similar to {@link String#intern()}. Canonical instances are only
+ * weakly retained: once an instance is no longer referenced outside of the interner it can be garbage collected and a
+ * new canonical instance will be established the next time an equal value is interned. Interners are safe for
+ * concurrent use.
+ *
+ * @author jgustie
+ */
+public final class Interner<T> {
+
+    /**
+     * Returns a new interner which weakly retains canonical instances.
+     */
+    public static <T> Interner<T> weak() {
+        return new Interner<>();
+    }
+
+    private final ConcurrentHashMap<Object, WeakKey<T>> map = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<T> queue = new ReferenceQueue<>();
+
+    private Interner() {
+    }
+
+    /**
+     * Returns the canonical instance equal to the supplied sample, making the sample canonical if there is none.
+     */
+    public T intern(T sample) {
+        Objects.requireNonNull(sample);
+        expungeStaleEntries();
+
+        WeakKey<T> existing = map.get(new StrongKey<>(sample));
+        T canonical = existing != null ? existing.get() : null;
+        if (canonical != null) {
+            return canonical;
+        }
+
+        WeakKey<T> key = new WeakKey<>(sample, queue);
+        while (true) {
+            existing = map.putIfAbsent(key, key);
+            if (existing == null) {
+                return sample;
+            }
+            canonical = existing.get();
+            if (canonical != null) {
+                return canonical;
+            }
+            // The previous canonical instance was collected but has not been expunged yet
+            map.remove(existing, existing);
+        }
+    }
+
+    /**
+     * Returns the approximate number of canonical instances currently retained.
+     */
+    public int size() {
+        expungeStaleEntries();
+        return map.size();
+    }
+
+    private void expungeStaleEntries() {
+        Reference<? extends T> reference;
+        while ((reference = queue.poll()) != null) {
+            map.remove(reference, reference);
+        }
+    }
+
+    /**
+     * The key stored in the map, only the referent is compared for equality.
+     */
+    private static final class WeakKey<T> extends WeakReference<T> {
+        private final int hash;
+
+        private WeakKey(T referent, ReferenceQueue<? super T> queue) {
+            super(referent, queue);
+            this.hash = referent.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            } else if (obj instanceof WeakKey<?>) {
+                Object referent = get();
+                return referent != null && referent.equals(((WeakKey<?>) obj).get());
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A temporary key used for lookups so the sample does not need to be wrapped in a reference.
+     */
+    private static final class StrongKey<T> {
+        private final T referent;
+
+        private StrongKey(T referent) {
+            this.referent = referent;
+        }
+
+        @Override
+        public int hashCode() {
+            return referent.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof WeakKey<?> && referent.equals(((WeakKey<?>) obj).get());
+        }
+    }
+
+}
@@ -174,6 +174,87 @@ public abstract class NamespaceManager {
      */
     public abstract Scope scope(CharSequence scope);
 
+    /**
+     * Returns the codec used to produce order preserving binary representations of versions. Only namespaces which
+     * define an explicit version order provide a codec.
+     *
+     * @return the version codec for this namespace, or empty if versions from this namespace are not ordered
+     */
+    public Optional<? extends VersionCodec<?>> versionCodec() {
+        return Optional.empty();
+    }
+
+    /**
+     * Attempts to create a new context without throwing an exception for invalid input. The default implementation
+     * catches the {@code IllegalArgumentException} thrown by {@link #context(CharSequence)}, namespace managers should
+     * override this to avoid the cost of the exception.
+     *
+     * @param context
+     *            the context to be parsed
+     * @return the result of parsing the context
+     * @throws NullPointerException
+     *             if the supplied context is {@code null}
+     */
+    public ParseResult<? extends Context> tryContext(CharSequence context) {
+        return tryParse(context, this::context);
+    }
+
+    /**
+     * Attempts to create a new identifier without throwing an exception for invalid input.
+     *
+     * @param identifier
+     *            the identifier to be parsed
+     * @return the result of parsing the identifier
+     * @throws NullPointerException
+     *             if the supplied identifier is {@code null}
+     * @see #tryContext(CharSequence)
+     */
+    public ParseResult<? extends Identifier> tryIdentifier(CharSequence identifier) {
+        return tryParse(identifier, this::identifier);
+    }
+
+    /**
+     * Attempts to create a new version without throwing an exception for invalid input.
+     *
+     * @param version
+     *            the version to be parsed
+     * @return the result of parsing the version
+     * @throws NullPointerException
+     *             if the supplied version is {@code null}
+     * @see #tryContext(CharSequence)
+     */
+    public ParseResult<? extends Version> tryVersion(CharSequence version) {
+        return tryParse(version, this::version);
+    }
+
+    /**
+     * Attempts to create a new version range without throwing an exception for invalid input.
+     *
+     * @param versionRange
+     *            the version range to be parsed
+     * @return the result of parsing the version range
+     * @throws NullPointerException
+     *             if the supplied version range is {@code null}
+     * @see #tryContext(CharSequence)
+     */
+    public ParseResult<? extends VersionRange> tryVersionRange(CharSequence versionRange) {
+        return tryParse(versionRange, this::versionRange);
+    }
+
+    /**
+     * Attempts to create a new scope without throwing an exception for invalid input.
+     *
+     * @param scope
+     *            the scope to be parsed
+     * @return the result of parsing the scope
+     * @throws NullPointerException
+     *             if the supplied scope is {@code null}
+     * @see #tryContext(CharSequence)
+     */
+    public ParseResult<? extends Scope> tryScope(CharSequence scope) {
+        return tryParse(scope, this::scope);
+    }
+
     /**
      * Check to see if the supplied value is a valid context for this namespace manager.
      *
@@ -182,7 +263,7 @@ public abstract class NamespaceManager {
      * @return {@code true} if the value is valid, {@code false} otherwise
      */
     public boolean isValidContext(CharSequence context) {
-        return isValid(context, this::context);
+        return tryContext(context).isSuccess();
     }
 
     /**
@@ -193,7 +274,7 @@ public abstract class NamespaceManager {
      * @return {@code true} if the value is valid, {@code false} otherwise
      */
     public boolean isValidIdentifier(CharSequence identifier) {
-        return isValid(identifier, this::identifier);
+        return tryIdentifier(identifier).isSuccess();
     }
 
     /**
@@ -204,7 +285,7 @@ public abstract class NamespaceManager {
      * @return {@code true} if the value is valid, {@code false} otherwise
      */
     public boolean isValidVersion(CharSequence version) {
-        return isValid(version, this::version);
+        return tryVersion(version).isSuccess();
     }
 
     /**
@@ -215,7 +296,7 @@ public abstract class NamespaceManager {
      * @return {@code true} if the value is valid, {@code false} otherwise
      */
     public boolean isValidVersionRange(CharSequence versionRange) {
-        return isValid(versionRange, this::versionRange);
+        return tryVersionRange(versionRange).isSuccess();
     }
 
     /**
@@ -226,19 +307,18 @@ public abstract class NamespaceManager {
      * @return {@code true} if the value is valid, {@code false} otherwise
      */
     public boolean isValidScope(CharSequence scope) {
-        return isValid(scope, this::scope);
+        return tryScope(scope).isSuccess();
     }
 
     /*
-     * Helper to test if a supplied input causes a parsing function to throw an {@code IllegalArgumentException}.
+     * Helper to convert the {@code IllegalArgumentException} thrown by a parsing function into a failed result.
      */
-    private static boolean isValid(CharSequence input, Function<CharSequence, ?> parser) {
+    private static <T> ParseResult<T> tryParse(CharSequence input, Function<CharSequence, T> parser) {
         try {
             // The parser function MUST NOT return null, it can only throw
-            Objects.requireNonNull(parser.apply(input));
-            return true;
+            return ParseResult.success(parser.apply(Objects.requireNonNull(input)));
         } catch (IllegalArgumentException e) {
-            return false;
+            return ParseResult.failure(ParseResult.ErrorKind.INVALID, -1, e.getMessage());
         }
     }
 
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The outcome of parsing a value without throwing exceptions. A result is either successful and contains the parsed
+ * value, or it has failed and describes what was wrong with the input and where.
+ *
+ * @author jgustie
+ */
+public final class ParseResult<T> {
+
+    /**
+     * The kinds of parse errors.
+     */
+    public enum ErrorKind {
+        /**
+         * The input was parsed successfully.
+         */
+        NONE,
+
+        /**
+         * The input ended before it was complete.
+         */
+        UNEXPECTED_END,
+
+        /**
+         * The input contained a character that is not allowed at the error offset.
+         */
+        UNEXPECTED_CHARACTER,
+
+        /**
+         * A component of the input that is required to be non-empty was empty.
+         */
+        EMPTY_COMPONENT,
+
+        /**
+         * A numeric component has a leading zero that is not allowed.
+         */
+        LEADING_ZERO,
+
+        /**
+         * A numeric component is too large to be represented.
+         */
+        OVERFLOW,
+
+        /**
+         * The input is invalid for a reason not described by any other kind.
+         */
+        INVALID,
+    }
+
+    /**
+     * Returns a successful result.
+     */
+    public static <T> ParseResult<T> success(T value) {
+        return new ParseResult<>(Objects.requireNonNull(value), ErrorKind.NONE, -1, null);
+    }
+
+    /**
+     * Returns a failed result.
+     */
+    public static <T> ParseResult<T> failure(ErrorKind errorKind, int errorOffset) {
+        return failure(errorKind, errorOffset, null);
+    }
+
+    /**
+     * Returns a failed result with a message describing the failure.
+     */
+    public static <T> ParseResult<T> failure(ErrorKind errorKind, int errorOffset, String message) {
+        if (errorKind == ErrorKind.NONE) {
+            throw new IllegalArgumentException("failure must have an error");
+        }
+        return new ParseResult<>(null, Objects.requireNonNull(errorKind), errorOffset, message);
+    }
+
+    private final T value;
+
+    private final ErrorKind errorKind;
+
+    private final int errorOffset;
+
+    private final String message;
+
+    private ParseResult(T value, ErrorKind errorKind, int errorOffset, String message) {
+        this.value = value;
+        this.errorKind = errorKind;
+        this.errorOffset = errorOffset;
+        this.message = message;
+    }
+
+    public boolean isSuccess() {
+        return value != null;
+    }
+
+    /**
+     * Returns the parsed value, empty if parsing failed.
+     */
+    public Optional<T> getValue() {
+        return Optional.ofNullable(value);
+    }
+
+    /**
+     * Returns the kind of error, {@link ErrorKind#NONE} if parsing succeeded.
+     */
+    public ErrorKind getErrorKind() {
+        return errorKind;
+    }
+
+    /**
+     * Returns the offset into the input where the error was detected, {@code -1} if parsing succeeded or the offset is
+     * not known.
+     */
+    public int getErrorOffset() {
+        return errorOffset;
+    }
+
+    /**
+     * Returns the parsed value.
+     *
+     * @throws IllegalArgumentException
+     *             if parsing failed
+     */
+    public T orElseThrow() {
+        if (value == null) {
+            throw new IllegalArgumentException(toString());
+        }
+        return value;
+    }
+
+    /**
+     * Applies the supplied function to a successfully parsed value.
+     */
+    @SuppressWarnings("unchecked")
+    public <U> ParseResult<U> map(Function<? super T, ? extends U> mapper) {
+        return value != null ? success(mapper.apply(value)) : (ParseResult<U>) this;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(value, errorKind, errorOffset, message);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof ParseResult<?>) {
+            ParseResult<?> other = (ParseResult<?>) obj;
+            return Objects.equals(value, other.value)
+                    && errorKind == other.errorKind
+                    && errorOffset == other.errorOffset
+                    && Objects.equals(message, other.message);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        if (value != null) {
+            return value.toString();
+        }
+        StringBuilder result = new StringBuilder();
+        result.append(message != null ? message : "invalid input").append(" (").append(errorKind);
+        if (errorOffset >= 0) {
+            result.append(" at offset ").append(errorOffset);
+        }
+        return result.append(')').toString();
+    }
+
+}
@@ -15,14 +15,17 @@
  */
 package com.blackducksoftware.bdns;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.StringJoiner;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * A version for software that uses Semantic Versioning.
@@ -61,13 +64,38 @@ public class SemVer implements Version, Comparable<SemVer> {
 
     private final List<String> buildMetadata;
 
+    /**
+     * The major, minor and patch versions packed into 21 bits each so they can be compared at once, or {@code -1} if
+     * any of them is too large.
+     */
+    private final long packedVersion;
+
+    /**
+     * The value of each numeric pre-release identifier, {@link Rules#ALPHANUMERIC} for alphanumeric identifiers or
+     * {@link Rules#LARGE_NUMERIC} for numeric identifiers too large for a {@code long}.
+     */
+    private final long[] preReleaseValues;
+
     protected SemVer(Builder builder) {
-        this.value = builder.value;
         this.majorVersion = builder.majorVersion;
         this.minorVersion = builder.minorVersion;
         this.patchVersion = builder.patchVersion;
         this.preReleaseVersion = Rules.unmodifiableCopyOf(builder.preReleaseVersion);
         this.buildMetadata = Rules.unmodifiableCopyOf(builder.buildMetadata);
+        this.packedVersion = Rules.packVersion(majorVersion, minorVersion, patchVersion);
+        this.preReleaseValues = Rules.identifierValues(preReleaseVersion);
+    }
+
+    private SemVer(String value, int majorVersion, int minorVersion, int patchVersion, List<String> preReleaseVersion,
+            List<String> buildMetadata) {
+        this.value = value;
+        this.majorVersion = majorVersion;
+        this.minorVersion = minorVersion;
+        this.patchVersion = patchVersion;
+        this.preReleaseVersion = preReleaseVersion;
+        this.buildMetadata = buildMetadata;
+        this.packedVersion = Rules.packVersion(majorVersion, minorVersion, patchVersion);
+        this.preReleaseValues = Rules.identifierValues(preReleaseVersion);
     }
 
     public final int getMajorVersion() {
@@ -98,6 +126,16 @@ public class SemVer implements Version, Comparable<SemVer> {
         return new Builder(this);
     }
 
+    /**
+     * Returns the fingerprint of the major, minor and patch versions followed by the dot separated pre-release version
+     * and build metadata, independent of the original input.
+     */
+    @Override
+    public long fingerprint64() {
+        return Fingerprint.of(Integer.toString(majorVersion), Integer.toString(minorVersion),
+                Integer.toString(patchVersion), String.join(".", preReleaseVersion), String.join(".", buildMetadata));
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(majorVersion, minorVersion, patchVersion, preReleaseVersion, buildMetadata);
@@ -126,29 +164,34 @@ public class SemVer implements Version, Comparable<SemVer> {
     @Override
     public int compareTo(SemVer o) {
         int result;
-        if ((result = Integer.compare(majorVersion, o.majorVersion)) != 0) {
-            return result;
-        }
-        if ((result = Integer.compare(minorVersion, o.minorVersion)) != 0) {
-            return result;
-        }
-        if ((result = Integer.compare(patchVersion, o.patchVersion)) != 0) {
+        if (packedVersion >= 0 && o.packedVersion >= 0) {
+            if ((result = Long.compare(packedVersion, o.packedVersion)) != 0) {
+                return result;
+            }
+        } else if ((result = Integer.compare(majorVersion, o.majorVersion)) != 0
+                || (result = Integer.compare(minorVersion, o.minorVersion)) != 0
+                || (result = Integer.compare(patchVersion, o.patchVersion)) != 0) {
             return result;
         }
 
-        int preReleaseVersionLen = Math.min(preReleaseVersion.size(), o.preReleaseVersion.size());
+        int preReleaseVersionLen = Math.min(preReleaseValues.length, o.preReleaseValues.length);
         if (preReleaseVersionLen > 0) {
             // Neither pre-release version is empty
             for (int i = 0; i < preReleaseVersionLen; ++i) {
-                if ((result = Rules.compareIdentifier(preReleaseVersion.get(i), o.preReleaseVersion.get(i))) != 0) {
-                    return result;
+                long v1 = preReleaseValues[i];
+                long v2 = o.preReleaseValues[i];
+                if (v1 != v2 || v1 == Rules.ALPHANUMERIC || v1 == Rules.LARGE_NUMERIC) {
+                    if ((result = Rules.compareIdentifier(v1, preReleaseVersion.get(i),
+                            v2, o.preReleaseVersion.get(i))) != 0) {
+                        return result;
+                    }
                 }
             }
-            return Integer.compare(preReleaseVersion.size(), o.preReleaseVersion.size());
-        } else if (preReleaseVersion.isEmpty()) {
-            return o.preReleaseVersion.isEmpty() ? 0 : 1;
+            return Integer.compare(preReleaseValues.length, o.preReleaseValues.length);
+        } else if (preReleaseValues.length == 0) {
+            return o.preReleaseValues.length == 0 ? 0 : 1;
         } else {
-            return o.preReleaseVersion.isEmpty() ? -1 : 0;
+            return o.preReleaseValues.length == 0 ? -1 : 0;
         }
     }
 
@@ -176,26 +219,34 @@ public class SemVer implements Version, Comparable<SemVer> {
     }
 
     public static SemVer valueOf(CharSequence input) {
-        Matcher matcher = Rules.tokenize(input);
-        if (!matcher.matches()) {
-            throw new IllegalArgumentException("invalid Semver input: " + input);
-        }
-
-        Builder builder = new Builder(input.toString());
-        builder.majorVersion(Integer.parseInt(matcher.group(1)));
-        builder.minorVersion(Integer.parseInt(matcher.group(2)));
-        builder.patchVersion(Integer.parseInt(matcher.group(3)));
-        builder.preReleaseVersionString(matcher.group(4));
-        builder.buildMetadataString(matcher.group(5));
-        return builder.build();
+        ParseResult<SemVer> result = tryParse(input);
+        if (!result.isSuccess()) {
+            throw new IllegalArgumentException("invalid Semver input: " + input + " ("
+                    + result.getErrorKind() + " at offset " + result.getErrorOffset() + ")");
+        }
+        return result.orElseThrow();
+    }
+
+    /**
+     * Parses a semantic version without throwing exceptions for invalid input. The input is validated against the full
+     * grammar in a single pass, only the resulting version is allocated.
+     */
+    public static ParseResult<SemVer> tryParse(CharSequence input) {
+        return new Parser(input).parse();
+    }
+
+    /**
+     * Returns the codec for semantic versions. The encoding contains the order preserving representation of the
+     * version precedence followed by the build metadata.
+     */
+    public static VersionCodec<SemVer> codec() {
+        return Codec.INSTANCE;
     }
 
     public static final class Builder {
 
         private final Rules rules = Rules.VALIDATION;
 
-        private final String value;
-
         private int majorVersion;
 
         private int minorVersion;
@@ -207,11 +258,11 @@ public class SemVer implements Version, Comparable<SemVer> {
         private final List<String> buildMetadata;
 
         public Builder() {
-            this((String) null);
+            preReleaseVersion = new ArrayList<>();
+            buildMetadata = new ArrayList<>();
         }
 
         private Builder(SemVer semVer) {
-            value = null;
             this.majorVersion = semVer.majorVersion;
             this.minorVersion = semVer.minorVersion;
             this.patchVersion = semVer.patchVersion;
@@ -219,12 +270,6 @@ public class SemVer implements Version, Comparable<SemVer> {
             this.buildMetadata = new ArrayList<>(semVer.buildMetadata);
         }
 
-        private Builder(String value) {
-            this.value = value;
-            preReleaseVersion = new ArrayList<>();
-            buildMetadata = new ArrayList<>();
-        }
-
         public Builder majorVersion(int majorVersion) {
             this.majorVersion = rules.checkVersion(majorVersion, "major version");
             return this;
@@ -274,14 +319,6 @@ public class SemVer implements Version, Comparable<SemVer> {
             return this;
         }
 
-        private Builder preReleaseVersionString(String value) {
-            return preReleaseVersion(value != null ? Arrays.asList(value.split("\\.", -1)) : Collections.emptyList());
-        }
-
-        private Builder buildMetadataString(String value) {
-            return buildMetadata(value != null ? Arrays.asList(value.split("\\.", -1)) : Collections.emptyList());
-        }
-
         public Builder incrementPatchVersion() {
             return version(majorVersion, minorVersion, patchVersion + 1);
         }
@@ -299,6 +336,264 @@ public class SemVer implements Version, Comparable<SemVer> {
         }
     }
 
+    /**
+     * Single pass parser for the Semantic Versioning grammar. The first invalid character stops the scan.
+     */
+    private static final class Parser {
+
+        private final CharSequence input;
+
+        private int position;
+
+        private ParseResult.ErrorKind errorKind;
+
+        private int errorOffset;
+
+        private Parser(CharSequence input) {
+            this.input = Objects.requireNonNull(input);
+        }
+
+        public ParseResult<SemVer> parse() {
+            int majorVersion = number();
+            int minorVersion = majorVersion >= 0 && dot() ? number() : -1;
+            int patchVersion = minorVersion >= 0 && dot() ? number() : -1;
+            if (patchVersion < 0) {
+                return ParseResult.failure(errorKind, errorOffset);
+            }
+
+            int preReleaseStart = position + 1;
+            int preReleaseCount = 0;
+            if (peek() == '-') {
+                position++;
+                if ((preReleaseCount = identifiers(false)) < 0) {
+                    return ParseResult.failure(errorKind, errorOffset);
+                }
+            }
+
+            int buildMetadataStart = position + 1;
+            int buildMetadataCount = 0;
+            if (peek() == '+') {
+                position++;
+                if ((buildMetadataCount = identifiers(true)) < 0) {
+                    return ParseResult.failure(errorKind, errorOffset);
+                }
+            }
+
+            if (position < input.length()) {
+                return ParseResult.failure(ParseResult.ErrorKind.UNEXPECTED_CHARACTER, position);
+            }
+
+            String value = input.toString();
+            return ParseResult.success(new SemVer(value, majorVersion, minorVersion, patchVersion,
+                    split(value, preReleaseStart, preReleaseCount),
+                    split(value, buildMetadataStart, buildMetadataCount)));
+        }
+
+        /**
+         * Returns the current character or zero at the end of the input.
+         */
+        private char peek() {
+            return position < input.length() ? input.charAt(position) : 0;
+        }
+
+        private boolean dot() {
+            if (peek() == '.') {
+                position++;
+                return true;
+            }
+            return error(position < input.length() ? ParseResult.ErrorKind.UNEXPECTED_CHARACTER
+                    : ParseResult.ErrorKind.UNEXPECTED_END, position);
+        }
+
+        /**
+         * Scans a non-negative number without leading zeros, returns {@code -1} on error.
+         */
+        private int number() {
+            int start = position;
+            long value = 0;
+            char c;
+            while ((c = peek()) >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                if (value > Integer.MAX_VALUE) {
+                    error(ParseResult.ErrorKind.OVERFLOW, start);
+                    return -1;
+                }
+                position++;
+            }
+            if (position == start) {
+                error(position < input.length() ? ParseResult.ErrorKind.UNEXPECTED_CHARACTER
+                        : ParseResult.ErrorKind.UNEXPECTED_END, position);
+                return -1;
+            } else if (position - start > 1 && input.charAt(start) == '0') {
+                error(ParseResult.ErrorKind.LEADING_ZERO, start);
+                return -1;
+            }
+            return (int) value;
+        }
+
+        /**
+         * Scans a dot separated list of identifiers, returns the number of identifiers or {@code -1} on error.
+         */
+        private int identifiers(boolean allowLeadingZero) {
+            for (int count = 1;; ++count) {
+                int start = position;
+                boolean numeric = true;
+                char c;
+                while (((c = peek()) >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')
+                        || c == '-') {
+                    numeric &= c <= '9' && c != '-';
+                    position++;
+                }
+                if (position == start) {
+                    boolean separator = c == 0 || c == '.' || c == '+';
+                    error(separator ? ParseResult.ErrorKind.EMPTY_COMPONENT
+                            : ParseResult.ErrorKind.UNEXPECTED_CHARACTER, position);
+                    return -1;
+                } else if (numeric && !allowLeadingZero && position - start > 1 && input.charAt(start) == '0') {
+                    error(ParseResult.ErrorKind.LEADING_ZERO, start);
+                    return -1;
+                }
+                if (peek() != '.') {
+                    return count;
+                }
+                position++;
+            }
+        }
+
+        private boolean error(ParseResult.ErrorKind errorKind, int errorOffset) {
+            this.errorKind = errorKind;
+            this.errorOffset = errorOffset;
+            return false;
+        }
+
+        /**
+         * Splits an already validated list of identifiers.
+         */
+        private static List<String> split(String value, int start, int count) {
+            if (count == 0) {
+                return Collections.emptyList();
+            }
+            String[] identifiers = new String[count];
+            for (int i = 0; i < count; ++i) {
+                int end = start;
+                char c;
+                while (end < value.length() && (c = value.charAt(end)) != '.' && c != '+') {
+                    end++;
+                }
+                identifiers[i] = value.substring(start, end);
+                start = end + 1;
+            }
+            return Collections.unmodifiableList(Arrays.asList(identifiers));
+        }
+    }
+
+    /**
+     * Order preserving binary encoding. Each version number is written as a byte count followed by the minimal big
+     * endian representation. Each pre-release identifier is written as a marker ({@code 0x02} for numeric, {@code 0x03}
+     * for alphanumeric) followed by either the length prefixed digits or the zero terminated characters. The
+     * pre-release is terminated by {@code 0x01}, or replaced by {@code 0x04} if it is empty so that release versions
+     * sort last. Any remaining bytes are the dot separated build metadata.
+     */
+    private static final class Codec implements VersionCodec<SemVer> {
+        private static final Codec INSTANCE = new Codec();
+
+        private static final int END_OF_PRE_RELEASE = 0x01;
+
+        private static final int NUMERIC_IDENTIFIER = 0x02;
+
+        private static final int ALPHANUMERIC_IDENTIFIER = 0x03;
+
+        private static final int RELEASE = 0x04;
+
+        @Override
+        public byte[] encode(Version version) {
+            if (!(version instanceof SemVer)) {
+                throw new IllegalArgumentException("incorrect namespace");
+            }
+            SemVer semVer = (SemVer) version;
+            ByteArrayOutputStream result = new ByteArrayOutputStream(16);
+            writeNumber(result, semVer.majorVersion);
+            writeNumber(result, semVer.minorVersion);
+            writeNumber(result, semVer.patchVersion);
+            for (String identifier : semVer.preReleaseVersion) {
+                boolean numeric = Rules.isNumeric(identifier);
+                if (numeric) {
+                    result.write(NUMERIC_IDENTIFIER);
+                    writeNumber(result, identifier.length());
+                } else {
+                    result.write(ALPHANUMERIC_IDENTIFIER);
+                }
+                for (int i = 0; i < identifier.length(); ++i) {
+                    result.write(identifier.charAt(i));
+                }
+                if (!numeric) {
+                    result.write(0);
+                }
+            }
+            result.write(semVer.preReleaseVersion.isEmpty() ? RELEASE : END_OF_PRE_RELEASE);
+            for (int i = 0; i < semVer.buildMetadata.size(); ++i) {
+                if (i > 0) {
+                    result.write('.');
+                }
+                String identifier = semVer.buildMetadata.get(i);
+                for (int j = 0; j < identifier.length(); ++j) {
+                    result.write(identifier.charAt(j));
+                }
+            }
+            return result.toByteArray();
+        }
+
+        @Override
+        public SemVer decode(byte[] bytes, int offset, int length) {
+            try {
+                ByteBuffer input = ByteBuffer.wrap(bytes, offset, length);
+                Builder builder = new Builder().version(readNumber(input), readNumber(input), readNumber(input));
+                List<String> preReleaseVersion = new ArrayList<>();
+                int marker;
+                while ((marker = input.get()) != END_OF_PRE_RELEASE && marker != RELEASE) {
+                    StringBuilder identifier = new StringBuilder();
+                    if (marker == NUMERIC_IDENTIFIER) {
+                        for (int i = readNumber(input); i > 0; --i) {
+                            identifier.append((char) input.get());
+                        }
+                    } else if (marker == ALPHANUMERIC_IDENTIFIER) {
+                        byte b;
+                        while ((b = input.get()) != 0) {
+                            identifier.append((char) b);
+                        }
+                    } else {
+                        throw new IllegalArgumentException("invalid encoded Semver identifier: " + marker);
+                    }
+                    preReleaseVersion.add(identifier.toString());
+                }
+                builder.preReleaseVersion(preReleaseVersion);
+                if (input.hasRemaining()) {
+                    String buildMetadata = new String(bytes, input.position(), input.remaining(), US_ASCII);
+                    builder.buildMetadata(Arrays.asList(buildMetadata.split("\\.", -1)));
+                }
+                return builder.build();
+            } catch (BufferUnderflowException e) {
+                throw new IllegalArgumentException("truncated encoded Semver", e);
+            }
+        }
+
+        private static void writeNumber(ByteArrayOutputStream output, int value) {
+            int len = (Integer.SIZE - Integer.numberOfLeadingZeros(value) + 7) / 8;
+            output.write(len);
+            for (int shift = (len - 1) * 8; shift >= 0; shift -= 8) {
+                output.write(value >>> shift);
+            }
+        }
+
+        private static int readNumber(ByteBuffer input) {
+            int value = 0;
+            for (int len = input.get(); len > 0; --len) {
+                value = (value << 8) | (input.get() & 0xFF);
+            }
+            return value;
+        }
+    }
+
     /**
      * Definitions for the various rules needed to work with semantic versions.
      */
@@ -309,11 +604,6 @@ public class SemVer implements Version, Comparable<SemVer> {
          */
         public static final Rules VALIDATION = new Rules();
 
-        /**
-         * This pattern is not strict enough for validation, it is only suitable for tokenization.
-         */
-        private static final Pattern TOKEN_PATTERN = Pattern.compile("([0-9]+).([0-9]+).([0-9]+)(?:\\-([0-9A-Za-z-.]*))?(?:\\+([0-9A-Za-z-.]*))?");
-
         public int checkVersion(int version, String message) {
             if (version < 0) {
                 throw new IllegalArgumentException(message + " must be non-negative: " + version);
@@ -351,32 +641,68 @@ public class SemVer implements Version, Comparable<SemVer> {
             return identifier;
         }
 
-        public static Matcher tokenize(CharSequence input) {
-            return TOKEN_PATTERN.matcher(input);
+        /**
+         * Marker for alphanumeric identifiers, which always have higher precedence than numeric identifiers.
+         */
+        public static final long ALPHANUMERIC = -1L;
+
+        /**
+         * Marker for numeric identifiers that do not fit in a {@code long}.
+         */
+        public static final long LARGE_NUMERIC = Long.MAX_VALUE;
+
+        private static final long[] NO_VALUES = new long[0];
+
+        private static final int PACKED_BITS = 21;
+
+        public static long packVersion(int major, int minor, int patch) {
+            if ((major | minor | patch) >>> PACKED_BITS != 0) {
+                return -1L;
+            }
+            return ((long) major << (2 * PACKED_BITS)) | ((long) minor << PACKED_BITS) | patch;
         }
 
-        public static int compareIdentifier(String i1, String i2) {
-            int ni1;
-            int ni2;
-            try {
-                ni1 = Integer.parseInt(i1);
-            } catch (NumberFormatException e) {
-                ni1 = -1;
+        public static long[] identifierValues(List<String> identifiers) {
+            if (identifiers.isEmpty()) {
+                return NO_VALUES;
             }
-            try {
-                ni2 = Integer.parseInt(i2);
-            } catch (NumberFormatException e) {
-                ni2 = -1;
+            long[] values = new long[identifiers.size()];
+            for (int i = 0; i < values.length; ++i) {
+                String identifier = identifiers.get(i);
+                if (!isNumeric(identifier)) {
+                    values[i] = ALPHANUMERIC;
+                } else if (identifier.length() > 18) {
+                    values[i] = LARGE_NUMERIC;
+                } else {
+                    values[i] = Long.parseLong(identifier);
+                }
             }
-            if (ni1 < 0 && ni2 < 0) {
-                return i1.compareTo(i2);
-            } else if (ni1 < 0) {
-                return 1;
-            } else if (ni2 < 0) {
-                return -1;
+            return values;
+        }
+
+        /**
+         * Compares two identifiers using their precomputed values.
+         */
+        public static int compareIdentifier(long v1, String i1, long v2, String i2) {
+            if (v1 == ALPHANUMERIC || v2 == ALPHANUMERIC) {
+                return v1 != ALPHANUMERIC ? -1 : v2 != ALPHANUMERIC ? 1 : i1.compareTo(i2);
+            } else if (v1 == LARGE_NUMERIC || v2 == LARGE_NUMERIC) {
+                // Without leading zeros the longer number is larger
+                int result = Integer.compare(i1.length(), i2.length());
+                return result != 0 ? result : i1.compareTo(i2);
             } else {
-                return Integer.compare(ni1, ni2);
+                return Long.compare(v1, v2);
+            }
+        }
+
+        public static boolean isNumeric(String identifier) {
+            for (int i = 0; i < identifier.length(); ++i) {
+                char c = identifier.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
             }
+            return !identifier.isEmpty();
         }
 
         public static List<String> unmodifiableCopyOf(List<String> source) {
@@ -26,4 +26,17 @@ package com.blackducksoftware.bdns;
  */
 public interface Version {
 
+    /**
+     * Returns a stable 64-bit fingerprint of this version. Equal versions must have equal fingerprints, and unlike
+     * {@code hashCode} the value must not depend on the JVM.
+     *
+     * @implSpec the default implementation returns the {@linkplain Fingerprint fingerprint} of the string
+     *           representation
+     *
+     * @return the fingerprint of this version
+     */
+    default long fingerprint64() {
+        return Fingerprint.of(toString());
+    }
+
 }
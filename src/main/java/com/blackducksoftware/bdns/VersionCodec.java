@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns;
+
+/**
+ * A binary encoding of versions whose unsigned lexicographic byte order matches the natural ordering of the versions.
+ * Encoded versions can be stored in sorted key-value stores or sorted and merged as raw bytes without being decoded.
+ * <p>
+ * Versions which are equal for the sake of comparison but not equal to each other (e.g. the Maven versions "1.0" and
+ * "1") have distinct encodings; their relative order is specific to the codec but consistent.
+ *
+ * @author jgustie
+ */
+public interface VersionCodec<V extends Version> {
+
+    /**
+     * Encodes a version.
+     *
+     * @param version
+     *            the version to encode
+     * @return the order preserving binary representation of the version
+     * @throws NullPointerException
+     *             if the supplied version is {@code null}
+     * @throws IllegalArgumentException
+     *             if the supplied version is not supported by this codec
+     */
+    byte[] encode(Version version);
+
+    /**
+     * Decodes a version from a region of a byte array.
+     *
+     * @param bytes
+     *            the buffer containing the encoded version
+     * @param offset
+     *            the start of the encoded version
+     * @param length
+     *            the length of the encoded version
+     * @return the decoded version
+     * @throws IllegalArgumentException
+     *             if the supplied bytes are not a valid encoding
+     */
+    V decode(byte[] bytes, int offset, int length);
+
+    /**
+     * Decodes a version.
+     *
+     * @param bytes
+     *            the encoded version
+     * @return the decoded version
+     * @throws IllegalArgumentException
+     *             if the supplied bytes are not a valid encoding
+     */
+    default V decode(byte[] bytes) {
+        return decode(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Compares two encoded versions using an unsigned lexicographic comparison.
+     */
+    static int compare(byte[] bytes1, byte[] bytes2) {
+        return compare(bytes1, 0, bytes1.length, bytes2, 0, bytes2.length);
+    }
+
+    /**
+     * Compares two regions containing encoded versions using an unsigned lexicographic comparison.
+     */
+    static int compare(byte[] bytes1, int offset1, int length1, byte[] bytes2, int offset2, int length2) {
+        int len = Math.min(length1, length2);
+        for (int i = 0; i < len; ++i) {
+            byte b1 = bytes1[offset1 + i];
+            byte b2 = bytes2[offset2 + i];
+            if (b1 != b2) {
+                return (b1 & 0xFF) - (b2 & 0xFF);
+            }
+        }
+        return length1 - length2;
+    }
+
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import com.blackducksoftware.bdns.VersionCodec;
+
+/**
+ * An immutable dictionary mapping {@code groupId:artifactId} pairs to dense integer identifiers. Identifiers are
+ * assigned in unsigned lexicographic order of the UTF-8 encoded pairs, so all of the pairs sharing a prefix (for
+ * example every artifact of a group) have a contiguous range of identifiers.
+ * <p>
+ * Pairs are stored front coded in blocks with restart points in a single buffer. The serialized form is the buffer
+ * itself, allowing a dictionary to be built offline, written to a file and memory mapped without any parsing. The
+ * format is a header of big-endian integers (magic, format version, pair count, restart count, data length), the
+ * restart offsets and then the front coded data.
+ *
+ * @author jgustie
+ */
+public final class ArtifactDictionary {
+
+    private static final int MAGIC = 0x42444144;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+
+    /**
+     * The number of pairs in each block.
+     */
+    private static final int BLOCK_SIZE = 16;
+
+    private static final char SEPARATOR = ':';
+
+    /**
+     * Memory maps a dictionary previously written to a file.
+     */
+    public static ArtifactDictionary open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Returns a dictionary backed by the supplied serialized form, the buffer is not copied.
+     *
+     * @throws IllegalArgumentException
+     *             if the buffer does not contain a dictionary
+     */
+    public static ArtifactDictionary wrap(ByteBuffer buffer) {
+        ByteBuffer bytes = buffer.slice();
+        if (bytes.remaining() < HEADER_SIZE || bytes.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("not an artifact dictionary");
+        } else if (bytes.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("unsupported artifact dictionary version: " + bytes.getInt(4));
+        }
+        int size = bytes.getInt(8);
+        int restartCount = bytes.getInt(12);
+        int dataLength = bytes.getInt(16);
+        if (restartCount != (size + BLOCK_SIZE - 1) / BLOCK_SIZE
+                || (long) HEADER_SIZE + 4L * restartCount + dataLength > bytes.remaining()) {
+            throw new IllegalArgumentException("truncated artifact dictionary");
+        }
+        bytes.limit(HEADER_SIZE + 4 * restartCount + dataLength);
+        return new ArtifactDictionary(bytes.slice(), size, restartCount);
+    }
+
+    private final ByteBuffer buffer;
+
+    private final int size;
+
+    private final int restartCount;
+
+    private final int dataOffset;
+
+    private ArtifactDictionary(ByteBuffer buffer, int size, int restartCount) {
+        this.buffer = buffer;
+        this.size = size;
+        this.restartCount = restartCount;
+        this.dataOffset = HEADER_SIZE + 4 * restartCount;
+    }
+
+    /**
+     * Returns the number of pairs in this dictionary.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the identifier of the supplied pair, or {@code -1} if it is not in this dictionary.
+     */
+    public int id(CharSequence groupId, CharSequence artifactId) {
+        byte[] key = encode(groupId, artifactId);
+        int id = search(key);
+        return id < size && cursorAt(id).compareTo(key) == 0 ? id : -1;
+    }
+
+    /**
+     * Returns the identifier of the group and artifact of the supplied coordinate, or {@code -1} if it is not in this
+     * dictionary.
+     */
+    public int id(MavenCoordinate coordinate) {
+        return id(coordinate.getGroupId(), coordinate.getArtifactId());
+    }
+
+    /**
+     * Returns the {@code [from, to)} range of identifiers whose {@code groupId:artifactId} pair starts with the
+     * supplied prefix.
+     */
+    public int[] prefixRange(CharSequence prefix) {
+        byte[] key = prefix.toString().getBytes(UTF_8);
+        int from = search(key);
+
+        // The range ends before the smallest key that is greater than every key starting with the prefix
+        int length = key.length;
+        while (length > 0 && key[length - 1] == (byte) 0xFF) {
+            length--;
+        }
+        int to = size;
+        if (length > 0) {
+            byte[] successor = Arrays.copyOf(key, length);
+            successor[length - 1]++;
+            to = search(successor);
+        }
+        return new int[] { from, to };
+    }
+
+    /**
+     * Returns the {@code [from, to)} range of identifiers of the artifacts in the supplied group.
+     */
+    public int[] groupRange(CharSequence groupId) {
+        return prefixRange(groupId.toString() + SEPARATOR);
+    }
+
+    public String groupId(int id) {
+        String key = key(id);
+        return key.substring(0, key.indexOf(SEPARATOR));
+    }
+
+    public String artifactId(int id) {
+        String key = key(id);
+        return key.substring(key.indexOf(SEPARATOR) + 1);
+    }
+
+    /**
+     * Returns the {@code groupId:artifactId} pair with the supplied identifier.
+     *
+     * @throws IndexOutOfBoundsException
+     *             if the identifier is not in this dictionary
+     */
+    public String key(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("id: " + id + ", size: " + size);
+        }
+        Cursor cursor = cursorAt(id);
+        return new String(cursor.key, 0, cursor.keyLength, UTF_8);
+    }
+
+    /**
+     * Writes the serialized form of this dictionary to the supplied file.
+     */
+    public void writeTo(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer source = buffer.duplicate();
+            source.clear();
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes used by the serialized form.
+     */
+    public long sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Returns a read-only view of the serialized form of this dictionary.
+     */
+    public ByteBuffer toByteBuffer() {
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the first identifier whose key is not less than the supplied key.
+     */
+    private int search(byte[] key) {
+        int block = lastBlockBefore(key);
+        if (block < 0) {
+            return 0;
+        }
+        Cursor cursor = cursorAt(block * BLOCK_SIZE);
+        int end = Math.min(size, (block + 1) * BLOCK_SIZE);
+        for (int id = block * BLOCK_SIZE; id < end; ++id) {
+            if (id > block * BLOCK_SIZE) {
+                cursor.next();
+            }
+            if (cursor.compareTo(key) >= 0) {
+                return id;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Returns the last block whose restart key is less than the supplied key, {@code -1} if there is none.
+     */
+    private int lastBlockBefore(byte[] key) {
+        int low = 0;
+        int high = restartCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareRestartKey(mid, key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - 1;
+    }
+
+    private int compareRestartKey(int block, byte[] key) {
+        return FrontCoding.compareRestartKey(buffer, restart(block), key);
+    }
+
+    private int restart(int block) {
+        return FrontCoding.restart(buffer, HEADER_SIZE, dataOffset, block);
+    }
+
+    private Cursor cursorAt(int id) {
+        Cursor cursor = new Cursor(restart(id / BLOCK_SIZE));
+        for (int i = id % BLOCK_SIZE; i >= 0; --i) {
+            cursor.next();
+        }
+        return cursor;
+    }
+
+    private static byte[] encode(CharSequence groupId, CharSequence artifactId) {
+        return new StringBuilder(groupId.length() + 1 + artifactId.length())
+                .append(groupId).append(SEPARATOR).append(artifactId)
+                .toString().getBytes(UTF_8);
+    }
+
+    /**
+     * Sequentially decodes keys.
+     */
+    private final class Cursor {
+        private int position;
+
+        private byte[] key = new byte[64];
+
+        private int keyLength;
+
+        private Cursor(int position) {
+            this.position = position;
+        }
+
+        private void next() {
+            int shared = FrontCoding.readVarint(buffer, position);
+            position = FrontCoding.skipVarint(buffer, position);
+            int length = FrontCoding.readVarint(buffer, position);
+            position = FrontCoding.skipVarint(buffer, position);
+            if (key.length < shared + length) {
+                key = Arrays.copyOf(key, Math.max(shared + length, key.length * 2));
+            }
+            for (int i = 0; i < length; ++i) {
+                key[shared + i] = buffer.get(position + i);
+            }
+            keyLength = shared + length;
+            position += length;
+        }
+
+        private int compareTo(byte[] other) {
+            return VersionCodec.compare(key, 0, keyLength, other, 0, other.length);
+        }
+    }
+
+    /**
+     * Builder for artifact dictionaries.
+     */
+    public static final class Builder {
+
+        private final TreeSet<byte[]> keys = new TreeSet<>(VersionCodec::compare);
+
+        public Builder() {
+        }
+
+        public Builder add(CharSequence groupId, CharSequence artifactId) {
+            keys.add(encode(Objects.requireNonNull(groupId), Objects.requireNonNull(artifactId)));
+            return this;
+        }
+
+        public Builder add(MavenCoordinate coordinate) {
+            return add(coordinate.getGroupId(), coordinate.getArtifactId());
+        }
+
+        public ArtifactDictionary build() {
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            int[] restarts = new int[(keys.size() + BLOCK_SIZE - 1) / BLOCK_SIZE];
+            byte[] previous = new byte[0];
+            int index = 0;
+            for (byte[] key : keys) {
+                if (index % BLOCK_SIZE == 0) {
+                    restarts[index / BLOCK_SIZE] = data.size();
+                    previous = new byte[0];
+                }
+                FrontCoding.writeSuffix(data, previous, key);
+                previous = key;
+                index++;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 4 * restarts.length + data.size());
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(keys.size()).putInt(restarts.length)
+                    .putInt(data.size());
+            for (int restart : restarts) {
+                buffer.putInt(restart);
+            }
+            buffer.put(data.toByteArray());
+            buffer.flip();
+            return wrap(buffer);
+        }
+    }
+
+}
@@ -0,0 +1,678 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.blackducksoftware.bdns.SemVer;
+
+/**
+ * A compact binary encoding of Maven coordinates, versions, version requirements, dependencies and repositories, and
+ * of semantic versions. Decoding never runs the text parsers: Maven versions carry their precomputed sort key and all
+ * other values are reassembled from their components.
+ * <p>
+ * A stream starts with the format version and a flags byte, followed by any number of values. Each value starts with
+ * a tag byte whose high nibble identifies the namespace and whose low nibble identifies the type; values nested in
+ * another value are not tagged. Integers are unsigned LEB128 varints and strings are a varint byte length followed by
+ * UTF-8. When the group dictionary flag is set, each group identifier is written as a varint reference: zero is
+ * followed by the literal group identifier (which is assigned the next reference, up to a limit), otherwise it is one
+ * more than the index of a previously written group identifier.
+ *
+ * @author jgustie
+ */
+public final class BinaryCodec {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int GROUP_DICTIONARY = 0x01;
+
+    /**
+     * The maximum number of group identifiers assigned a reference in a single stream.
+     */
+    private static final int DICTIONARY_LIMIT = 1 << 16;
+
+    // Namespaces, in the high nibble of a tag
+    private static final int MAVEN = 0x10;
+    private static final int SEMVER = 0x20;
+
+    // Tags
+    private static final int MAVEN_VERSION = MAVEN | 0x01;
+    private static final int MAVEN_VERSION_REQUIREMENT = MAVEN | 0x02;
+    private static final int MAVEN_COORDINATE = MAVEN | 0x03;
+    private static final int MAVEN_DEPENDENCY = MAVEN | 0x04;
+    private static final int MAVEN_REPOSITORY = MAVEN | 0x05;
+    private static final int SEMVER_VERSION = SEMVER | 0x01;
+
+    // Version requirement element kinds
+    private static final int SOFT = 0;
+    private static final int EXACT = 1;
+    private static final int INTERVAL = 2;
+
+    private static final MavenScope[] SCOPES = MavenScope.values();
+
+    /**
+     * Returns an encoder that writes a new stream to the supplied output.
+     */
+    public static Encoder newEncoder(DataOutput output, boolean groupDictionary) throws IOException {
+        output.writeByte(FORMAT_VERSION);
+        output.writeByte(groupDictionary ? GROUP_DICTIONARY : 0);
+        return new DataOutputEncoder(output, groupDictionary);
+    }
+
+    /**
+     * Returns an encoder that writes a new stream to the supplied buffer, starting at its current position.
+     */
+    public static Encoder newEncoder(ByteBuffer output, boolean groupDictionary) {
+        output.put((byte) FORMAT_VERSION);
+        output.put((byte) (groupDictionary ? GROUP_DICTIONARY : 0));
+        return new ByteBufferEncoder(output, groupDictionary);
+    }
+
+    /**
+     * Returns a decoder that reads a stream from the supplied input.
+     *
+     * @throws IllegalArgumentException
+     *             if the stream uses an unsupported format
+     */
+    public static Decoder newDecoder(DataInput input) throws IOException {
+        int version = input.readUnsignedByte();
+        int flags = input.readUnsignedByte();
+        return new DataInputDecoder(input, checkHeader(version, flags));
+    }
+
+    /**
+     * Returns a decoder that reads a stream from the supplied buffer, starting at its current position.
+     *
+     * @throws IllegalArgumentException
+     *             if the stream uses an unsupported format
+     */
+    public static Decoder newDecoder(ByteBuffer input) {
+        int version = input.get() & 0xFF;
+        int flags = input.get() & 0xFF;
+        return new ByteBufferDecoder(input, checkHeader(version, flags));
+    }
+
+    /**
+     * Returns an encoder that writes individual values without a stream header or group dictionary.
+     */
+    static Encoder newValueEncoder(DataOutput output) {
+        return new DataOutputEncoder(output, false);
+    }
+
+    /**
+     * Returns a decoder that reads values written by a {@linkplain #newValueEncoder(DataOutput) value encoder}.
+     */
+    static Decoder newValueDecoder(DataInput input) {
+        return new DataInputDecoder(input, false);
+    }
+
+    private static boolean checkHeader(int version, int flags) {
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("unsupported binary format version: " + version);
+        } else if ((flags & ~GROUP_DICTIONARY) != 0) {
+            throw new IllegalArgumentException("unsupported binary format flags: " + flags);
+        }
+        return (flags & GROUP_DICTIONARY) != 0;
+    }
+
+    /**
+     * An element of a version requirement.
+     */
+    private static final class Element {
+        private final int kind;
+
+        private final MavenVersion first;
+
+        private final MavenVersion second;
+
+        private int flags;
+
+        private Element(int kind, MavenVersion first, MavenVersion second) {
+            this.kind = kind;
+            this.first = first;
+            this.second = second;
+        }
+    }
+
+    /**
+     * Writes values to a stream.
+     */
+    public abstract static class Encoder {
+
+        private final Map<String, Integer> groupIds;
+
+        private Encoder(boolean groupDictionary) {
+            groupIds = groupDictionary ? new HashMap<>() : null;
+        }
+
+        /**
+         * Writes any supported value.
+         *
+         * @throws IllegalArgumentException
+         *             if the value is not supported
+         */
+        public void write(Object value) throws IOException {
+            if (value instanceof MavenVersion) {
+                writeVersion((MavenVersion) value);
+            } else if (value instanceof MavenVersionRequirement) {
+                writeRequirement((MavenVersionRequirement) value);
+            } else if (value instanceof MavenCoordinate) {
+                writeCoordinate((MavenCoordinate) value);
+            } else if (value instanceof MavenDependency) {
+                writeDependency((MavenDependency) value);
+            } else if (value instanceof MavenRepository) {
+                writeRepository((MavenRepository) value);
+            } else if (value instanceof SemVer) {
+                writeSemVer((SemVer) value);
+            } else {
+                throw new IllegalArgumentException("unsupported value: " + value);
+            }
+        }
+
+        public void writeVersion(MavenVersion version) throws IOException {
+            writeByte(MAVEN_VERSION);
+            version(version);
+        }
+
+        public void writeRequirement(MavenVersionRequirement requirement) throws IOException {
+            writeByte(MAVEN_VERSION_REQUIREMENT);
+            requirement(requirement);
+        }
+
+        public void writeCoordinate(MavenCoordinate coordinate) throws IOException {
+            MavenVersion version = coordinate.getVersion().orElse(null);
+            String packaging = coordinate.getPackaging().orElse(null);
+            String classifier = coordinate.getClassifier().orElse(null);
+            writeByte(MAVEN_COORDINATE);
+            writeByte((packaging != null ? 0x01 : 0) | (classifier != null ? 0x02 : 0) | (version != null ? 0x04 : 0));
+            groupId(coordinate.getGroupId());
+            string(coordinate.getArtifactId());
+            if (packaging != null) {
+                string(packaging);
+            }
+            if (classifier != null) {
+                string(classifier);
+            }
+            if (version != null) {
+                version(version);
+            }
+        }
+
+        public void writeDependency(MavenDependency dependency) throws IOException {
+            String classifier = dependency.getClassifier().orElse(null);
+            String type = dependency.getType().orElse(null);
+            MavenScope scope = dependency.getScope().orElse(null);
+            String systemPath = dependency.getSystemPath().orElse(null);
+            Boolean optional = dependency.getOptional().orElse(null);
+            writeByte(MAVEN_DEPENDENCY);
+            writeByte((classifier != null ? 0x01 : 0) | (type != null ? 0x02 : 0) | (scope != null ? 0x04 : 0)
+                    | (systemPath != null ? 0x08 : 0) | (optional != null ? 0x10 : 0)
+                    | (Boolean.TRUE.equals(optional) ? 0x20 : 0));
+            groupId(dependency.getGroupId());
+            string(dependency.getArtifactId());
+            requirement(dependency.getVersionRange());
+            if (classifier != null) {
+                string(classifier);
+            }
+            if (type != null) {
+                string(type);
+            }
+            if (scope != null) {
+                writeByte(scope.ordinal());
+            }
+            if (systemPath != null) {
+                string(systemPath);
+            }
+        }
+
+        public void writeRepository(MavenRepository repository) throws IOException {
+            writeByte(MAVEN_REPOSITORY);
+            writeByte((repository.getId() != null ? 0x01 : 0) | (repository.getName() != null ? 0x02 : 0)
+                    | (repository.getLayout() != null ? 0x04 : 0));
+            string(repository.getUrl());
+            if (repository.getId() != null) {
+                string(repository.getId());
+            }
+            if (repository.getName() != null) {
+                string(repository.getName());
+            }
+            if (repository.getLayout() != null) {
+                string(repository.getLayout());
+            }
+        }
+
+        public void writeSemVer(SemVer version) throws IOException {
+            writeByte(SEMVER_VERSION);
+            varint(version.getMajorVersion());
+            varint(version.getMinorVersion());
+            varint(version.getPatchVersion());
+            strings(version.getPreReleaseVersion());
+            strings(version.getBuildMetadata());
+        }
+
+        private void version(MavenVersion version) throws IOException {
+            string(version.toString());
+            bytes(version.sortKeyBytes());
+        }
+
+        private void requirement(MavenVersionRequirement requirement) throws IOException {
+            // The visitor cannot throw, so collect the elements before writing them
+            List<Element> elements = new ArrayList<>();
+            requirement.accept(new MavenVersionRequirement.Visitor() {
+                @Override
+                public void soft(MavenVersion version) {
+                    elements.add(new Element(SOFT, version, null));
+                }
+
+                @Override
+                public void exact(MavenVersion version) {
+                    elements.add(new Element(EXACT, version, null));
+                }
+
+                @Override
+                public void interval(MavenVersion lower, boolean openLower, MavenVersion upper, boolean openUpper) {
+                    Element element = new Element(INTERVAL, lower, upper);
+                    element.flags = (lower != null ? 0x01 : 0) | (openLower ? 0x02 : 0) | (upper != null ? 0x04 : 0)
+                            | (openUpper ? 0x08 : 0);
+                    elements.add(element);
+                }
+            });
+            varint(elements.size());
+            for (Element element : elements) {
+                writeByte(element.kind);
+                if (element.kind == INTERVAL) {
+                    writeByte(element.flags);
+                }
+                if (element.first != null) {
+                    version(element.first);
+                }
+                if (element.second != null) {
+                    version(element.second);
+                }
+            }
+        }
+
+        private void groupId(String groupId) throws IOException {
+            if (groupIds != null) {
+                Integer index = groupIds.get(groupId);
+                if (index != null) {
+                    varint(index + 1);
+                    return;
+                }
+                varint(0);
+                if (groupIds.size() < DICTIONARY_LIMIT) {
+                    groupIds.put(groupId, groupIds.size());
+                }
+            }
+            string(groupId);
+        }
+
+        private void strings(List<String> values) throws IOException {
+            varint(values.size());
+            for (String value : values) {
+                string(value);
+            }
+        }
+
+        private void string(String value) throws IOException {
+            bytes(value.getBytes(UTF_8));
+        }
+
+        private void bytes(byte[] value) throws IOException {
+            varint(value.length);
+            writeBytes(value);
+        }
+
+        private void varint(int value) throws IOException {
+            int remaining = value;
+            while ((remaining & ~0x7F) != 0) {
+                writeByte((remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            writeByte(remaining);
+        }
+
+        abstract void writeByte(int value) throws IOException;
+
+        abstract void writeBytes(byte[] value) throws IOException;
+    }
+
+    /**
+     * Reads values from a stream.
+     */
+    public abstract static class Decoder {
+
+        private final List<String> groupIds;
+
+        private Decoder(boolean groupDictionary) {
+            groupIds = groupDictionary ? new ArrayList<>() : null;
+        }
+
+        /**
+         * Reads the next value, regardless of its type.
+         *
+         * @throws IllegalArgumentException
+         *             if the next value has an unknown tag
+         */
+        public Object read() throws IOException {
+            int tag = readByte();
+            switch (tag) {
+            case MAVEN_VERSION:
+                return version();
+            case MAVEN_VERSION_REQUIREMENT:
+                return requirement();
+            case MAVEN_COORDINATE:
+                return coordinate();
+            case MAVEN_DEPENDENCY:
+                return dependency();
+            case MAVEN_REPOSITORY:
+                return repository();
+            case SEMVER_VERSION:
+                return semVer();
+            default:
+                throw new IllegalArgumentException("unknown tag: " + tag);
+            }
+        }
+
+        public MavenVersion readVersion() throws IOException {
+            expect(MAVEN_VERSION);
+            return version();
+        }
+
+        public MavenVersionRequirement readRequirement() throws IOException {
+            expect(MAVEN_VERSION_REQUIREMENT);
+            return requirement();
+        }
+
+        public MavenCoordinate readCoordinate() throws IOException {
+            expect(MAVEN_COORDINATE);
+            return coordinate();
+        }
+
+        public MavenDependency readDependency() throws IOException {
+            expect(MAVEN_DEPENDENCY);
+            return dependency();
+        }
+
+        public MavenRepository readRepository() throws IOException {
+            expect(MAVEN_REPOSITORY);
+            return repository();
+        }
+
+        public SemVer readSemVer() throws IOException {
+            expect(SEMVER_VERSION);
+            return semVer();
+        }
+
+        private void expect(int expected) throws IOException {
+            int tag = readByte();
+            if (tag != expected) {
+                throw new IllegalArgumentException("expected tag " + expected + " but was " + tag);
+            }
+        }
+
+        private MavenVersion version() throws IOException {
+            String value = string();
+            return MavenVersion.withSortKey(value, bytes());
+        }
+
+        private MavenVersionRequirement requirement() throws IOException {
+            MavenVersionRequirement.Builder builder = new MavenVersionRequirement.Builder();
+            for (int count = varint(); count > 0; --count) {
+                int kind = readByte();
+                if (kind == SOFT) {
+                    builder.softRequirement(version());
+                } else if (kind == EXACT) {
+                    builder.exact(version());
+                } else if (kind == INTERVAL) {
+                    int flags = readByte();
+                    MavenVersion lower = (flags & 0x01) != 0 ? version() : null;
+                    MavenVersion upper = (flags & 0x04) != 0 ? version() : null;
+                    builder.interval(lower, (flags & 0x02) != 0, upper, (flags & 0x08) != 0);
+                } else {
+                    throw new IllegalArgumentException("unknown version requirement element: " + kind);
+                }
+            }
+            return builder.build();
+        }
+
+        private MavenCoordinate coordinate() throws IOException {
+            int flags = readByte();
+            MavenCoordinate.Builder builder = new MavenCoordinate.Builder()
+                    .groupId(groupId())
+                    .artifactId(string());
+            if ((flags & 0x01) != 0) {
+                builder.packaging(string());
+            }
+            if ((flags & 0x02) != 0) {
+                builder.classifier(string());
+            }
+            if ((flags & 0x04) != 0) {
+                builder.version(version());
+            }
+            return builder.build();
+        }
+
+        private MavenDependency dependency() throws IOException {
+            int flags = readByte();
+            MavenDependency.Builder builder = new MavenDependency.Builder()
+                    .groupId(groupId())
+                    .artifactId(string())
+                    .version(requirement());
+            if ((flags & 0x01) != 0) {
+                builder.classifier(string());
+            }
+            if ((flags & 0x02) != 0) {
+                builder.type(string());
+            }
+            if ((flags & 0x04) != 0) {
+                int scope = readByte();
+                if (scope >= SCOPES.length) {
+                    throw new IllegalArgumentException("unknown scope: " + scope);
+                }
+                builder.scope(SCOPES[scope]);
+            }
+            if ((flags & 0x08) != 0) {
+                builder.systemPath(string());
+            }
+            if ((flags & 0x10) != 0) {
+                builder.optional((flags & 0x20) != 0);
+            }
+            return builder.build();
+        }
+
+        private MavenRepository repository() throws IOException {
+            int flags = readByte();
+            MavenRepository.Builder builder = new MavenRepository.Builder().url(string());
+            if ((flags & 0x01) != 0) {
+                builder.id(string());
+            }
+            if ((flags & 0x02) != 0) {
+                builder.name(string());
+            }
+            if ((flags & 0x04) != 0) {
+                builder.layout(string());
+            }
+            return builder.build();
+        }
+
+        private SemVer semVer() throws IOException {
+            return new SemVer.Builder()
+                    .version(varint(), varint(), varint())
+                    .preReleaseVersion(strings())
+                    .buildMetadata(strings())
+                    .build();
+        }
+
+        private String groupId() throws IOException {
+            if (groupIds == null) {
+                return string();
+            }
+            int reference = varint();
+            if (reference == 0) {
+                String groupId = string();
+                if (groupIds.size() < DICTIONARY_LIMIT) {
+                    groupIds.add(groupId);
+                }
+                return groupId;
+            } else if (reference > groupIds.size()) {
+                throw new IllegalArgumentException("unknown group reference: " + reference);
+            }
+            return groupIds.get(reference - 1);
+        }
+
+        private List<String> strings() throws IOException {
+            int count = varint();
+            String[] values = new String[count];
+            for (int i = 0; i < count; ++i) {
+                values[i] = string();
+            }
+            return Arrays.asList(values);
+        }
+
+        private byte[] bytes() throws IOException {
+            byte[] value = new byte[varint()];
+            readBytes(value);
+            return value;
+        }
+
+        int varint() throws IOException {
+            int result = 0;
+            for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+                int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("malformed varint");
+        }
+
+        /**
+         * Reads a UTF-8 string of the length given by a varint.
+         */
+        String string() throws IOException {
+            return new String(bytes(), UTF_8);
+        }
+
+        /**
+         * Returns the next unsigned byte.
+         */
+        abstract int readByte() throws IOException;
+
+        abstract void readBytes(byte[] value) throws IOException;
+    }
+
+    private static final class DataOutputEncoder extends Encoder {
+        private final DataOutput output;
+
+        private DataOutputEncoder(DataOutput output, boolean groupDictionary) {
+            super(groupDictionary);
+            this.output = output;
+        }
+
+        @Override
+        void writeByte(int value) throws IOException {
+            output.writeByte(value);
+        }
+
+        @Override
+        void writeBytes(byte[] value) throws IOException {
+            output.write(value);
+        }
+    }
+
+    private static final class ByteBufferEncoder extends Encoder {
+        private final ByteBuffer output;
+
+        private ByteBufferEncoder(ByteBuffer output, boolean groupDictionary) {
+            super(groupDictionary);
+            this.output = output;
+        }
+
+        @Override
+        void writeByte(int value) {
+            output.put((byte) value);
+        }
+
+        @Override
+        void writeBytes(byte[] value) {
+            output.put(value);
+        }
+    }
+
+    private static final class DataInputDecoder extends Decoder {
+        private final DataInput input;
+
+        private DataInputDecoder(DataInput input, boolean groupDictionary) {
+            super(groupDictionary);
+            this.input = input;
+        }
+
+        @Override
+        int readByte() throws IOException {
+            return input.readUnsignedByte();
+        }
+
+        @Override
+        void readBytes(byte[] value) throws IOException {
+            input.readFully(value);
+        }
+    }
+
+    private static final class ByteBufferDecoder extends Decoder {
+        private final ByteBuffer input;
+
+        private ByteBufferDecoder(ByteBuffer input, boolean groupDictionary) {
+            super(groupDictionary);
+            this.input = input;
+        }
+
+        @Override
+        String string() throws IOException {
+            // Decode in place rather than copying into an intermediate array
+            int length = varint();
+            int start = input.position();
+            String value = Utf8.decode(input, start, start + length);
+            input.position(start + length);
+            return value;
+        }
+
+        @Override
+        int readByte() {
+            return input.get() & 0xFF;
+        }
+
+        @Override
+        void readBytes(byte[] value) {
+            input.get(value);
+        }
+    }
+
+    private BinaryCodec() {
+    }
+
+}
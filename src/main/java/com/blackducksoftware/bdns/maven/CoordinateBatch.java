@@ -0,0 +1,452 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A columnar batch of Maven coordinates for analytic scans. Each field is stored as an {@code int} column of codes
+ * into a per-batch dictionary, so operators work over primitive arrays rather than chasing object references. The
+ * version dictionary is sorted by the version order, so comparing two version codes is equivalent to comparing the
+ * versions (ties between equivalent versions such as "1" and "1.0" are broken by the string representation). Absent
+ * optional fields are coded as {@code -1}.
+ * <p>
+ * Operators take and return selection vectors: arrays of row numbers in ascending order.
+ * <p>
+ * The file format is a header of big-endian integers (magic, format version, row count), the group, artifact,
+ * packaging, classifier and version dictionaries and then the five columns. Dictionary strings use modified UTF-8 (as
+ * written by {@link DataOutputStream#writeUTF(String)}) and versions include their sort key so reading a batch never
+ * re-runs the version parser.
+ *
+ * @author jgustie
+ */
+public final class CoordinateBatch {
+
+    private static final int MAGIC = 0x42444342;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int MAX_TABLE_CAPACITY = 1 << 30;
+
+    /**
+     * Reads a batch previously written to a file.
+     */
+    public static CoordinateBatch read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("not a coordinate batch: " + file);
+            } else if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("unsupported coordinate batch version: " + file);
+            }
+            int size = in.readInt();
+            String[] groupIds = readStrings(in);
+            String[] artifactIds = readStrings(in);
+            String[] packagings = readStrings(in);
+            String[] classifiers = readStrings(in);
+            MavenVersion[] versions = new MavenVersion[in.readInt()];
+            for (int i = 0; i < versions.length; ++i) {
+                String value = in.readUTF();
+                byte[] sortKey = new byte[in.readInt()];
+                in.readFully(sortKey);
+                versions[i] = MavenVersion.withSortKey(value, sortKey);
+            }
+            return new CoordinateBatch(size, groupIds, codes(groupIds), artifactIds, packagings, classifiers, versions,
+                    readColumn(in, size), readColumn(in, size), readColumn(in, size), readColumn(in, size),
+                    readColumn(in, size));
+        }
+    }
+
+    private final int size;
+
+    private final String[] groupIdDictionary;
+
+    /**
+     * The codes of the group identifiers, used to resolve filter arguments without scanning the dictionary.
+     */
+    private final Map<String, Integer> groupIdCodes;
+
+    private final String[] artifactIdDictionary;
+
+    private final String[] packagingDictionary;
+
+    private final String[] classifierDictionary;
+
+    private final MavenVersion[] versionDictionary;
+
+    private final int[] groupIds;
+
+    private final int[] artifactIds;
+
+    private final int[] packagings;
+
+    private final int[] classifiers;
+
+    private final int[] versions;
+
+    private CoordinateBatch(int size, String[] groupIdDictionary, Map<String, Integer> groupIdCodes,
+            String[] artifactIdDictionary, String[] packagingDictionary, String[] classifierDictionary,
+            MavenVersion[] versionDictionary,
+            int[] groupIds, int[] artifactIds, int[] packagings, int[] classifiers, int[] versions) {
+        this.size = size;
+        this.groupIdDictionary = groupIdDictionary;
+        this.groupIdCodes = groupIdCodes;
+        this.artifactIdDictionary = artifactIdDictionary;
+        this.packagingDictionary = packagingDictionary;
+        this.classifierDictionary = classifierDictionary;
+        this.versionDictionary = versionDictionary;
+        this.groupIds = groupIds;
+        this.artifactIds = artifactIds;
+        this.packagings = packagings;
+        this.classifiers = classifiers;
+        this.versions = versions;
+    }
+
+    /**
+     * Returns the number of rows in this batch.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Materializes the coordinate in the supplied row.
+     */
+    public MavenCoordinate get(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row: " + row + ", size: " + size);
+        }
+        return new MavenCoordinate.Builder()
+                .groupId(groupIdDictionary[groupIds[row]])
+                .artifactId(artifactIdDictionary[artifactIds[row]])
+                .packaging(packagings[row] >= 0 ? packagingDictionary[packagings[row]] : null)
+                .classifier(classifiers[row] >= 0 ? classifierDictionary[classifiers[row]] : null)
+                .version(versions[row] >= 0 ? versionDictionary[versions[row]] : null)
+                .build();
+    }
+
+    /**
+     * Returns a selection of every row.
+     */
+    public int[] rows() {
+        int[] result = new int[size];
+        for (int i = 0; i < size; ++i) {
+            result[i] = i;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the selected rows with the supplied group identifier.
+     */
+    public int[] filterGroupId(int[] rows, CharSequence groupId) {
+        Integer code = groupIdCodes.get(groupId.toString());
+        if (code == null) {
+            return new int[0];
+        }
+        int[] result = new int[rows.length];
+        int count = 0;
+        for (int row : rows) {
+            if (groupIds[row] == code.intValue()) {
+                result[count++] = row;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the selected rows whose version satisfies the supplied requirement, rows without a version are excluded.
+     */
+    public int[] filterVersion(int[] rows, MavenVersionRequirement requirement) {
+        // Evaluate the requirement once per distinct version instead of once per row
+        boolean[] matches = new boolean[versionDictionary.length];
+        for (int code = 0; code < matches.length; ++code) {
+            matches[code] = requirement.test(versionDictionary[code]);
+        }
+        int[] result = new int[rows.length];
+        int count = 0;
+        for (int row : rows) {
+            int code = versions[row];
+            if (code >= 0 && matches[code]) {
+                result[count++] = row;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Groups the selected rows by {@code groupId:artifactId}. The result is parallel to the selection and contains
+     * dense group numbers assigned in order of first appearance.
+     */
+    public int[] groupByArtifact(int[] rows) {
+        // Open addressing table of packed (groupId, artifactId) codes to group numbers, sized for at most half full
+        long distinct = Math.min(rows.length, (long) groupIdDictionary.length * artifactIdDictionary.length);
+        int capacity = (int) Math.min(Long.highestOneBit(Math.max(distinct, 1L) * 2L - 1L) << 1, MAX_TABLE_CAPACITY);
+        long[] keys = new long[capacity];
+        int[] values = new int[capacity];
+        Arrays.fill(values, -1);
+        int groups = 0;
+
+        int[] result = new int[rows.length];
+        for (int i = 0; i < rows.length; ++i) {
+            long key = ((long) groupIds[rows[i]] << 32) | (artifactIds[rows[i]] & 0xFFFFFFFFL);
+            int slot = (int) mix(key) & (capacity - 1);
+            while (values[slot] >= 0 && keys[slot] != key) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            if (values[slot] < 0) {
+                if (groups == capacity - 1) {
+                    throw new IllegalStateException("too many distinct artifacts: " + groups);
+                }
+                keys[slot] = key;
+                values[slot] = groups++;
+            }
+            result[i] = values[slot];
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to {@code k} of the selected rows with the highest versions for each {@code groupId:artifactId}.
+     * Artifacts appear in order of first appearance and the rows of each artifact are in descending version order;
+     * rows without a version are excluded.
+     */
+    public int[] topByVersion(int[] rows, int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        int[] groups = groupByArtifact(rows);
+        int groupCount = 0;
+        for (int group : groups) {
+            groupCount = Math.max(groupCount, group + 1);
+        }
+
+        // Each group gets a slot of min(k, versioned rows in the group), so the slots never exceed the selection
+        int[] offsets = new int[groupCount + 1];
+        for (int i = 0; i < rows.length; ++i) {
+            if (versions[rows[i]] >= 0) {
+                offsets[groups[i] + 1]++;
+            }
+        }
+        for (int group = 0; group < groupCount; ++group) {
+            offsets[group + 1] = offsets[group] + Math.min(offsets[group + 1], k);
+        }
+
+        // Each group keeps its best rows in descending version order, insertion is cheap for small k
+        int[] best = new int[offsets[groupCount]];
+        int[] counts = new int[groupCount];
+        for (int i = 0; i < rows.length; ++i) {
+            int row = rows[i];
+            int version = versions[row];
+            if (version < 0) {
+                continue;
+            }
+            int base = offsets[groups[i]];
+            int limit = offsets[groups[i] + 1] - base;
+            int count = counts[groups[i]];
+            int position = count;
+            while (position > 0 && versions[best[base + position - 1]] < version) {
+                position--;
+            }
+            if (position < limit) {
+                int last = Math.min(count, limit - 1);
+                System.arraycopy(best, base + position, best, base + position + 1, last - position);
+                best[base + position] = row;
+                counts[groups[i]] = Math.min(count + 1, limit);
+            }
+        }
+
+        // Every versioned row of a group is offered to its slot, so each slot is exactly filled
+        return best;
+    }
+
+    /**
+     * Writes this batch to the supplied file.
+     */
+    public void writeTo(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(size);
+            writeStrings(out, groupIdDictionary);
+            writeStrings(out, artifactIdDictionary);
+            writeStrings(out, packagingDictionary);
+            writeStrings(out, classifierDictionary);
+            out.writeInt(versionDictionary.length);
+            for (MavenVersion version : versionDictionary) {
+                byte[] sortKey = version.sortKeyBytes();
+                out.writeUTF(version.toString());
+                out.writeInt(sortKey.length);
+                out.write(sortKey);
+            }
+            writeColumn(out, groupIds, size);
+            writeColumn(out, artifactIds, size);
+            writeColumn(out, packagings, size);
+            writeColumn(out, classifiers, size);
+            writeColumn(out, versions, size);
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        String[] result = new String[in.readInt()];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = in.readUTF();
+        }
+        return result;
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static int[] readColumn(DataInputStream in, int size) throws IOException {
+        int[] result = new int[size];
+        for (int i = 0; i < size; ++i) {
+            result[i] = in.readInt();
+        }
+        return result;
+    }
+
+    private static void writeColumn(DataOutputStream out, int[] column, int size) throws IOException {
+        for (int i = 0; i < size; ++i) {
+            out.writeInt(column[i]);
+        }
+    }
+
+    private static Map<String, Integer> codes(String[] dictionary) {
+        Map<String, Integer> result = new HashMap<>();
+        for (int i = 0; i < dictionary.length; ++i) {
+            result.put(dictionary[i], i);
+        }
+        return result;
+    }
+
+    private static long mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    /**
+     * Builder for coordinate batches.
+     */
+    public static final class Builder {
+
+        private final Dictionary<String> groupIds = new Dictionary<>();
+
+        private final Dictionary<String> artifactIds = new Dictionary<>();
+
+        private final Dictionary<String> packagings = new Dictionary<>();
+
+        private final Dictionary<String> classifiers = new Dictionary<>();
+
+        private final Dictionary<MavenVersion> versions = new Dictionary<>();
+
+        private int size;
+
+        private int[][] columns = new int[5][16];
+
+        public Builder() {
+        }
+
+        /**
+         * Parses and adds a coordinate.
+         *
+         * @throws IllegalArgumentException
+         *             if the coordinate is not valid
+         */
+        public Builder add(CharSequence coordinate) {
+            return add(MavenCoordinate.parse(coordinate));
+        }
+
+        public Builder add(MavenCoordinate coordinate) {
+            if (size == columns[0].length) {
+                for (int i = 0; i < columns.length; ++i) {
+                    columns[i] = Arrays.copyOf(columns[i], size * 2);
+                }
+            }
+            columns[0][size] = groupIds.code(coordinate.getGroupId());
+            columns[1][size] = artifactIds.code(coordinate.getArtifactId());
+            columns[2][size] = packagings.code(coordinate.getPackaging().orElse(null));
+            columns[3][size] = classifiers.code(coordinate.getClassifier().orElse(null));
+            columns[4][size] = versions.code(coordinate.getVersion().orElse(null));
+            size++;
+            return this;
+        }
+
+        public CoordinateBatch build() {
+            // Sort the version dictionary so codes follow the version order
+            MavenVersion[] versionDictionary = versions.values.toArray(new MavenVersion[0]);
+            Integer[] order = new Integer[versionDictionary.length];
+            for (int i = 0; i < order.length; ++i) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing((Integer i) -> versionDictionary[i])
+                    .thenComparing(i -> versionDictionary[i].toString()));
+            int[] remap = new int[order.length];
+            MavenVersion[] sortedVersions = new MavenVersion[order.length];
+            for (int i = 0; i < order.length; ++i) {
+                remap[order[i]] = i;
+                sortedVersions[i] = versionDictionary[order[i]];
+            }
+            int[] versionColumn = Arrays.copyOf(columns[4], size);
+            for (int i = 0; i < size; ++i) {
+                if (versionColumn[i] >= 0) {
+                    versionColumn[i] = remap[versionColumn[i]];
+                }
+            }
+
+            return new CoordinateBatch(size, groupIds.values.toArray(new String[0]), new HashMap<>(groupIds.codes),
+                    artifactIds.values.toArray(new String[0]), packagings.values.toArray(new String[0]),
+                    classifiers.values.toArray(new String[0]), sortedVersions, Arrays.copyOf(columns[0], size),
+                    Arrays.copyOf(columns[1], size), Arrays.copyOf(columns[2], size), Arrays.copyOf(columns[3], size),
+                    versionColumn);
+        }
+    }
+
+    /**
+     * Assigns dense codes to values in order of first appearance, {@code null} is always coded as {@code -1}.
+     */
+    private static final class Dictionary<T> {
+        private final Map<T, Integer> codes = new HashMap<>();
+
+        private final List<T> values = new ArrayList<>();
+
+        private int code(T value) {
+            if (value == null) {
+                return -1;
+            }
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+    }
+
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A persistent catalog of the known versions of Maven artifacts. The catalog combines an {@link ArtifactDictionary}
+ * of the {@code groupId:artifactId} pairs with a {@link FrontCodedVersionList} of the versions of each pair,
+ * including their precomputed sort keys.
+ * <p>
+ * The serialized form is designed to be memory mapped and queried in place: opening a catalog only validates the
+ * header, and versions are only decoded as they are requested. Processes mapping the same file share its pages. The
+ * format is a header of big-endian integers (magic, format version, artifact count, dictionary length), the
+ * dictionary, a table of {@code artifactCount + 1} version list offsets and then the version lists. Catalogs are
+ * limited to 2GB.
+ *
+ * @author jgustie
+ */
+public final class CoordinateCatalog {
+
+    private static final int MAGIC = 0x42444343;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+    private static final FrontCodedVersionList NO_VERSIONS = FrontCodedVersionList.of(Collections.emptyList());
+
+    /**
+     * Memory maps a catalog previously written to a file.
+     */
+    public static CoordinateCatalog open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("catalog is too large to map: " + file);
+            }
+            return wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Returns a catalog backed by the supplied serialized form, the buffer is not copied.
+     *
+     * @throws IllegalArgumentException
+     *             if the buffer does not contain a catalog
+     */
+    public static CoordinateCatalog wrap(ByteBuffer buffer) {
+        ByteBuffer bytes = buffer.slice();
+        if (bytes.remaining() < HEADER_SIZE || bytes.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("not a coordinate catalog");
+        } else if (bytes.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("unsupported coordinate catalog version: " + bytes.getInt(4));
+        }
+        int artifactCount = bytes.getInt(8);
+        int dictionaryLength = bytes.getInt(12);
+        long tableOffset = (long) HEADER_SIZE + dictionaryLength;
+        if (artifactCount < 0 || dictionaryLength < 0
+                || tableOffset + 4L * (artifactCount + 1) > bytes.remaining()) {
+            throw new IllegalArgumentException("truncated coordinate catalog");
+        }
+
+        ByteBuffer dictionary = bytes.duplicate();
+        dictionary.position(HEADER_SIZE).limit((int) tableOffset);
+        ArtifactDictionary artifacts = ArtifactDictionary.wrap(dictionary);
+        if (artifacts.size() != artifactCount) {
+            throw new IllegalArgumentException("corrupt coordinate catalog");
+        }
+        return new CoordinateCatalog(bytes, artifacts, (int) tableOffset);
+    }
+
+    private final ByteBuffer buffer;
+
+    private final ArtifactDictionary artifacts;
+
+    private final int tableOffset;
+
+    private final int versionsOffset;
+
+    private CoordinateCatalog(ByteBuffer buffer, ArtifactDictionary artifacts, int tableOffset) {
+        this.buffer = buffer;
+        this.artifacts = artifacts;
+        this.tableOffset = tableOffset;
+        this.versionsOffset = tableOffset + 4 * (artifacts.size() + 1);
+    }
+
+    /**
+     * Returns the dictionary of artifacts in this catalog, the artifact identifiers are used to look up versions.
+     */
+    public ArtifactDictionary artifacts() {
+        return artifacts;
+    }
+
+    /**
+     * Returns the versions of the artifact with the supplied identifier in ascending order.
+     *
+     * @throws IndexOutOfBoundsException
+     *             if the identifier is not in this catalog
+     */
+    public FrontCodedVersionList versions(int artifactId) {
+        if (artifactId < 0 || artifactId >= artifacts.size()) {
+            throw new IndexOutOfBoundsException("id: " + artifactId + ", size: " + artifacts.size());
+        }
+        int start = buffer.getInt(tableOffset + 4 * artifactId);
+        int end = buffer.getInt(tableOffset + 4 * (artifactId + 1));
+        ByteBuffer versions = buffer.duplicate();
+        versions.position(versionsOffset + start).limit(versionsOffset + end);
+        return FrontCodedVersionList.wrap(versions);
+    }
+
+    /**
+     * Returns the known versions of the supplied artifact in ascending order, empty if the artifact is unknown.
+     */
+    public FrontCodedVersionList versions(CharSequence groupId, CharSequence artifactId) {
+        int id = artifacts.id(groupId, artifactId);
+        return id >= 0 ? versions(id) : NO_VERSIONS;
+    }
+
+    /**
+     * Returns the known versions of the supplied artifact which satisfy the requirement, in ascending order.
+     */
+    public List<MavenVersion> versions(CharSequence groupId, CharSequence artifactId,
+            MavenVersionRequirement requirement) {
+        return versions(groupId, artifactId).filter(requirement);
+    }
+
+    /**
+     * Resolves the supplied dependency to the highest known version that satisfies its version requirement.
+     */
+    public Optional<MavenCoordinate> resolveHighest(MavenDependency dependency) {
+        FrontCodedVersionList versions = versions(dependency.getGroupId(), dependency.getArtifactId());
+        int[] spans = versions.spans(dependency.getVersionRange());
+        return spans.length > 0
+                ? Optional.ofNullable(dependency.resolve(versions.get(spans[spans.length - 1] - 1)))
+                : Optional.empty();
+    }
+
+    /**
+     * Writes the serialized form of this catalog to the supplied file.
+     */
+    public void writeTo(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer source = buffer.duplicate();
+            source.clear();
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes used by the serialized form.
+     */
+    public long sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Builder for coordinate catalogs.
+     */
+    public static final class Builder {
+
+        private final ArtifactDictionary.Builder artifacts = new ArtifactDictionary.Builder();
+
+        private final Map<String, Set<MavenVersion>> versions = new HashMap<>();
+
+        public Builder() {
+        }
+
+        /**
+         * Adds a coordinate, coordinates without a version only add the artifact.
+         */
+        public Builder add(MavenCoordinate coordinate) {
+            Set<MavenVersion> artifactVersions = artifactVersions(coordinate.getGroupId(), coordinate.getArtifactId());
+            coordinate.getVersion().ifPresent(artifactVersions::add);
+            return this;
+        }
+
+        public Builder add(CharSequence groupId, CharSequence artifactId, MavenVersion version) {
+            artifactVersions(groupId, artifactId).add(Objects.requireNonNull(version));
+            return this;
+        }
+
+        public CoordinateCatalog build() {
+            ArtifactDictionary dictionary = artifacts.build();
+            ByteBuffer dictionaryBytes = dictionary.toByteBuffer();
+
+            FrontCodedVersionList[] lists = new FrontCodedVersionList[dictionary.size()];
+            long versionsLength = 0L;
+            for (int id = 0; id < lists.length; ++id) {
+                lists[id] = FrontCodedVersionList.of(versions.get(dictionary.key(id)));
+                versionsLength += lists[id].sizeInBytes();
+            }
+            long length = HEADER_SIZE + dictionaryBytes.remaining() + 4L * (lists.length + 1) + versionsLength;
+            if (length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("catalog is too large: " + length);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) length);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(lists.length).putInt(dictionaryBytes.remaining());
+            buffer.put(dictionaryBytes);
+            int offset = 0;
+            buffer.putInt(offset);
+            for (FrontCodedVersionList list : lists) {
+                offset += (int) list.sizeInBytes();
+                buffer.putInt(offset);
+            }
+            for (FrontCodedVersionList list : lists) {
+                buffer.put(list.toByteBuffer());
+            }
+            buffer.flip();
+            return wrap(buffer);
+        }
+
+        private Set<MavenVersion> artifactVersions(CharSequence groupId, CharSequence artifactId) {
+            artifacts.add(groupId, artifactId);
+            return versions.computeIfAbsent(groupId.toString() + ':' + artifactId, k -> new LinkedHashSet<>());
+        }
+    }
+
+}
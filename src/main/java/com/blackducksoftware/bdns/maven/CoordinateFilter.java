@@ -0,0 +1,249 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.blackducksoftware.bdns.Fingerprint;
+
+/**
+ * A blocked Bloom filter of Maven coordinates, used to cheaply rule out coordinates that do not exist before probing
+ * a repository. The filter never reports a false negative; the rate of false positives is chosen when it is built.
+ * <p>
+ * Coordinates are identified by their group, artifact and version; the packaging and classifier are ignored. Adding
+ * a versioned coordinate also adds its artifact, so coordinates without a version test for the existence of any
+ * version of the artifact. All of the bits for a coordinate are in a single 512-bit block (one cache line) chosen by
+ * its {@linkplain Fingerprint fingerprint}, so a test touches at most one cache line.
+ * <p>
+ * The serialized form is the backing buffer, allowing a filter to be memory mapped: a header of big-endian integers
+ * (magic, format version, block count, hash count) followed by the blocks.
+ *
+ * @author jgustie
+ */
+public final class CoordinateFilter {
+
+    private static final int MAGIC = 0x42444246;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+    private static final int BLOCK_BITS = 512;
+
+    private static final int BLOCK_BYTES = BLOCK_BITS / Byte.SIZE;
+
+    /**
+     * Memory maps a filter previously written to a file.
+     */
+    public static CoordinateFilter open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Returns a filter backed by the supplied serialized form, the buffer is not copied.
+     *
+     * @throws IllegalArgumentException
+     *             if the buffer does not contain a filter
+     */
+    public static CoordinateFilter wrap(ByteBuffer buffer) {
+        ByteBuffer bytes = buffer.slice();
+        if (bytes.remaining() < HEADER_SIZE || bytes.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("not a coordinate filter");
+        } else if (bytes.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("unsupported coordinate filter version: " + bytes.getInt(4));
+        }
+        int blockCount = bytes.getInt(8);
+        int hashCount = bytes.getInt(12);
+        if (blockCount <= 0 || hashCount <= 0 || (long) HEADER_SIZE + (long) BLOCK_BYTES * blockCount > bytes
+                .remaining()) {
+            throw new IllegalArgumentException("truncated coordinate filter");
+        }
+        bytes.limit(HEADER_SIZE + BLOCK_BYTES * blockCount);
+        return new CoordinateFilter(bytes.slice(), blockCount, hashCount);
+    }
+
+    private final ByteBuffer buffer;
+
+    private final int blockCount;
+
+    private final int hashCount;
+
+    private CoordinateFilter(ByteBuffer buffer, int blockCount, int hashCount) {
+        this.buffer = buffer;
+        this.blockCount = blockCount;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Tests if the supplied coordinate might exist. A result of {@code false} means the coordinate definitely does
+     * not exist.
+     */
+    public boolean mightContain(MavenCoordinate coordinate) {
+        return mightContain(Fingerprint.of(coordinate.getGroupId(), coordinate.getArtifactId(),
+                coordinate.getVersion().map(MavenVersion::toString).orElse(null)));
+    }
+
+    /**
+     * Tests if any version of the supplied artifact might exist.
+     */
+    public boolean mightContain(CharSequence groupId, CharSequence artifactId) {
+        return mightContain(Fingerprint.of(groupId, artifactId, null));
+    }
+
+    /**
+     * Returns the number of bytes used by the serialized form.
+     */
+    public long sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Writes the serialized form of this filter to the supplied file.
+     */
+    public void writeTo(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer source = buffer.duplicate();
+            source.clear();
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+    }
+
+    private boolean mightContain(long hash) {
+        int block = block(hash, blockCount);
+        long bits = Fingerprint.fmix64(hash);
+        int h1 = (int) bits;
+        // An odd step visits every bit of the block before repeating
+        int h2 = (int) (bits >>> 32) | 1;
+        for (int i = 0; i < hashCount; ++i) {
+            int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            if ((buffer.getLong(word(block, bit)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int block(long hash, int blockCount) {
+        return (int) (((hash >>> 32) * blockCount) >>> 32);
+    }
+
+    private static int word(int block, int bit) {
+        return HEADER_SIZE + block * BLOCK_BYTES + (bit >>> 6) * Long.BYTES;
+    }
+
+    /**
+     * Builder for coordinate filters.
+     */
+    public static final class Builder {
+
+        private long expectedInsertions = 1_000_000L;
+
+        private double falsePositiveRate = 0.01;
+
+        private ByteBuffer buffer;
+
+        private int blockCount;
+
+        private int hashCount;
+
+        public Builder() {
+        }
+
+        /**
+         * The number of coordinates expected to be added, including the implicitly added artifacts.
+         */
+        public Builder expectedInsertions(long expectedInsertions) {
+            if (expectedInsertions <= 0L) {
+                throw new IllegalArgumentException("expected insertions must be positive: " + expectedInsertions);
+            }
+            checkNotStarted();
+            this.expectedInsertions = expectedInsertions;
+            return this;
+        }
+
+        /**
+         * The target rate of false positives once the expected number of coordinates have been added.
+         */
+        public Builder falsePositiveRate(double falsePositiveRate) {
+            if (!(falsePositiveRate > 0.0 && falsePositiveRate < 1.0)) {
+                throw new IllegalArgumentException("false positive rate must be in (0, 1): " + falsePositiveRate);
+            }
+            checkNotStarted();
+            this.falsePositiveRate = falsePositiveRate;
+            return this;
+        }
+
+        public Builder add(MavenCoordinate coordinate) {
+            String groupId = coordinate.getGroupId();
+            String artifactId = coordinate.getArtifactId();
+            coordinate.getVersion().ifPresent(v -> add(Fingerprint.of(groupId, artifactId, v.toString())));
+            add(Fingerprint.of(groupId, artifactId, null));
+            return this;
+        }
+
+        public CoordinateFilter build() {
+            if (buffer == null) {
+                allocate();
+            }
+            ByteBuffer result = buffer;
+            buffer = null;
+            return wrap(result);
+        }
+
+        private void add(long hash) {
+            if (buffer == null) {
+                allocate();
+            }
+            int block = block(hash, blockCount);
+            long bits = Fingerprint.fmix64(hash);
+            int h1 = (int) bits;
+            int h2 = (int) (bits >>> 32) | 1;
+            for (int i = 0; i < hashCount; ++i) {
+                int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+                int index = word(block, bit);
+                buffer.putLong(index, buffer.getLong(index) | (1L << bit));
+            }
+        }
+
+        private void allocate() {
+            double bitsPerKey = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+            long blocks = (long) Math.ceil(expectedInsertions * bitsPerKey / BLOCK_BITS);
+            if (HEADER_SIZE + blocks * BLOCK_BYTES > Integer.MAX_VALUE) {
+                throw new IllegalStateException("filter is too large: " + blocks + " blocks");
+            }
+            blockCount = (int) Math.max(1L, blocks);
+            hashCount = (int) Math.max(1L, Math.min(16L, Math.round(bitsPerKey * Math.log(2))));
+            buffer = ByteBuffer.allocate(HEADER_SIZE + blockCount * BLOCK_BYTES);
+            buffer.putInt(0, MAGIC).putInt(4, FORMAT_VERSION).putInt(8, blockCount).putInt(12, hashCount);
+        }
+
+        private void checkNotStarted() {
+            if (buffer != null) {
+                throw new IllegalStateException("cannot change the size of a filter after adding coordinates");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.blackducksoftware.bdns.ExternalSorter;
+
+/**
+ * External sorting of Maven coordinates by group, artifact and then the Maven version order. Coordinates without a
+ * version sort before the versions of their artifact; ties are broken by the effective packaging and then the
+ * classifier. Coordinates compare equal for the purposes of {@link ExternalSorter.Deduplication#SORT_KEY SORT_KEY}
+ * deduplication if their versions are equivalent (e.g. "1" and "1.0") and every other field is equal.
+ *
+ * @author jgustie
+ */
+public final class CoordinateSorter {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final ExternalSorter.Serializer<MavenCoordinate> SERIALIZER = new CodecSerializer();
+
+    /**
+     * Serializes coordinates using the binary codec.
+     */
+    private static final class CodecSerializer implements ExternalSorter.Serializer<MavenCoordinate> {
+        @Override
+        public void write(DataOutput output, MavenCoordinate value) throws IOException {
+            BinaryCodec.newValueEncoder(output).writeCoordinate(value);
+        }
+
+        @Override
+        public MavenCoordinate read(DataInput input) throws IOException {
+            return BinaryCodec.newValueDecoder(input).readCoordinate();
+        }
+    }
+
+    /**
+     * Returns a builder for a sorter of Maven coordinates.
+     */
+    public static ExternalSorter.Builder<MavenCoordinate> newBuilder() {
+        return new ExternalSorter.Builder<>(CoordinateSorter::sortKey, SERIALIZER);
+    }
+
+    /**
+     * Returns the binary sort key of a coordinate. Each component is escaped ({@code 0x00} is written as
+     * {@code 0x00 0xFF}) and terminated by {@code 0x00 0x01}, preserving the component-wise order.
+     */
+    public static byte[] sortKey(MavenCoordinate coordinate) {
+        ByteArrayOutputStream key = new ByteArrayOutputStream(64);
+        component(key, coordinate.getGroupId().getBytes(UTF_8));
+        component(key, coordinate.getArtifactId().getBytes(UTF_8));
+        component(key, coordinate.getVersion().map(MavenVersion::sortKeyBytes).orElse(EMPTY));
+        component(key, coordinate.getPackaging().orElse(MavenCoordinate.DEFAULT_PACKAGING).getBytes(UTF_8));
+        component(key, coordinate.getClassifier().map(c -> c.getBytes(UTF_8)).orElse(EMPTY));
+        return key.toByteArray();
+    }
+
+    private static void component(ByteArrayOutputStream key, byte[] value) {
+        for (byte b : value) {
+            key.write(b);
+            if (b == 0) {
+                key.write(0xFF);
+            }
+        }
+        key.write(0x00);
+        key.write(0x01);
+    }
+
+    private CoordinateSorter() {
+    }
+
+}
@@ -0,0 +1,422 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+import com.blackducksoftware.bdns.VersionCodec;
+
+/**
+ * An immutable, sorted list of Maven versions stored using front coding. Versions are grouped into blocks; the first
+ * entry of each block (the restart point) is stored in full and every other entry only stores the suffix that differs
+ * from its predecessor. Both the sort key and the version string are front coded, so a sorted list of related
+ * versions typically needs only a few bytes per entry.
+ * <p>
+ * Searching by version performs a binary search over the restart points followed by a scan of a single block, without
+ * materializing any versions. Versions are materialized when they are retrieved.
+ * <p>
+ * A list is backed by a single buffer which is also its serialized form: big-endian integers for the size and the
+ * number of restart points, the restart offsets and then the front coded entries. Lists can be {@linkplain #wrap
+ * wrapped} around a region of a memory mapped file without being deserialized.
+ *
+ * @author jgustie
+ */
+public final class FrontCodedVersionList extends AbstractList<MavenVersion> implements RandomAccess {
+
+    /**
+     * The number of entries in each block.
+     */
+    private static final int BLOCK_SIZE = 16;
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    /**
+     * The natural ordering with ties broken by the version string, this matches the ordering of the codec.
+     */
+    private static final Comparator<MavenVersion> ORDER = Comparator.<MavenVersion> naturalOrder()
+            .thenComparing(MavenVersion::toString);
+
+    /**
+     * Returns a list of the supplied versions in ascending order. Duplicate versions are retained.
+     */
+    public static FrontCodedVersionList of(Collection<MavenVersion> versions) {
+        MavenVersion[] sorted = versions.toArray(new MavenVersion[0]);
+        Arrays.sort(sorted, ORDER);
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int[] restarts = new int[(sorted.length + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        byte[] previousKey = new byte[0];
+        byte[] previousValue = new byte[0];
+        for (int i = 0; i < sorted.length; ++i) {
+            byte[] key = sorted[i].sortKeyBytes();
+            byte[] value = sorted[i].toString().getBytes(UTF_8);
+            if (i % BLOCK_SIZE == 0) {
+                restarts[i / BLOCK_SIZE] = data.size();
+                previousKey = new byte[0];
+                previousValue = new byte[0];
+            }
+            FrontCoding.writeSuffix(data, previousKey, key);
+            FrontCoding.writeSuffix(data, previousValue, value);
+            previousKey = key;
+            previousValue = value;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 4 * restarts.length + data.size());
+        buffer.putInt(sorted.length).putInt(restarts.length);
+        for (int restart : restarts) {
+            buffer.putInt(restart);
+        }
+        buffer.put(data.toByteArray());
+        buffer.flip();
+        return wrap(buffer);
+    }
+
+    /**
+     * Returns a list backed by the remaining bytes of the supplied buffer, which must contain the serialized form of a
+     * list. The buffer is not copied.
+     *
+     * @throws IllegalArgumentException
+     *             if the buffer is too small to contain a list
+     */
+    public static FrontCodedVersionList wrap(ByteBuffer buffer) {
+        ByteBuffer bytes = buffer.slice();
+        if (bytes.remaining() < HEADER_SIZE) {
+            throw new IllegalArgumentException("truncated version list");
+        }
+        int size = bytes.getInt(0);
+        int restartCount = bytes.getInt(4);
+        if (size < 0 || restartCount != (size + BLOCK_SIZE - 1) / BLOCK_SIZE
+                || HEADER_SIZE + 4L * restartCount > bytes.remaining()) {
+            throw new IllegalArgumentException("truncated version list");
+        }
+        return new FrontCodedVersionList(bytes, size, restartCount);
+    }
+
+    private final ByteBuffer buffer;
+
+    private final int size;
+
+    private final int restartCount;
+
+    private final int dataOffset;
+
+    private FrontCodedVersionList(ByteBuffer buffer, int size, int restartCount) {
+        this.buffer = buffer;
+        this.size = size;
+        this.restartCount = restartCount;
+        this.dataOffset = HEADER_SIZE + 4 * restartCount;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public MavenVersion get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        return cursorAt(index).version();
+    }
+
+    @Override
+    public Iterator<MavenVersion> iterator() {
+        return new Iterator<MavenVersion>() {
+            private final Cursor cursor = new Cursor(0);
+
+            @Override
+            public boolean hasNext() {
+                return cursor.index + 1 < size;
+            }
+
+            @Override
+            public MavenVersion next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                cursor.next();
+                return cursor.version();
+            }
+        };
+    }
+
+    @Override
+    public int indexOf(Object obj) {
+        if (obj instanceof MavenVersion) {
+            int[] matches = exactSpan((MavenVersion) obj);
+            return matches[0] < matches[1] ? matches[0] : -1;
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object obj) {
+        if (obj instanceof MavenVersion) {
+            int[] matches = exactSpan((MavenVersion) obj);
+            return matches[0] < matches[1] ? matches[1] - 1 : -1;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object obj) {
+        return indexOf(obj) >= 0;
+    }
+
+    /**
+     * Returns the index of the first version not less than the supplied version.
+     */
+    public int lowerBound(MavenVersion version) {
+        return lowerBound(version.sortKeyBytes());
+    }
+
+    /**
+     * Returns the index of the first version greater than the supplied version.
+     */
+    public int upperBound(MavenVersion version) {
+        return upperBound(version.sortKeyBytes());
+    }
+
+    /**
+     * Returns the spans of this list which satisfy the supplied requirement.
+     *
+     * @see MavenVersionRequirement#spans(List)
+     */
+    public int[] spans(MavenVersionRequirement requirement) {
+        List<int[]> spans = new ArrayList<>();
+        requirement.accept(new MavenVersionRequirement.Visitor() {
+            @Override
+            public void exact(MavenVersion version) {
+                int[] matches = exactSpan(version);
+                if (matches[0] < matches[1]) {
+                    spans.add(matches);
+                }
+            }
+
+            @Override
+            public void interval(MavenVersion lower, boolean openLower, MavenVersion upper, boolean openUpper) {
+                int from = lower == null ? 0
+                        : openLower ? upperBound(lower.sortKeyBytes()) : lowerBound(lower.sortKeyBytes());
+                int to = upper == null ? size
+                        : openUpper ? lowerBound(upper.sortKeyBytes()) : upperBound(upper.sortKeyBytes());
+                if (from < to) {
+                    spans.add(new int[] { from, to });
+                }
+            }
+        });
+        return MavenVersionRequirement.mergeSpans(spans);
+    }
+
+    /**
+     * Returns the versions in this list which satisfy the supplied requirement.
+     */
+    public List<MavenVersion> filter(MavenVersionRequirement requirement) {
+        int[] spans = spans(requirement);
+        List<MavenVersion> result = new ArrayList<>();
+        for (int i = 0; i < spans.length; i += 2) {
+            Cursor cursor = cursorAt(spans[i]);
+            result.add(cursor.version());
+            while (cursor.index + 1 < spans[i + 1]) {
+                cursor.next();
+                result.add(cursor.version());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the approximate number of bytes used to store the versions.
+     */
+    public long sizeInBytes() {
+        return buffer.limit();
+    }
+
+    /**
+     * Returns a read-only view of the serialized form of this list.
+     */
+    public ByteBuffer toByteBuffer() {
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the {@code [from, to)} span of versions equal to the supplied version. Equal versions share a sort key
+     * and value, so they are always adjacent.
+     */
+    private int[] exactSpan(MavenVersion version) {
+        int from = lowerBound(version.sortKeyBytes());
+        int to = upperBound(version.sortKeyBytes());
+        if (from < to) {
+            byte[] value = version.toString().getBytes(UTF_8);
+            Cursor cursor = cursorAt(from);
+            while (!cursor.valueEquals(value)) {
+                if (cursor.index + 1 == to) {
+                    return new int[] { to, to };
+                }
+                cursor.next();
+            }
+            from = cursor.index;
+            while (cursor.index + 1 < to) {
+                cursor.next();
+                if (!cursor.valueEquals(value)) {
+                    return new int[] { from, cursor.index };
+                }
+            }
+        }
+        return new int[] { from, to };
+    }
+
+    /**
+     * Returns a cursor positioned at the supplied index.
+     */
+    private Cursor cursorAt(int index) {
+        Cursor cursor = new Cursor(index / BLOCK_SIZE);
+        for (int i = index % BLOCK_SIZE; i >= 0; --i) {
+            cursor.next();
+        }
+        return cursor;
+    }
+
+    private int lowerBound(byte[] key) {
+        return search(key, false);
+    }
+
+    private int upperBound(byte[] key) {
+        return search(key, true);
+    }
+
+    /**
+     * Returns the index of the first entry whose key is greater than (or equal to, unless {@code inclusive}) the
+     * supplied key.
+     */
+    private int search(byte[] key, boolean inclusive) {
+        // Find the last block whose restart key is before the target
+        int low = 0;
+        int high = restartCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareRestartKey(mid, key);
+            if (cmp < 0 || (inclusive && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low == 0) {
+            return 0;
+        }
+        return new Cursor(low - 1, key, inclusive).index;
+    }
+
+    private int compareRestartKey(int block, byte[] key) {
+        return FrontCoding.compareRestartKey(buffer, restart(block), key);
+    }
+
+    private int restart(int block) {
+        return FrontCoding.restart(buffer, HEADER_SIZE, dataOffset, block);
+    }
+
+    /**
+     * Sequentially decodes entries, reconstructing the full key and value of the current entry.
+     */
+    private final class Cursor {
+        private int index;
+
+        private int position;
+
+        private byte[] key = new byte[32];
+
+        private int keyLength;
+
+        private byte[] value = new byte[32];
+
+        private int valueLength;
+
+        /**
+         * Positions the cursor before the first entry of the supplied block.
+         */
+        private Cursor(int block) {
+            this.index = block * BLOCK_SIZE - 1;
+            this.position = block < restartCount ? restart(block) : buffer.limit();
+        }
+
+        /**
+         * Positions the cursor at the first entry of the supplied block that is greater than (or equal to, unless
+         * {@code inclusive}) the target key, or at the start of the next block.
+         */
+        private Cursor(int block, byte[] target, boolean inclusive) {
+            this(block);
+            int end = Math.min(size, (block + 1) * BLOCK_SIZE);
+            while (index + 1 < end) {
+                next();
+                int cmp = VersionCodec.compare(key, 0, keyLength, target, 0, target.length);
+                if (cmp > 0 || (!inclusive && cmp == 0)) {
+                    return;
+                }
+            }
+            index = end;
+        }
+
+        private void next() {
+            index++;
+            position = decodeSuffix(position, true);
+            position = decodeSuffix(position, false);
+        }
+
+        private int decodeSuffix(int position, boolean isKey) {
+            int shared = FrontCoding.readVarint(buffer, position);
+            position = FrontCoding.skipVarint(buffer, position);
+            int length = FrontCoding.readVarint(buffer, position);
+            position = FrontCoding.skipVarint(buffer, position);
+            byte[] target = isKey ? key : value;
+            if (target.length < shared + length) {
+                target = Arrays.copyOf(target, Math.max(shared + length, target.length * 2));
+            }
+            for (int i = 0; i < length; ++i) {
+                target[shared + i] = buffer.get(position + i);
+            }
+            if (isKey) {
+                key = target;
+                keyLength = shared + length;
+            } else {
+                value = target;
+                valueLength = shared + length;
+            }
+            return position + length;
+        }
+
+        private boolean valueEquals(byte[] other) {
+            return VersionCodec.compare(value, 0, valueLength, other, 0, other.length) == 0;
+        }
+
+        private MavenVersion version() {
+            return MavenVersion.withSortKey(new String(value, 0, valueLength, UTF_8), Arrays.copyOf(key, keyLength));
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Helpers for the front coded blocks shared by {@link FrontCodedVersionList} and {@link ArtifactDictionary}. Each
+ * entry is a varint count of bytes shared with the previous entry, a varint suffix length and the suffix bytes; the
+ * first entry of each block (the restart point) shares nothing. Restart offsets are big-endian integers relative to
+ * the start of the entry data.
+ *
+ * @author jgustie
+ */
+final class FrontCoding {
+
+    /**
+     * Writes the entry for the current bytes given the bytes of the previous entry in the block.
+     */
+    static void writeSuffix(ByteArrayOutputStream out, byte[] previous, byte[] current) {
+        int shared = 0;
+        int max = Math.min(previous.length, current.length);
+        while (shared < max && previous[shared] == current[shared]) {
+            shared++;
+        }
+        writeVarint(out, shared);
+        writeVarint(out, current.length - shared);
+        out.write(current, shared, current.length - shared);
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarint(ByteBuffer buffer, int position) {
+        int result = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = buffer.get(position++);
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Returns the position following the varint at the supplied position.
+     */
+    static int skipVarint(ByteBuffer buffer, int position) {
+        int result = position;
+        while (buffer.get(result) < 0) {
+            result++;
+        }
+        return result + 1;
+    }
+
+    /**
+     * Returns the position of the restart point of a block given the offsets of the restart table and entry data.
+     */
+    static int restart(ByteBuffer buffer, int restartsOffset, int dataOffset, int block) {
+        return dataOffset + buffer.getInt(restartsOffset + 4 * block);
+    }
+
+    /**
+     * Compares the restart entry at the supplied position to a key using an unsigned lexicographic comparison.
+     */
+    static int compareRestartKey(ByteBuffer buffer, int position, byte[] key) {
+        // The restart point shares nothing with its predecessor
+        position = skipVarint(buffer, position);
+        int length = readVarint(buffer, position);
+        position = skipVarint(buffer, position);
+        int len = Math.min(length, key.length);
+        for (int i = 0; i < len; ++i) {
+            int b1 = buffer.get(position + i) & 0xFF;
+            int b2 = key[i] & 0xFF;
+            if (b1 != b2) {
+                return b1 - b2;
+            }
+        }
+        return length - key.length;
+    }
+
+    private FrontCoding() {
+    }
+
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.stream.Collector;
+
+/**
+ * Aggregates the newest versions of each artifact from Maven coordinates presented in any order. Memory is bounded by
+ * the number of distinct artifacts: each artifact retains at most the configured number of versions in a min-heap
+ * ordered by the Maven version order, so a coordinate older than every retained version is rejected with a single
+ * comparison.
+ * <p>
+ * Versions which are equal for the sake of comparison (e.g. "1" and "1.0") are retained once, preferring the
+ * lexicographically smallest string so the result does not depend on the order of the input. The packaging and
+ * classifier of the coordinates are ignored, as are coordinates without a version.
+ * <p>
+ * Instances are not thread safe; parallel aggregation uses a partial aggregate per thread combined with
+ * {@link #merge(LatestVersions)}, which is what the {@linkplain Builder#collector() collector} does.
+ *
+ * @author jgustie
+ */
+public final class LatestVersions {
+
+    /**
+     * The newest versions of a single artifact.
+     */
+    private static final class Heap {
+        private final String groupId;
+
+        private final String artifactId;
+
+        private final MavenVersion[] versions;
+
+        private int size;
+
+        private Heap(String groupId, String artifactId, int limit) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.versions = new MavenVersion[limit];
+        }
+
+        public void offer(MavenVersion version) {
+            if (size == versions.length) {
+                int c = version.compareTo(versions[0]);
+                if (c < 0 || (c == 0 && version.toString().compareTo(versions[0].toString()) >= 0)) {
+                    return;
+                }
+            }
+            for (int i = 0; i < size; ++i) {
+                if (versions[i].compareTo(version) == 0) {
+                    if (version.toString().compareTo(versions[i].toString()) < 0) {
+                        versions[i] = version;
+                    }
+                    return;
+                }
+            }
+            if (size < versions.length) {
+                versions[size] = version;
+                siftUp(size++);
+            } else {
+                versions[0] = version;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Returns the retained versions, newest first.
+         */
+        public List<MavenVersion> toList() {
+            MavenVersion[] result = Arrays.copyOf(versions, size);
+            Arrays.sort(result, Collections.reverseOrder());
+            return Collections.unmodifiableList(Arrays.asList(result));
+        }
+
+        private void siftUp(int i) {
+            MavenVersion version = versions[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (versions[parent].compareTo(version) <= 0) {
+                    break;
+                }
+                versions[i] = versions[parent];
+                i = parent;
+            }
+            versions[i] = version;
+        }
+
+        private void siftDown(int i) {
+            MavenVersion version = versions[i];
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && versions[child + 1].compareTo(versions[child]) < 0) {
+                    child++;
+                }
+                if (version.compareTo(versions[child]) <= 0) {
+                    break;
+                }
+                versions[i] = versions[child];
+                i = child;
+            }
+            versions[i] = version;
+        }
+    }
+
+    /**
+     * Classes of versions which can be excluded from the aggregate.
+     */
+    private enum Exclusion {
+        SNAPSHOT, PRE_RELEASE
+    }
+
+    private final int limit;
+
+    private final EnumSet<Exclusion> exclusions;
+
+    private final Map<String, Heap> artifacts = new HashMap<>();
+
+    private LatestVersions(Builder builder) {
+        this.limit = builder.limit;
+        this.exclusions = EnumSet.copyOf(builder.exclusions);
+    }
+
+    /**
+     * Adds the version of a coordinate to the aggregate.
+     */
+    public LatestVersions add(MavenCoordinate coordinate) {
+        coordinate.getVersion().ifPresent(version -> add(coordinate.getGroupId(), coordinate.getArtifactId(), version));
+        return this;
+    }
+
+    public LatestVersions add(String groupId, String artifactId, MavenVersion version) {
+        if (exclusions.contains(Exclusion.SNAPSHOT) && version.isSnapshot()) {
+            return this;
+        } else if (exclusions.contains(Exclusion.PRE_RELEASE) && version.isPreRelease()) {
+            return this;
+        }
+        artifacts.computeIfAbsent(key(groupId, artifactId), k -> new Heap(groupId, artifactId, limit)).offer(version);
+        return this;
+    }
+
+    /**
+     * Merges a partial aggregate into this aggregate, the supplied aggregate must have been built with the same
+     * configuration.
+     *
+     * @throws IllegalArgumentException
+     *             if the configuration of the aggregates differ
+     */
+    public LatestVersions merge(LatestVersions other) {
+        if (other.limit != limit || !other.exclusions.equals(exclusions)) {
+            throw new IllegalArgumentException("cannot merge aggregates with different configurations");
+        }
+        for (Map.Entry<String, Heap> entry : other.artifacts.entrySet()) {
+            Heap source = entry.getValue();
+            Heap target = artifacts.get(entry.getKey());
+            if (target == null) {
+                artifacts.put(entry.getKey(), source);
+            } else {
+                for (int i = 0; i < source.size; ++i) {
+                    target.offer(source.versions[i]);
+                }
+            }
+        }
+        other.artifacts.clear();
+        return this;
+    }
+
+    /**
+     * Returns the newest versions of the specified artifact, newest first.
+     */
+    public List<MavenVersion> versions(String groupId, String artifactId) {
+        Heap heap = artifacts.get(key(groupId, artifactId));
+        return heap != null ? heap.toList() : Collections.emptyList();
+    }
+
+    /**
+     * Returns the number of distinct artifacts in the aggregate.
+     */
+    public int artifactCount() {
+        return artifacts.size();
+    }
+
+    /**
+     * Emits the newest versions of each artifact (newest first) as a coordinate without a version, one artifact at a
+     * time and in no particular order, without materializing the entire result.
+     */
+    public void forEach(BiConsumer<? super MavenCoordinate, ? super List<MavenVersion>> action) {
+        Objects.requireNonNull(action);
+        for (Heap heap : artifacts.values()) {
+            action.accept(new MavenCoordinate.Builder().groupId(heap.groupId).artifactId(heap.artifactId).build(),
+                    heap.toList());
+        }
+    }
+
+    /**
+     * Returns the newest versions of every artifact, keyed by coordinates without a version.
+     */
+    public Map<MavenCoordinate, List<MavenVersion>> toMap() {
+        Map<MavenCoordinate, List<MavenVersion>> result = new LinkedHashMap<>();
+        forEach(result::put);
+        return result;
+    }
+
+    private static String key(String groupId, String artifactId) {
+        return groupId + ':' + artifactId;
+    }
+
+    public static final class Builder {
+
+        private int limit = 1;
+
+        private final EnumSet<Exclusion> exclusions = EnumSet.noneOf(Exclusion.class);
+
+        public Builder() {
+        }
+
+        /**
+         * The maximum number of versions retained for each artifact.
+         */
+        public Builder limit(int limit) {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("limit must be positive: " + limit);
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        /**
+         * Excludes versions with a "snapshot" qualifier.
+         *
+         * @see MavenVersion#isSnapshot()
+         */
+        public Builder excludeSnapshots() {
+            exclusions.add(Exclusion.SNAPSHOT);
+            return this;
+        }
+
+        /**
+         * Excludes versions with a pre-release qualifier such as "alpha", "beta", "milestone" or "rc".
+         *
+         * @see MavenVersion#isPreRelease()
+         */
+        public Builder excludePreReleases() {
+            exclusions.add(Exclusion.PRE_RELEASE);
+            return this;
+        }
+
+        public LatestVersions build() {
+            return new LatestVersions(this);
+        }
+
+        /**
+         * Returns an unordered collector using the current configuration of this builder. Each thread of a parallel
+         * stream accumulates a partial aggregate which are merged once the thread completes.
+         */
+        public Collector<MavenCoordinate, LatestVersions, Map<MavenCoordinate, List<MavenVersion>>> collector() {
+            Builder builder = new Builder().limit(limit);
+            builder.exclusions.addAll(exclusions);
+            return Collector.of(builder::build, LatestVersions::add, LatestVersions::merge, LatestVersions::toMap,
+                    Collector.Characteristics.UNORDERED);
+        }
+    }
+
+}
@@ -15,7 +15,11 @@
  */
 package com.blackducksoftware.bdns.maven;
 
+import java.util.Optional;
+
 import com.blackducksoftware.bdns.NamespaceManager;
+import com.blackducksoftware.bdns.ParseResult;
+import com.blackducksoftware.bdns.VersionCodec;
 
 /**
  * The Maven namespace manager.
@@ -65,4 +69,34 @@ public class Maven extends NamespaceManager {
         return MavenScope.parse(scope);
     }
 
+    @Override
+    public ParseResult<MavenRepository> tryContext(CharSequence context) {
+        return MavenRepository.tryParse(context);
+    }
+
+    @Override
+    public ParseResult<MavenCoordinate> tryIdentifier(CharSequence identifier) {
+        return MavenCoordinate.tryParse(identifier);
+    }
+
+    @Override
+    public ParseResult<MavenVersion> tryVersion(CharSequence version) {
+        return MavenVersion.tryParse(version);
+    }
+
+    @Override
+    public ParseResult<MavenVersionRequirement> tryVersionRange(CharSequence versionRange) {
+        return MavenVersionRequirement.tryParse(versionRange);
+    }
+
+    @Override
+    public ParseResult<MavenScope> tryScope(CharSequence scope) {
+        return MavenScope.tryParse(scope);
+    }
+
+    @Override
+    public Optional<VersionCodec<MavenVersion>> versionCodec() {
+        return Optional.of(MavenVersion.codec());
+    }
+
 }
@@ -15,12 +15,15 @@
  */
 package com.blackducksoftware.bdns.maven;
 
+import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.StringJoiner;
-import java.util.regex.Pattern;
 
+import com.blackducksoftware.bdns.Fingerprint;
 import com.blackducksoftware.bdns.Identifier;
+import com.blackducksoftware.bdns.Interner;
+import com.blackducksoftware.bdns.ParseResult;
 
 /**
  *
@@ -29,24 +32,38 @@ import com.blackducksoftware.bdns.Identifier;
  */
 public final class MavenCoordinate implements Identifier {
 
-    private static final String DEFAULT_PACKAGING = "jar";
+    static final String DEFAULT_PACKAGING = "jar";
+
+    /**
+     * Canonical instances of the names used by coordinates and dependencies.
+     */
+    static final Interner<String> NAMES = Interner.weak();
+
+    private static final Interner<MavenCoordinate> INTERNER = Interner.weak();
 
     private final String groupId;
 
     private final String artifactId;
 
-    private final Optional<MavenVersion> version;
+    // Optional values are stored as nullable fields and only wrapped by the getters
+
+    private final MavenVersion version;
+
+    private final String packaging;
 
-    private final Optional<String> packaging;
+    private final String classifier;
 
-    private final Optional<String> classifier;
+    /**
+     * The cached hash code, zero if it has not been computed yet.
+     */
+    private int hash;
 
     private MavenCoordinate(Builder builder) {
         this.groupId = Objects.requireNonNull(builder.groupId);
         this.artifactId = Objects.requireNonNull(builder.artifactId);
-        this.version = Optional.of(builder.version);
-        this.packaging = Optional.ofNullable(builder.packaging);
-        this.classifier = Optional.ofNullable(builder.classifier);
+        this.version = builder.version;
+        this.packaging = builder.packaging;
+        this.classifier = builder.classifier;
     }
 
     public String getGroupId() {
@@ -59,40 +76,71 @@ public final class MavenCoordinate implements Identifier {
 
     @Override
     public Optional<MavenVersion> getVersion() {
-        return version;
+        return Optional.ofNullable(version);
     }
 
     public Optional<String> getPackaging() {
-        return packaging;
+        return Optional.ofNullable(packaging);
     }
 
     public Optional<String> getClassifier() {
-        return classifier;
+        return Optional.ofNullable(classifier);
     }
 
     @Override
     public MavenCoordinate withoutVersion() {
-        return version.isPresent() ? newBuilder().version((MavenVersion) null).build() : this;
+        return version != null ? newBuilder().version((MavenVersion) null).build() : this;
     }
 
     public Builder newBuilder() {
         return new Builder(this);
     }
 
+    /**
+     * Returns a canonical instance of this coordinate whose names and version are also canonical.
+     *
+     * @see Builder#interned(boolean)
+     */
+    public MavenCoordinate intern() {
+        return newBuilder().interned(true).build();
+    }
+
+    /**
+     * Returns the fingerprint of the group, artifact, effective packaging, classifier and version; absent fields are
+     * fingerprinted as {@code null}.
+     */
+    @Override
+    public long fingerprint64() {
+        return Fingerprint.of(groupId, artifactId, packaging(), classifier,
+                version != null ? version.toString() : null);
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(groupId, artifactId, version, packaging.orElse(DEFAULT_PACKAGING), classifier);
+        int result = hash;
+        if (result == 0) {
+            result = groupId.hashCode();
+            result = 31 * result + artifactId.hashCode();
+            result = 31 * result + Objects.hashCode(version);
+            result = 31 * result + packaging().hashCode();
+            result = 31 * result + Objects.hashCode(classifier);
+            hash = result;
+        }
+        return result;
     }
 
     @Override
     public boolean equals(Object obj) {
-        if (obj instanceof MavenCoordinate) {
+        if (obj == this) {
+            return true;
+        } else if (obj instanceof MavenCoordinate) {
             MavenCoordinate other = (MavenCoordinate) obj;
-            return groupId.equals(other.groupId)
+            return hashCode() == other.hashCode()
+                    && groupId.equals(other.groupId)
                     && artifactId.equals(other.artifactId)
-                    && version.equals(other.version)
-                    && packaging.orElse(DEFAULT_PACKAGING).equals(other.packaging.orElse(DEFAULT_PACKAGING))
-                    && classifier.equals(other.classifier);
+                    && Objects.equals(version, other.version)
+                    && packaging().equals(other.packaging())
+                    && Objects.equals(classifier, other.classifier);
         }
         return false;
     }
@@ -102,34 +150,68 @@ public final class MavenCoordinate implements Identifier {
         StringJoiner result = new StringJoiner(":");
         result.add(groupId);
         result.add(artifactId);
-        packaging.ifPresent(result::add);
-        classifier.ifPresent(result::add);
-        version.map(MavenVersion::toString).ifPresent(result::add);
+        if (packaging != null) {
+            result.add(packaging);
+        }
+        if (classifier != null) {
+            result.add(classifier);
+        }
+        if (version != null) {
+            result.add(version.toString());
+        }
         return result.toString();
     }
 
+    /**
+     * Returns the effective packaging.
+     */
+    private String packaging() {
+        return packaging != null ? packaging : DEFAULT_PACKAGING;
+    }
+
     public static MavenCoordinate valueOf(String value) {
         return parse(value);
     }
 
     public static MavenCoordinate parse(CharSequence value) {
-        String[] parts = Pattern.compile(":").split(value);
-        if (parts.length < 3 || parts.length > 5) {
-            throw new IllegalArgumentException("invalid Maven identifier: " + value);
-        }
+        return tryParse(value).getValue()
+                .orElseThrow(() -> new IllegalArgumentException("invalid Maven identifier: " + value));
+    }
 
-        int i = 0;
-        Builder builder = new Builder();
-        builder.groupId(parts[i++]);
-        builder.artifactId(parts[i++]);
-        if (parts.length == 4) {
-            builder.packaging(parts[i++]);
-        }
-        if (parts.length == 5) {
-            builder.classifier(parts[i++]);
-        }
-        builder.version(parts[i++]);
-        return builder.build();
+    /**
+     * Parses a coordinate of the form {@code groupId:artifactId[:packaging[:classifier]]:version} without throwing
+     * exceptions for invalid input.
+     */
+    public static ParseResult<MavenCoordinate> tryParse(CharSequence value) {
+        MavenCoordinateView view = new MavenCoordinateView();
+        view.reset(value);
+        return view.toParseResult();
+    }
+
+    /**
+     * Parses the remaining UTF-8 encoded bytes of the supplied buffer without modifying its position. Only the
+     * components of the coordinate are decoded.
+     */
+    public static MavenCoordinate parse(ByteBuffer value) {
+        return tryParse(value).getValue()
+                .orElseThrow(() -> new IllegalArgumentException("invalid Maven identifier: " + Utf8.decode(value)));
+    }
+
+    /**
+     * Parses the UTF-8 encoded bytes in the supplied range of the array without copying it. Only the components of
+     * the coordinate are decoded.
+     */
+    public static MavenCoordinate parse(byte[] value, int offset, int length) {
+        return parse(ByteBuffer.wrap(value, offset, length));
+    }
+
+    /**
+     * Parses the remaining UTF-8 encoded bytes of the supplied buffer without throwing exceptions for invalid input.
+     */
+    public static ParseResult<MavenCoordinate> tryParse(ByteBuffer value) {
+        MavenCoordinateView view = new MavenCoordinateView();
+        view.reset(value);
+        return view.toParseResult();
     }
 
     public static final class Builder {
@@ -144,15 +226,17 @@ public final class MavenCoordinate implements Identifier {
 
         private String classifier;
 
+        private boolean interned;
+
         public Builder() {
         }
 
         private Builder(MavenCoordinate mavenIdentifier) {
             this.groupId = mavenIdentifier.groupId;
             this.artifactId = mavenIdentifier.artifactId;
-            this.version = mavenIdentifier.version.orElse(null);
-            this.packaging = mavenIdentifier.packaging.orElse(null);
-            this.classifier = mavenIdentifier.classifier.orElse(null);
+            this.version = mavenIdentifier.version;
+            this.packaging = mavenIdentifier.packaging;
+            this.classifier = mavenIdentifier.classifier;
         }
 
         public Builder groupId(CharSequence groupId) {
@@ -230,10 +314,27 @@ public final class MavenCoordinate implements Identifier {
             }
         }
 
+        /**
+         * Sets whether {@link #build()} returns a canonical, shared instance. Interning is useful when the same
+         * coordinates are retained many times, for example in large dependency graphs.
+         */
+        public Builder interned(boolean interned) {
+            this.interned = interned;
+            return this;
+        }
+
         public MavenCoordinate build() {
             if (classifier != null && packaging == null) {
                 throw new IllegalStateException("packaging is required when using classifier");
             }
+            if (interned) {
+                groupId = groupId != null ? NAMES.intern(groupId) : null;
+                artifactId = artifactId != null ? NAMES.intern(artifactId) : null;
+                version = version != null ? version.intern() : null;
+                packaging = packaging != null ? NAMES.intern(packaging) : null;
+                classifier = classifier != null ? NAMES.intern(classifier) : null;
+                return INTERNER.intern(new MavenCoordinate(this));
+            }
             return new MavenCoordinate(this);
         }
     }
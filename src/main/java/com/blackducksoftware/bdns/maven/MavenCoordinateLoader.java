@@ -0,0 +1,340 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import com.blackducksoftware.bdns.ParseResult;
+
+/**
+ * Loads files containing one Maven coordinate per line. The file is memory mapped and split into chunks on line
+ * boundaries; chunks are parsed concurrently directly from the mapped bytes, only decoding the components of each
+ * coordinate. Only a small window of chunks is in flight at any time.
+ * <p>
+ * Blank lines are ignored and both {@code \n} and {@code \r\n} line endings are accepted. Lines which are not valid
+ * coordinates are reported to the error sink from the calling thread, in file order, as each chunk completes. If the
+ * error sink or the consumer throws, the remaining chunks are cancelled and the consumer is not invoked again once
+ * the exception propagates.
+ *
+ * @author jgustie
+ */
+public final class MavenCoordinateLoader {
+
+    /**
+     * Receives the lines which could not be parsed.
+     */
+    @FunctionalInterface
+    public interface ErrorSink {
+        /**
+         * Reports an invalid line.
+         *
+         * @param lineNumber
+         *            the one-based line number in the file
+         * @param line
+         *            the text of the invalid line
+         * @param result
+         *            the failed parse result describing the error
+         */
+        void error(long lineNumber, String line, ParseResult<MavenCoordinate> result);
+    }
+
+    /**
+     * Receives the lines of a chunk, returning {@code false} to stop.
+     */
+    @FunctionalInterface
+    private interface LineHandler {
+        boolean line(long lineNumber, int start, int end);
+    }
+
+    private static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * The maximum number of invalid lines retained by each chunk, chunks with more errors are scanned again when the
+     * errors are reported.
+     */
+    private static final int MAX_BUFFERED_ERRORS = 256;
+
+    private final int chunkSize;
+
+    private final ForkJoinPool pool;
+
+    private final ErrorSink errorSink;
+
+    private MavenCoordinateLoader(Builder builder) {
+        this.chunkSize = builder.chunkSize;
+        this.pool = Objects.requireNonNull(builder.pool);
+        this.errorSink = Objects.requireNonNull(builder.errorSink);
+    }
+
+    /**
+     * Loads every coordinate in the supplied file, returning the number of coordinates loaded. The consumer is invoked
+     * concurrently from the threads of the pool and must be thread safe; coordinates are not supplied in file order.
+     */
+    public long load(Path file, Consumer<? super MavenCoordinate> consumer) throws IOException {
+        Objects.requireNonNull(consumer);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] boundaries = boundaries(channel);
+            int window = pool.getParallelism() * 2;
+            AtomicBoolean cancelled = new AtomicBoolean();
+            Deque<ForkJoinTask<Chunk>> tasks = new ArrayDeque<>(window);
+            int submitted = 0;
+            try {
+                long count = 0L;
+                long lines = 0L;
+                while (submitted < boundaries.length - 1 || !tasks.isEmpty()) {
+                    while (submitted < boundaries.length - 1 && tasks.size() < window) {
+                        long start = boundaries[submitted];
+                        long end = boundaries[++submitted];
+                        tasks.add(pool.submit(() -> parse(channel, start, end, consumer, cancelled)));
+                    }
+
+                    Chunk chunk;
+                    try {
+                        chunk = tasks.remove().join();
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    }
+                    report(channel, chunk, lines);
+                    count += chunk.count;
+                    lines += chunk.lines;
+                }
+                return count;
+            } finally {
+                if (!tasks.isEmpty()) {
+                    // Stop the remaining chunks and wait for them before the channel is closed; cancelling a running
+                    // fork/join task does not stop it, it only lets a join return before the task does
+                    cancelled.set(true);
+                    tasks.forEach(ForkJoinTask::quietlyJoin);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the file positions that split the file into chunks of roughly the configured size. Every position
+     * except the first and last immediately follows a newline.
+     */
+    private long[] boundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> result = new ArrayList<>();
+        result.add(0L);
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = 0L;
+        while (size - position > chunkSize) {
+            long next = nextLine(channel, position + chunkSize, buffer);
+            if (next - position > Integer.MAX_VALUE) {
+                throw new IOException("line too long near position " + position);
+            } else if (next >= size) {
+                break;
+            }
+            result.add(next);
+            position = next;
+        }
+        if (size > position) {
+            result.add(size);
+        }
+        return result.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Returns the position following the first newline at or after the supplied position.
+     */
+    private static long nextLine(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; ++i) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    private static Chunk parse(FileChannel channel, long start, long end, Consumer<? super MavenCoordinate> consumer,
+            AtomicBoolean cancelled) {
+        Chunk chunk = new Chunk(start, end);
+        if (cancelled.get()) {
+            return chunk;
+        }
+        MappedByteBuffer buffer = map(channel, start, end);
+        MavenCoordinateView view = new MavenCoordinateView();
+        chunk.lines = forEachLine(buffer, (lineNumber, lineStart, lineEnd) -> {
+            if (cancelled.get()) {
+                return false;
+            } else if (view.reset(buffer, lineStart, lineEnd)) {
+                consumer.accept(view.toCoordinate());
+                chunk.count++;
+            } else if (chunk.errorCount++ < MAX_BUFFERED_ERRORS) {
+                chunk.errorLineNumbers.add(lineNumber);
+                chunk.errorLines.add(Utf8.decode(buffer, lineStart, lineEnd));
+                chunk.errors.add(view.toParseResult());
+            }
+            return true;
+        });
+        return chunk;
+    }
+
+    /**
+     * Reports the invalid lines of a chunk, scanning the chunk again if it had too many errors to retain.
+     */
+    private void report(FileChannel channel, Chunk chunk, long lines) {
+        if (chunk.errorCount <= MAX_BUFFERED_ERRORS) {
+            for (int i = 0; i < chunk.errorLines.size(); ++i) {
+                errorSink.error(lines + chunk.errorLineNumbers.get(i), chunk.errorLines.get(i), chunk.errors.get(i));
+            }
+        } else {
+            MappedByteBuffer buffer = map(channel, chunk.start, chunk.end);
+            MavenCoordinateView view = new MavenCoordinateView();
+            forEachLine(buffer, (lineNumber, lineStart, lineEnd) -> {
+                if (!view.reset(buffer, lineStart, lineEnd)) {
+                    errorSink.error(lines + lineNumber, Utf8.decode(buffer, lineStart, lineEnd), view.toParseResult());
+                }
+                return true;
+            });
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long start, long end) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Invokes the handler for each non-blank line of the buffer, returning the number of lines visited.
+     */
+    private static long forEachLine(ByteBuffer buffer, LineHandler handler) {
+        long lines = 0L;
+        int limit = buffer.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+
+            lines++;
+            if (lineEnd > lineStart && !handler.line(lines, lineStart, lineEnd)) {
+                break;
+            }
+            lineStart = next;
+        }
+        return lines;
+    }
+
+    /**
+     * The outcome of parsing a single chunk; line numbers are relative to the start of the chunk. At most
+     * {@value #MAX_BUFFERED_ERRORS} invalid lines are retained.
+     */
+    private static final class Chunk {
+        private final long start;
+
+        private final long end;
+
+        private long lines;
+
+        private long count;
+
+        private int errorCount;
+
+        private final List<Long> errorLineNumbers = new ArrayList<>();
+
+        private final List<String> errorLines = new ArrayList<>();
+
+        private final List<ParseResult<MavenCoordinate>> errors = new ArrayList<>();
+
+        private Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Builder for coordinate loaders.
+     */
+    public static final class Builder {
+
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+        private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        private ErrorSink errorSink = (lineNumber, line, result) -> {
+            throw new IllegalArgumentException("invalid Maven identifier on line " + lineNumber + ": " + line);
+        };
+
+        public Builder() {
+        }
+
+        /**
+         * Sets the approximate number of bytes parsed by each task.
+         */
+        public Builder chunkSize(int chunkSize) {
+            if (chunkSize <= 0) {
+                throw new IllegalArgumentException("chunk size must be positive: " + chunkSize);
+            }
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Sets the pool used to parse chunks, defaults to the common pool.
+         */
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = Objects.requireNonNull(pool);
+            return this;
+        }
+
+        /**
+         * Sets the sink for invalid lines. By default the first invalid line causes an
+         * {@code IllegalArgumentException} and the remaining chunks are cancelled.
+         */
+        public Builder errorSink(ErrorSink errorSink) {
+            this.errorSink = Objects.requireNonNull(errorSink);
+            return this;
+        }
+
+        public MavenCoordinateLoader build() {
+            return new MavenCoordinateLoader(this);
+        }
+    }
+
+}
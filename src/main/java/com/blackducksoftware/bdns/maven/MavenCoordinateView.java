@@ -0,0 +1,369 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import com.blackducksoftware.bdns.ParseResult;
+
+/**
+ * A reusable, mutable view over the text of a Maven coordinate. Resetting the view scans the input once and records
+ * the offsets of each component; nothing is copied or allocated until a component or the full
+ * {@link MavenCoordinate} is explicitly materialized. This allows large numbers of coordinates to be inspected and
+ * routed without creating objects for each one.
+ * <p>
+ * Byte input must be UTF-8 encoded; offsets into byte input are byte offsets, and only the components which are
+ * materialized are decoded.
+ * <p>
+ * Instances are not thread safe, and the underlying input must not be modified while it is being viewed.
+ *
+ * @author jgustie
+ */
+public final class MavenCoordinateView {
+
+    /**
+     * The maximum number of separators in a coordinate, {@code groupId:artifactId:packaging:classifier:version}.
+     */
+    private static final int MAX_SEPARATORS = 4;
+
+    private CharSequence chars;
+
+    private char[] array;
+
+    private ByteBuffer bytes;
+
+    private boolean ascii;
+
+    private int start;
+
+    private int end;
+
+    private final int[] separators = new int[MAX_SEPARATORS];
+
+    private int separatorCount;
+
+    private ParseResult.ErrorKind errorKind = ParseResult.ErrorKind.UNEXPECTED_END;
+
+    private int errorOffset;
+
+    public MavenCoordinateView() {
+    }
+
+    /**
+     * Views the supplied characters, returning {@code true} if they contain a valid coordinate.
+     */
+    public boolean reset(CharSequence value) {
+        return reset(value, 0, value.length());
+    }
+
+    /**
+     * Views the supplied region of characters, returning {@code true} if they contain a valid coordinate.
+     */
+    public boolean reset(CharSequence value, int start, int end) {
+        checkRegion(start, end, value.length());
+        this.chars = value;
+        this.array = null;
+        this.bytes = null;
+        return scan(start, end);
+    }
+
+    /**
+     * Views the supplied region of a character array, returning {@code true} if it contains a valid coordinate.
+     */
+    public boolean reset(char[] value, int offset, int length) {
+        checkRegion(offset, offset + length, value.length);
+        this.chars = null;
+        this.array = value;
+        this.bytes = null;
+        return scan(offset, offset + length);
+    }
+
+    /**
+     * Views the remaining UTF-8 encoded bytes of the supplied buffer, returning {@code true} if they contain a valid
+     * coordinate. Offsets are absolute indexes into the buffer and the buffer's position is not modified.
+     */
+    public boolean reset(ByteBuffer value) {
+        return reset(value, value.position(), value.limit());
+    }
+
+    /**
+     * Views the UTF-8 encoded bytes between the supplied absolute indexes of a buffer, returning {@code true} if they
+     * contain a valid coordinate.
+     */
+    public boolean reset(ByteBuffer value, int start, int end) {
+        checkRegion(start, end, value.limit());
+        this.chars = null;
+        this.array = null;
+        this.bytes = value;
+        return scan(start, end);
+    }
+
+    /**
+     * Returns {@code true} if the current input is a valid coordinate.
+     */
+    public boolean isValid() {
+        return errorKind == ParseResult.ErrorKind.NONE;
+    }
+
+    /**
+     * Returns the kind of error encountered scanning the current input.
+     */
+    public ParseResult.ErrorKind getErrorKind() {
+        return errorKind;
+    }
+
+    /**
+     * Returns the offset, relative to the start of the viewed region, where an error was detected.
+     */
+    public int getErrorOffset() {
+        return errorOffset;
+    }
+
+    public int groupIdStart() {
+        checkValid();
+        return start;
+    }
+
+    public int groupIdEnd() {
+        checkValid();
+        return separators[0];
+    }
+
+    public int artifactIdStart() {
+        checkValid();
+        return separators[0] + 1;
+    }
+
+    public int artifactIdEnd() {
+        checkValid();
+        return separators[1];
+    }
+
+    public boolean hasPackaging() {
+        checkValid();
+        return separatorCount > 2;
+    }
+
+    /**
+     * Returns the start of the packaging or {@code -1} if the coordinate does not have an explicit packaging.
+     */
+    public int packagingStart() {
+        return hasPackaging() ? separators[1] + 1 : -1;
+    }
+
+    /**
+     * Returns the end of the packaging or {@code -1} if the coordinate does not have an explicit packaging.
+     */
+    public int packagingEnd() {
+        return hasPackaging() ? separators[2] : -1;
+    }
+
+    public boolean hasClassifier() {
+        checkValid();
+        return separatorCount > 3;
+    }
+
+    /**
+     * Returns the start of the classifier or {@code -1} if the coordinate does not have a classifier.
+     */
+    public int classifierStart() {
+        return hasClassifier() ? separators[2] + 1 : -1;
+    }
+
+    /**
+     * Returns the end of the classifier or {@code -1} if the coordinate does not have a classifier.
+     */
+    public int classifierEnd() {
+        return hasClassifier() ? separators[3] : -1;
+    }
+
+    public int versionStart() {
+        checkValid();
+        return separators[separatorCount - 1] + 1;
+    }
+
+    public int versionEnd() {
+        checkValid();
+        return end;
+    }
+
+    /**
+     * Tests the group identifier for equality without materializing it.
+     */
+    public boolean groupIdEquals(CharSequence groupId) {
+        if (!ascii) {
+            return getGroupId().contentEquals(groupId);
+        }
+        return regionEquals(groupIdStart(), groupIdEnd(), groupId);
+    }
+
+    /**
+     * Tests the artifact identifier for equality without materializing it.
+     */
+    public boolean artifactIdEquals(CharSequence artifactId) {
+        if (!ascii) {
+            return getArtifactId().contentEquals(artifactId);
+        }
+        return regionEquals(artifactIdStart(), artifactIdEnd(), artifactId);
+    }
+
+    /**
+     * Returns the same value as {@code getGroupId().hashCode()} without materializing the group identifier, for
+     * example to route coordinates by group.
+     */
+    public int groupIdHashCode() {
+        if (!ascii) {
+            return getGroupId().hashCode();
+        }
+        int hash = 0;
+        for (int i = groupIdStart(), groupIdEnd = groupIdEnd(); i < groupIdEnd; ++i) {
+            hash = 31 * hash + charAt(i);
+        }
+        return hash;
+    }
+
+    public String getGroupId() {
+        return substring(groupIdStart(), groupIdEnd());
+    }
+
+    public String getArtifactId() {
+        return substring(artifactIdStart(), artifactIdEnd());
+    }
+
+    public String getVersion() {
+        return substring(versionStart(), versionEnd());
+    }
+
+    /**
+     * Materializes the viewed coordinate.
+     *
+     * @throws IllegalStateException
+     *             if the current input is not a valid coordinate
+     */
+    public MavenCoordinate toCoordinate() {
+        MavenCoordinate.Builder builder = new MavenCoordinate.Builder()
+                .groupId(getGroupId())
+                .artifactId(getArtifactId());
+        if (hasPackaging()) {
+            builder.packaging(substring(packagingStart(), packagingEnd()));
+        }
+        if (hasClassifier()) {
+            builder.classifier(substring(classifierStart(), classifierEnd()));
+        }
+        return builder.version(MavenVersion.parse(getVersion())).build();
+    }
+
+    /**
+     * Returns the materialized coordinate or a description of why the current input is not valid.
+     */
+    public ParseResult<MavenCoordinate> toParseResult() {
+        return isValid() ? ParseResult.success(toCoordinate()) : ParseResult.failure(errorKind, errorOffset);
+    }
+
+    @Override
+    public String toString() {
+        if (chars == null && array == null && bytes == null) {
+            return "";
+        }
+        return substring(start, end);
+    }
+
+    private boolean scan(int start, int end) {
+        this.start = start;
+        this.end = end;
+        separatorCount = 0;
+        int bits = 0;
+        for (int i = start; i < end; ++i) {
+            char c = charAt(i);
+            bits |= c;
+            if (c == ':') {
+                if (separatorCount == MAX_SEPARATORS) {
+                    return fail(ParseResult.ErrorKind.UNEXPECTED_CHARACTER, i);
+                }
+                separators[separatorCount++] = i;
+            }
+        }
+        ascii = bytes == null || bits < 0x80;
+        if (separatorCount < 2) {
+            return fail(ParseResult.ErrorKind.UNEXPECTED_END, end);
+        }
+        int componentStart = start;
+        for (int i = 0; i <= separatorCount; ++i) {
+            int componentEnd = i < separatorCount ? separators[i] : end;
+            if (componentStart == componentEnd) {
+                return fail(ParseResult.ErrorKind.EMPTY_COMPONENT, componentStart);
+            }
+            componentStart = componentEnd + 1;
+        }
+        errorKind = ParseResult.ErrorKind.NONE;
+        errorOffset = -1;
+        return true;
+    }
+
+    private boolean fail(ParseResult.ErrorKind errorKind, int index) {
+        this.errorKind = errorKind;
+        this.errorOffset = index - start;
+        return false;
+    }
+
+    private char charAt(int index) {
+        if (array != null) {
+            return array[index];
+        } else if (bytes != null) {
+            // Only meaningful for ASCII, which is sufficient to find the separators
+            return (char) (bytes.get(index) & 0xFF);
+        } else {
+            return chars.charAt(index);
+        }
+    }
+
+    private boolean regionEquals(int start, int end, CharSequence other) {
+        Objects.requireNonNull(other);
+        if (end - start != other.length()) {
+            return false;
+        }
+        for (int i = start; i < end; ++i) {
+            if (charAt(i) != other.charAt(i - start)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String substring(int start, int end) {
+        if (array != null) {
+            return new String(array, start, end - start);
+        } else if (bytes != null) {
+            return Utf8.decode(bytes, start, end);
+        } else {
+            return chars.subSequence(start, end).toString();
+        }
+    }
+
+    private void checkValid() {
+        if (!isValid()) {
+            throw new IllegalStateException("invalid Maven coordinate: " + this);
+        }
+    }
+
+    private static void checkRegion(int start, int end, int length) {
+        if (start < 0 || end < start || end > length) {
+            throw new IndexOutOfBoundsException("region [" + start + ", " + end + ") out of bounds for " + length);
+        }
+    }
+
+}
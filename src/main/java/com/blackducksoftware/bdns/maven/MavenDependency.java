@@ -15,10 +15,13 @@
  */
 package com.blackducksoftware.bdns.maven;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
 import com.blackducksoftware.bdns.Dependency;
+import com.blackducksoftware.bdns.Fingerprint;
+import com.blackducksoftware.bdns.Interner;
 import com.blackducksoftware.bdns.Version;
 
 /**
@@ -34,31 +37,40 @@ public class MavenDependency implements Dependency {
 
     private static final Boolean DEFAULT_OPTIONAL = Boolean.FALSE;
 
+    private static final Interner<MavenDependency> INTERNER = Interner.weak();
+
     private final String groupId;
 
     private final String artifactId;
 
     private final MavenVersionRequirement version;
 
-    private final Optional<String> classifier;
+    // Optional values are stored as nullable fields and only wrapped by the getters
+
+    private final String classifier;
 
-    private final Optional<String> type;
+    private final String type;
 
-    private final Optional<MavenScope> scope;
+    private final MavenScope scope;
 
-    private final Optional<String> systemPath;
+    private final String systemPath;
 
-    private final Optional<Boolean> optional;
+    private final Boolean optional;
+
+    /**
+     * The cached hash code, zero if it has not been computed yet.
+     */
+    private int hash;
 
     private MavenDependency(Builder builder) {
         this.groupId = Objects.requireNonNull(builder.groupId);
         this.artifactId = Objects.requireNonNull(builder.artifactId);
         this.version = Objects.requireNonNull(builder.version);
-        this.classifier = Optional.ofNullable(builder.classifier);
-        this.type = Optional.ofNullable(builder.type);
-        this.scope = Optional.ofNullable(builder.scope);
-        this.systemPath = Optional.ofNullable(builder.systemPath);
-        this.optional = Optional.ofNullable(builder.optional);
+        this.classifier = builder.classifier;
+        this.type = builder.type;
+        this.scope = builder.scope;
+        this.systemPath = builder.systemPath;
+        this.optional = builder.optional;
     }
 
     public String getGroupId() {
@@ -75,24 +87,24 @@ public class MavenDependency implements Dependency {
     }
 
     public Optional<String> getClassifier() {
-        return classifier;
+        return Optional.ofNullable(classifier);
     }
 
     public Optional<String> getType() {
-        return type;
+        return Optional.ofNullable(type);
     }
 
     @Override
     public Optional<MavenScope> getScope() {
-        return scope;
+        return Optional.ofNullable(scope);
     }
 
     public Optional<String> getSystemPath() {
-        return systemPath;
+        return Optional.ofNullable(systemPath);
     }
 
     public Optional<Boolean> getOptional() {
-        return optional;
+        return Optional.ofNullable(optional);
     }
 
     @Override
@@ -102,41 +114,80 @@ public class MavenDependency implements Dependency {
                     .groupId(groupId)
                     .artifactId(artifactId)
                     .version((MavenVersion) version);
-            classifier.ifPresent(result::classifier);
-            type.ifPresent(result::packaging); // TODO Doesn't this need conversion?
+            if (classifier != null) {
+                result.classifier(classifier);
+            }
+            if (type != null) {
+                result.packaging(type); // TODO Doesn't this need conversion?
+            }
             return result.build();
         }
         return null;
     }
 
+    /**
+     * Resolves this dependency using the highest of the supplied versions that satisfies the version requirement. The
+     * versions must be sorted in ascending order.
+     */
+    public MavenCoordinate resolveHighest(List<MavenVersion> sortedVersions) {
+        return getVersionRange().highest(sortedVersions).map(this::resolve).orElse(null);
+    }
+
     public Builder newBuilder() {
         return new Builder(this);
     }
 
+    /**
+     * Returns a canonical instance of this dependency whose names are also canonical.
+     *
+     * @see Builder#interned(boolean)
+     */
+    public MavenDependency intern() {
+        return newBuilder().interned(true).build();
+    }
+
+    /**
+     * Returns the fingerprint of the group, artifact, version requirement, classifier, effective type, effective
+     * scope, system path and effective optional flag; absent fields are fingerprinted as {@code null}.
+     */
+    @Override
+    public long fingerprint64() {
+        return Fingerprint.of(groupId, artifactId, version.toString(), classifier, type(), scope().name(), systemPath,
+                optional().toString());
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(groupId,
-                artifactId,
-                version,
-                classifier,
-                type.orElse(DEFAULT_TYPE),
-                scope.orElse(DEFAULT_SCOPE),
-                systemPath,
-                optional.orElse(DEFAULT_OPTIONAL));
+        int result = hash;
+        if (result == 0) {
+            result = groupId.hashCode();
+            result = 31 * result + artifactId.hashCode();
+            result = 31 * result + version.hashCode();
+            result = 31 * result + Objects.hashCode(classifier);
+            result = 31 * result + type().hashCode();
+            result = 31 * result + scope().hashCode();
+            result = 31 * result + Objects.hashCode(systemPath);
+            result = 31 * result + optional().hashCode();
+            hash = result;
+        }
+        return result;
     }
 
     @Override
     public boolean equals(Object obj) {
-        if (obj instanceof MavenDependency) {
+        if (obj == this) {
+            return true;
+        } else if (obj instanceof MavenDependency) {
             MavenDependency o = (MavenDependency) obj;
-            return groupId.equals(o.groupId)
+            return hashCode() == o.hashCode()
+                    && groupId.equals(o.groupId)
                     && artifactId.equals(o.artifactId)
                     && version.equals(o.version)
-                    && classifier.equals(o.classifier)
-                    && type.orElse(DEFAULT_TYPE).equals(o.type.orElse(DEFAULT_TYPE))
-                    && scope.orElse(DEFAULT_SCOPE).equals(o.scope.orElse(DEFAULT_SCOPE))
-                    && systemPath.equals(o.systemPath)
-                    && optional.orElse(DEFAULT_OPTIONAL).equals(o.optional.orElse(DEFAULT_OPTIONAL));
+                    && Objects.equals(classifier, o.classifier)
+                    && type().equals(o.type())
+                    && scope() == o.scope()
+                    && Objects.equals(systemPath, o.systemPath)
+                    && optional().equals(o.optional());
         }
         return false;
     }
@@ -149,15 +200,37 @@ public class MavenDependency implements Dependency {
         result.append("<groupId>").append(groupId).append("</groupId>");
         result.append("<artifactId>").append(artifactId).append("</artifactId>");
         result.append("<version>").append(version).append("</version>");
-        classifier.ifPresent(c -> result.append("<classifier>").append(c).append("</classifier>"));
-        type.ifPresent(t -> result.append("<type>").append(t).append("</type>"));
-        scope.ifPresent(s -> result.append("<scope>").append(s).append("</scope>"));
-        systemPath.ifPresent(s -> result.append("<systemPath>").append(s).append("</systemPath>"));
-        optional.ifPresent(o -> result.append("<optional>").append(o).append("</optional>"));
+        if (classifier != null) {
+            result.append("<classifier>").append(classifier).append("</classifier>");
+        }
+        if (type != null) {
+            result.append("<type>").append(type).append("</type>");
+        }
+        if (scope != null) {
+            result.append("<scope>").append(scope).append("</scope>");
+        }
+        if (systemPath != null) {
+            result.append("<systemPath>").append(systemPath).append("</systemPath>");
+        }
+        if (optional != null) {
+            result.append("<optional>").append(optional).append("</optional>");
+        }
         result.append("</dependency>");
         return result.toString();
     }
 
+    private String type() {
+        return type != null ? type : DEFAULT_TYPE;
+    }
+
+    private MavenScope scope() {
+        return scope != null ? scope : DEFAULT_SCOPE;
+    }
+
+    private Boolean optional() {
+        return optional != null ? optional : DEFAULT_OPTIONAL;
+    }
+
     public static final class Builder {
 
         private String groupId;
@@ -176,6 +249,8 @@ public class MavenDependency implements Dependency {
 
         private Boolean optional;
 
+        private boolean interned;
+
         public Builder() {
         }
 
@@ -183,11 +258,11 @@ public class MavenDependency implements Dependency {
             this.groupId = mavenDependency.groupId;
             this.artifactId = mavenDependency.artifactId;
             this.version = mavenDependency.version;
-            this.classifier = mavenDependency.classifier.orElse(null);
-            this.type = mavenDependency.type.orElse(null);
-            this.scope = mavenDependency.scope.orElse(null);
-            this.systemPath = mavenDependency.systemPath.orElse(null);
-            this.optional = mavenDependency.optional.orElse(null);
+            this.classifier = mavenDependency.classifier;
+            this.type = mavenDependency.type;
+            this.scope = mavenDependency.scope;
+            this.systemPath = mavenDependency.systemPath;
+            this.optional = mavenDependency.optional;
         }
 
         public Builder groupId(CharSequence groupId) {
@@ -238,10 +313,26 @@ public class MavenDependency implements Dependency {
             return this;
         }
 
+        /**
+         * Sets whether {@link #build()} returns a canonical, shared instance. Interning is useful when the same
+         * dependencies are retained many times, for example in large dependency graphs.
+         */
+        public Builder interned(boolean interned) {
+            this.interned = interned;
+            return this;
+        }
+
         public MavenDependency build() {
             if (systemPath != null && scope != MavenScope.system) {
                 throw new IllegalStateException("system path requires scope of system");
             }
+            if (interned) {
+                groupId = groupId != null ? MavenCoordinate.NAMES.intern(groupId) : null;
+                artifactId = artifactId != null ? MavenCoordinate.NAMES.intern(artifactId) : null;
+                classifier = classifier != null ? MavenCoordinate.NAMES.intern(classifier) : null;
+                type = type != null ? MavenCoordinate.NAMES.intern(type) : null;
+                return INTERNER.intern(new MavenDependency(this));
+            }
             return new MavenDependency(this);
         }
     }
@@ -15,12 +15,13 @@
  */
 package com.blackducksoftware.bdns.maven;
 
+import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.regex.Pattern;
 
 import com.blackducksoftware.bdns.Context;
 import com.blackducksoftware.bdns.Identifier;
+import com.blackducksoftware.bdns.ParseResult;
 
 /**
  *
@@ -145,18 +146,56 @@ public class MavenRepository implements Context {
     }
 
     public static MavenRepository parse(CharSequence input) {
-        String[] parts = Pattern.compile("::").split(input);
-        if (parts.length != 1 && parts.length != 3) {
-            throw new IllegalArgumentException("invalid Maven context: " + input);
+        return tryParse(input).getValue()
+                .orElseThrow(() -> new IllegalArgumentException("invalid Maven context: " + input));
+    }
+
+    /**
+     * Parses the remaining UTF-8 encoded bytes of the supplied buffer without modifying its position.
+     */
+    public static MavenRepository parse(ByteBuffer input) {
+        return parse(Utf8.decode(input));
+    }
+
+    /**
+     * Parses the UTF-8 encoded bytes in the supplied range of the array without modifying the array.
+     */
+    public static MavenRepository parse(byte[] input, int offset, int length) {
+        return parse(ByteBuffer.wrap(input, offset, length));
+    }
+
+    /**
+     * Parses either a repository URL or the {@code id::layout::url} form, without throwing exceptions for invalid
+     * input.
+     */
+    public static ParseResult<MavenRepository> tryParse(CharSequence input) {
+        String value = input.toString();
+        int first = value.indexOf("::");
+        if (first < 0) {
+            return value.isEmpty() ? ParseResult.failure(ParseResult.ErrorKind.EMPTY_COMPONENT, 0)
+                    : ParseResult.success(new Builder().url(value).build());
         }
 
-        Builder builder = new Builder();
-        if (parts.length == 1) {
-            builder.url(parts[0]);
-        } else if (parts.length == 3) {
-            builder.id(parts[0]).layout(parts[1]).url(parts[2]);
+        int second = value.indexOf("::", first + 2);
+        if (second < 0) {
+            return ParseResult.failure(ParseResult.ErrorKind.UNEXPECTED_END, value.length());
+        } else if (value.indexOf("::", second + 2) >= 0) {
+            return ParseResult.failure(ParseResult.ErrorKind.UNEXPECTED_CHARACTER, value.indexOf("::", second + 2));
+        } else if (second + 2 == value.length()) {
+            return ParseResult.failure(ParseResult.ErrorKind.EMPTY_COMPONENT, value.length());
         }
-        return builder.build();
+        return ParseResult.success(new Builder()
+                .id(value.substring(0, first))
+                .layout(value.substring(first + 2, second))
+                .url(value.substring(second + 2))
+                .build());
+    }
+
+    /**
+     * Parses the remaining UTF-8 encoded bytes of the supplied buffer without throwing exceptions for invalid input.
+     */
+    public static ParseResult<MavenRepository> tryParse(ByteBuffer input) {
+        return tryParse(Utf8.decode(input));
     }
 
     public static final class Builder {
@@ -15,6 +15,7 @@
  */
 package com.blackducksoftware.bdns.maven;
 
+import com.blackducksoftware.bdns.ParseResult;
 import com.blackducksoftware.bdns.Scope;
 
 /**
@@ -36,8 +37,19 @@ public enum MavenScope implements Scope {
 
     ;
 
+    private static final MavenScope[] VALUES = values();
+
     public static MavenScope parse(CharSequence value) {
         return valueOf(value.toString());
     }
 
+    public static ParseResult<MavenScope> tryParse(CharSequence value) {
+        for (MavenScope scope : VALUES) {
+            if (scope.name().contentEquals(value)) {
+                return ParseResult.success(scope);
+            }
+        }
+        return ParseResult.failure(ParseResult.ErrorKind.INVALID, 0);
+    }
+
 }
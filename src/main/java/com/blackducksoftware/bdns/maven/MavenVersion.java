@@ -15,21 +15,26 @@
  */
 package com.blackducksoftware.bdns.maven;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.unmodifiableMap;
 import static java.util.Collections.unmodifiableSet;
 import static java.util.Locale.ENGLISH;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
+import com.blackducksoftware.bdns.Interner;
+import com.blackducksoftware.bdns.ParseResult;
 import com.blackducksoftware.bdns.Version;
+import com.blackducksoftware.bdns.VersionCodec;
 
 /**
  *
@@ -69,13 +74,53 @@ public class MavenVersion implements Version, Comparable<MavenVersion> {
         QUALIFIER_ORDER = unmodifiableMap(qualifierOrder);
     }
 
+    // Sort key token classes, in order
+    private static final byte DOT_QUALIFIER = 0x01;
+    private static final byte DASH_QUALIFIER = 0x02;
+    private static final byte DASH_NUMBER = 0x03;
+    private static final byte DOT_NUMBER = 0x04;
+
+    // Sort key qualifier ranks, in order
+    private static final byte UNKNOWN = 0x01;
+    private static final byte RELEASE_BEFORE_PADDING = 0x07;
+    private static final byte ZERO_BEFORE_PADDING = 0x08;
+    private static final byte PADDING = 0x09;
+    private static final byte RELEASE_AFTER_PADDING = 0x0A;
+    private static final byte SERVICE_PACK = 0x0B;
+
+    // Sort key qualifier ranks of the known qualifiers preceding a release
+    private static final int FIRST_PRE_RELEASE = UNKNOWN + QUALIFIER_ORDER.get("alpha").intValue();
+    private static final int SNAPSHOT = UNKNOWN + QUALIFIER_ORDER.get("snapshot").intValue();
+
+    /**
+     * Terminates an unknown qualifier in the sort key, encoded characters never use this value.
+     */
+    private static final byte END_OF_QUALIFIER = 0x01;
+
+    private static final Interner<MavenVersion> INTERNER = Interner.weak();
+
     private final String value;
 
-    private final List<String> tokens;
+    /**
+     * The binary sort key, the natural ordering of this class is the unsigned lexicographic ordering of these bytes.
+     */
+    private final byte[] sortKey;
 
     private MavenVersion(String value) {
         this.value = Objects.requireNonNull(value);
-        this.tokens = tokenize(value);
+        this.sortKey = encodeSortKey(tokenize(value));
+    }
+
+    private MavenVersion(String value, byte[] sortKey) {
+        this.value = Objects.requireNonNull(value);
+        this.sortKey = Objects.requireNonNull(sortKey);
+    }
+
+    /**
+     * Creates a version from a previously computed sort key, the key is not copied or validated.
+     */
+    static MavenVersion withSortKey(String value, byte[] sortKey) {
+        return new MavenVersion(value, sortKey);
     }
 
     /**
@@ -86,18 +131,78 @@ public class MavenVersion implements Version, Comparable<MavenVersion> {
      */
     @Override
     public int compareTo(MavenVersion o) {
-        int result = 0;
-        for (int i = 0; i < Math.max(tokens.size(), o.tokens.size()) && result == 0; ++i) {
-            String token1 = i < tokens.size() ? tokens.get(i) : null;
-            String token2 = i < o.tokens.size() ? o.tokens.get(i) : null;
-            if (token1 == null) {
-                token1 = token2.startsWith(".") ? ".0" : "-";
-            } else if (token2 == null) {
-                token2 = token1.startsWith(".") ? ".0" : "-";
+        return VersionCodec.compare(sortKey, o.sortKey);
+    }
+
+    /**
+     * Returns a binary sort key for this version. Comparing the keys of two versions using an unsigned lexicographic
+     * byte comparison yields the same result as {@link #compareTo(MavenVersion)}, making the key suitable for use in
+     * ordered external storage. Versions which are equal for the sake of comparison (e.g. "1.0" and "1") share the same
+     * sort key.
+     */
+    public byte[] sortKey() {
+        return sortKey.clone();
+    }
+
+    /**
+     * Returns the sort key without copying it, callers must not modify the result.
+     */
+    byte[] sortKeyBytes() {
+        return sortKey;
+    }
+
+    /**
+     * Returns {@code true} if this version contains the "snapshot" qualifier.
+     */
+    public boolean isSnapshot() {
+        return hasQualifierRank(SNAPSHOT, SNAPSHOT);
+    }
+
+    /**
+     * Returns {@code true} if this version contains a qualifier ordered before a release other than "snapshot"
+     * (e.g. "alpha", "beta", "milestone", "rc" or "cr", including the "a1", "b1" and "m1" shorthands). Unknown
+     * qualifiers are not considered pre-releases.
+     */
+    public boolean isPreRelease() {
+        return hasQualifierRank(FIRST_PRE_RELEASE, SNAPSHOT - 1);
+    }
+
+    /**
+     * Checks the sort key for a known qualifier in the supplied (inclusive) range of ranks, avoiding the need to
+     * re-tokenize the version.
+     */
+    private boolean hasQualifierRank(int min, int max) {
+        int i = 0;
+        while (i < sortKey.length) {
+            byte type = sortKey[i++];
+            int value = sortKey[i++] & 0xFF;
+            if (type == DOT_QUALIFIER || type == DASH_QUALIFIER) {
+                if (value == UNKNOWN) {
+                    while (sortKey[i++] != END_OF_QUALIFIER) {
+                        // Skip the encoded characters of the unknown qualifier
+                    }
+                } else if (value >= min && value <= max) {
+                    return true;
+                }
+            } else if (value == 0xFF) {
+                int digits = 0;
+                for (int j = 0; j < 4; ++j) {
+                    digits = (digits << 7) | (sortKey[i++] & 0x7F);
+                }
+                i += digits;
+            } else {
+                i += value - 1;
             }
-            result = compareTokens(token1, token2);
         }
-        return result;
+        return false;
+    }
+
+    /**
+     * Returns a canonical instance of this version. Canonical instances are shared and weakly retained, allowing
+     * equality checks against other canonical instances to be resolved by identity.
+     */
+    public MavenVersion intern() {
+        return INTERNER.intern(this);
     }
 
     @Override
@@ -112,7 +217,9 @@ public class MavenVersion implements Version, Comparable<MavenVersion> {
 
     @Override
     public boolean equals(Object obj) {
-        if (obj instanceof MavenVersion) {
+        if (obj == this) {
+            return true;
+        } else if (obj instanceof MavenVersion) {
             MavenVersion other = (MavenVersion) obj;
             return value.equals(other.value);
         }
@@ -128,61 +235,409 @@ public class MavenVersion implements Version, Comparable<MavenVersion> {
     }
 
     /**
-     * Given an arbitrary version string, returns the list of sorting tokens.
+     * Parses a Maven version, every input is a valid version.
+     */
+    public static ParseResult<MavenVersion> tryParse(CharSequence value) {
+        return ParseResult.success(parse(value));
+    }
+
+    /**
+     * Parses the remaining UTF-8 encoded bytes of the supplied buffer without modifying its position.
+     */
+    public static MavenVersion parse(ByteBuffer value) {
+        return new MavenVersion(Utf8.decode(value));
+    }
+
+    /**
+     * Parses the UTF-8 encoded bytes in the supplied range of the array without modifying the array.
+     */
+    public static MavenVersion parse(byte[] value, int offset, int length) {
+        return new MavenVersion(new String(value, offset, length, UTF_8));
+    }
+
+    /**
+     * Parses the remaining UTF-8 encoded bytes of the supplied buffer, every input is a valid version.
+     */
+    public static ParseResult<MavenVersion> tryParse(ByteBuffer value) {
+        return ParseResult.success(parse(value));
+    }
+
+    /**
+     * Returns the codec for Maven versions. The encoding is the {@linkplain #sortKey() sort key}, a zero byte and the
+     * UTF-8 encoded version string; decoding does not need to re-tokenize the version.
      */
-    private static List<String> tokenize(String value) {
-        ArrayList<String> tokens = new ArrayList<>();
+    public static VersionCodec<MavenVersion> codec() {
+        return Codec.INSTANCE;
+    }
+
+    private static final class Codec implements VersionCodec<MavenVersion> {
+        private static final Codec INSTANCE = new Codec();
+
+        @Override
+        public byte[] encode(Version version) {
+            if (version instanceof MavenVersion) {
+                MavenVersion mavenVersion = (MavenVersion) version;
+                byte[] value = mavenVersion.value.getBytes(UTF_8);
+                byte[] result = Arrays.copyOf(mavenVersion.sortKey, mavenVersion.sortKey.length + 1 + value.length);
+                System.arraycopy(value, 0, result, mavenVersion.sortKey.length + 1, value.length);
+                return result;
+            } else {
+                throw new IllegalArgumentException("incorrect namespace");
+            }
+        }
+
+        @Override
+        public MavenVersion decode(byte[] bytes, int offset, int length) {
+            // The sort key never contains a zero byte
+            for (int i = offset; i < offset + length; ++i) {
+                if (bytes[i] == 0) {
+                    return new MavenVersion(new String(bytes, i + 1, offset + length - i - 1, UTF_8),
+                            Arrays.copyOfRange(bytes, offset, i));
+                }
+            }
+            throw new IllegalArgumentException("invalid encoded Maven version");
+        }
+    }
+
+    /**
+     * Given an arbitrary version string, returns the list of sorting tokens. Every token except the first starts with
+     * the separator ({@code .} or {@code -}) that precedes it; transitions between digits and letters are treated as
+     * hyphens, empty tokens become {@code 0} and the "a", "b" and "m" shorthands are expanded when followed directly
+     * by a number. Trailing null values are then removed at the end of the version and before each hyphen.
+     *
+     * @implNote This is a single pass state machine over the (lower cased) input, token boundaries are recorded as
+     *           offsets and strings are only created for the tokens that survive trimming.
+     */
+    static List<String> tokenize(CharSequence value) {
+        char[] c = toLowerCase(value);
+        int len = c.length;
 
-        tokens.addAll(Arrays.asList(value.toLowerCase(ENGLISH)
-                .replaceAll("(^|[\\.-])a(\\d+)([\\.-]|$)", "$1alpha-$2$3")
-                .replaceAll("(^|[\\.-])b(\\d+)([\\.-]|$)", "$1beta-$2$3")
-                .replaceAll("(^|[\\.-])m(\\d+)([\\.-]|$)", "$1milestone-$2$3")
-                .split("(?=[\\.-])|(?:(?<=\\d)(?=[a-zA-z]))|(?:(?<=[a-zA-Z])(?=\\d))")));
+        // Each token is a prefix (0 for none), a region of the input or a replacement for the region
+        int capacity = len + 2;
+        char[] prefix = new char[capacity];
+        int[] start = new int[capacity];
+        int[] end = new int[capacity];
+        String[] replacement = new String[capacity];
+        int count = 0;
 
-        tokens.subList(1, tokens.size()).replaceAll(s -> s.equals("-") || s.equals(".") ? s + "0" : !s.startsWith("-") && !s.startsWith(".") ? "-" + s : s);
+        // Walk the separator delimited segments
+        char expanded = 0;
+        int segmentStart = 0;
+        for (int i = 0; i <= len; ++i) {
+            if (i < len && !isSeparator(c[i])) {
+                continue;
+            }
 
-        ListIterator<String> t = tokens.listIterator(tokens.size());
-        while (t.hasPrevious() && t.previousIndex() > 0) {
-            String token = t.previous();
-            if (NULL_VALUES.contains(token.substring(1))) {
-                t.remove();
+            char separator = segmentStart > 0 ? c[segmentStart - 1] : 0;
+            char shorthand = shorthand(c, segmentStart, i);
+            if (shorthand != 0 && shorthand != expanded) {
+                // The shorthand expands to the qualifier followed by a hyphen and the number
+                prefix[count] = separator;
+                replacement[count] = shorthand == 'a' ? "alpha" : shorthand == 'b' ? "beta" : "milestone";
+                start[count] = end[count] = segmentStart;
+                count++;
+                prefix[count] = '-';
+                start[count] = segmentStart + 1;
+                end[count] = i;
+                count++;
+                expanded = shorthand;
             } else {
-                while (!token.startsWith("-") && t.hasPrevious() && t.previousIndex() > 0) {
-                    token = t.previous();
+                // A shorthand following an expanded shorthand of the same kind is not expanded
+                expanded = 0;
+                if (segmentStart == i) {
+                    // An empty leading segment does not produce a token unless the whole input is empty
+                    if (segmentStart > 0 || len == 0) {
+                        prefix[count] = separator;
+                        start[count] = end[count] = i;
+                        count++;
+                    }
+                } else {
+                    int tokenStart = segmentStart;
+                    prefix[count] = separator;
+                    for (int j = segmentStart + 1; j < i; ++j) {
+                        if (isTransition(c[j - 1], c[j])) {
+                            start[count] = tokenStart;
+                            end[count] = j;
+                            count++;
+                            prefix[count] = 0;
+                            tokenStart = j;
+                        }
+                    }
+                    start[count] = tokenStart;
+                    end[count] = i;
+                    count++;
                 }
             }
+            segmentStart = i + 1;
         }
 
-        tokens.trimToSize();
+        // Everything after the first token gets a separator and empty tokens are replaced with zero
+        for (int i = 1; i < count; ++i) {
+            if (prefix[i] == 0) {
+                prefix[i] = '-';
+            }
+        }
+
+        // Trim the null values from the end and before each remaining hyphen
+        boolean[] removed = new boolean[count];
+        int size = count;
+        for (int i = count - 1; i > 0;) {
+            if (replacement[i] == null && isNullValue(c, start[i], end[i])) {
+                removed[i--] = true;
+                size--;
+            } else {
+                while (prefix[i] != '-' && i > 1) {
+                    --i;
+                }
+                --i;
+            }
+        }
+
+        List<String> tokens = new ArrayList<>(size);
+        for (int i = 0; i < count; ++i) {
+            if (!removed[i]) {
+                tokens.add(token(c, prefix[i], start[i], end[i], replacement[i], i > 0));
+            }
+        }
         return tokens;
     }
 
     /**
-     * Compares individual tokens.
+     * Returns a lower case copy of the supplied characters. ASCII input is converted in place, anything else goes
+     * through the locale insensitive string conversion since it may change the length of the input.
+     */
+    private static char[] toLowerCase(CharSequence value) {
+        int len = value.length();
+        char[] result = new char[len];
+        for (int i = 0; i < len; ++i) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                return value.toString().toLowerCase(ENGLISH).toCharArray();
+            } else if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            result[i] = c;
+        }
+        return result;
+    }
+
+    /**
+     * If the segment is a single "a", "b" or "m" followed by digits, return that letter; otherwise return 0.
+     */
+    private static char shorthand(char[] c, int start, int end) {
+        if (end - start < 2 || (c[start] != 'a' && c[start] != 'b' && c[start] != 'm')) {
+            return 0;
+        }
+        for (int i = start + 1; i < end; ++i) {
+            if (!isDigit(c[i])) {
+                return 0;
+            }
+        }
+        return c[start];
+    }
+
+    /**
+     * Check for a digit to letter or letter to digit transition.
      */
-    private static int compareTokens(String token1, String token2) {
-        boolean dot1 = token1.startsWith(".");
-        boolean dot2 = token2.startsWith(".");
-        boolean dash1 = token1.startsWith("-");
-        boolean dash2 = token2.startsWith("-");
-        boolean number1 = token1.matches("^[\\.-]?\\d+");
-        boolean number2 = token2.matches("^[\\.-]?\\d+");
-        if ((dot1 == dot2) && (dash1 == dash2)) {
-            token1 = dot1 || dash1 ? token1.substring(1) : token1;
-            token2 = dot2 || dash2 ? token2.substring(1) : token2;
-            if (number1 && number2) {
-                return Long.valueOf(token1).compareTo(Long.valueOf(token2));
-            } else if (number1 || number2) {
-                return number1 ? 1 : -1;
+    private static boolean isTransition(char c1, char c2) {
+        // Note that the digit to letter transition includes the ASCII characters between 'Z' and 'a'
+        return (isDigit(c1) && c2 >= 'A' && c2 <= 'z') || (isDigit(c2) && ((c1 >= 'a' && c1 <= 'z') || (c1 >= 'A' && c1 <= 'Z')));
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '.' || c == '-';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Check to see if the region is one of the {@linkplain #NULL_VALUES null values}.
+     */
+    private static boolean isNullValue(char[] c, int start, int end) {
+        for (String nullValue : NULL_VALUES) {
+            if (regionEquals(c, start, end, nullValue)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionEquals(char[] c, int start, int end, String value) {
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = start; i < end; ++i) {
+            if (c[i] != value.charAt(i - start)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String token(char[] c, char prefix, int start, int end, String replacement, boolean normalize) {
+        int len = replacement != null ? replacement.length() : end - start;
+        if (normalize && len == 0) {
+            return prefix + "0";
+        }
+        char[] result = new char[prefix != 0 ? len + 1 : len];
+        int offset = 0;
+        if (prefix != 0) {
+            result[offset++] = prefix;
+        }
+        if (replacement != null) {
+            replacement.getChars(0, len, result, offset);
+        } else {
+            System.arraycopy(c, start, result, offset, len);
+        }
+        return new String(result);
+    }
+
+    /**
+     * Encodes a list of sorting tokens into a binary sort key.
+     * <p>
+     * Each token is encoded as a class byte ({@code .qualifier < -qualifier < -number < .number}, the first token is
+     * treated as if it were prefixed by a hyphen) followed by either a qualifier rank or a length prefixed number.
+     * Unknown qualifiers are ranked lowest and are followed by their characters. The end of the key is encoded as the
+     * padding used when one version has more tokens than another: it falls between the "snapshot" and "sp" qualifiers
+     * and below any number. Tokens that are equivalent to padding ({@code .0} and the release qualifiers) take their
+     * rank from the first token after them that is not, that way comparing against padding behaves as if the
+     * comparison continued into the remaining tokens.
+     *
+     * @implNote A literal reading of the padding rules is not transitive (e.g. "1.0.sp" &lt; "1" &lt; "1-ga.1" &lt;
+     *           "1.0.sp"); an encoding cannot reproduce that. Here ".0" runs followed by a qualifier sort just below
+     *           the padding, so "1.0.beta1" &lt; "1" still holds but "1.0.beta1" also sorts before "1-1" and "1-sp".
+     *           The encoding never contains a zero byte.
+     */
+    private static byte[] encodeSortKey(List<String> tokens) {
+        int size = tokens.size();
+
+        // Compute the comparison of each token suffix against padding, working backwards
+        int[] paddingOrder = new int[size + 1];
+        for (int i = size - 1; i >= 0; --i) {
+            String token = tokens.get(i);
+            boolean dot = token.startsWith(".");
+            int textStart = dot || token.startsWith("-") ? 1 : 0;
+            if (isNumber(token, textStart)) {
+                paddingOrder[i] = dot && isZero(token, textStart) ? paddingOrder[i + 1] : 1;
+            } else if (dot) {
+                paddingOrder[i] = -1;
+            } else {
+                int qualifier = qualifierOrder(token, textStart);
+                paddingOrder[i] = qualifier < 6 ? -1 : qualifier > 6 ? 1 : paddingOrder[i + 1];
+            }
+        }
+
+        ByteArrayOutputStream key = new ByteArrayOutputStream(size * 4 + 2);
+        for (int i = 0; i < size; ++i) {
+            String token = tokens.get(i);
+            boolean dot = token.startsWith(".");
+            int textStart = dot || token.startsWith("-") ? 1 : 0;
+            if (isNumber(token, textStart)) {
+                if (dot && i > 0 && isZero(token, textStart) && paddingOrder[i + 1] < 0) {
+                    key.write(DASH_QUALIFIER);
+                    key.write(ZERO_BEFORE_PADDING);
+                } else {
+                    key.write(dot ? DOT_NUMBER : DASH_NUMBER);
+                    encodeNumber(key, token, textStart);
+                }
             } else {
-                int qualifier1 = QUALIFIER_ORDER.getOrDefault(token1, 0).intValue();
-                int qualifier2 = QUALIFIER_ORDER.getOrDefault(token2, 0).intValue();
-                return qualifier1 == 0 && qualifier2 == 0 ? token1.compareTo(token2)
-                        : Integer.compare(qualifier1, qualifier2);
+                key.write(dot ? DOT_QUALIFIER : DASH_QUALIFIER);
+                int qualifier = qualifierOrder(token, textStart);
+                if (qualifier == 0) {
+                    key.write(UNKNOWN);
+                    encodeQualifier(key, token, textStart);
+                } else if (qualifier < 6) {
+                    key.write(UNKNOWN + qualifier);
+                } else if (qualifier > 6) {
+                    key.write(SERVICE_PACK);
+                } else if (dot) {
+                    key.write(PADDING);
+                } else {
+                    int next = paddingOrder[i + 1];
+                    key.write(next < 0 ? RELEASE_BEFORE_PADDING : next > 0 ? RELEASE_AFTER_PADDING : PADDING);
+                }
+            }
+        }
+        key.write(DASH_QUALIFIER);
+        key.write(PADDING);
+        return key.toByteArray();
+    }
+
+    private static boolean isNumber(String token, int start) {
+        int len = token.length();
+        if (start == len) {
+            return false;
+        }
+        for (int i = start; i < len; ++i) {
+            if (!isDigit(token.charAt(i))) {
+                return false;
             }
+        }
+        return true;
+    }
+
+    private static boolean isZero(String token, int start) {
+        for (int i = start; i < token.length(); ++i) {
+            if (token.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int qualifierOrder(String token, int start) {
+        return QUALIFIER_ORDER.getOrDefault(token.substring(start), 0).intValue();
+    }
+
+    /**
+     * Encodes the number as the count of significant digits followed by the digits themselves.
+     */
+    private static void encodeNumber(ByteArrayOutputStream key, String token, int start) {
+        int len = token.length();
+        while (start < len && token.charAt(start) == '0') {
+            start++;
+        }
+        int digits = len - start;
+        if (digits < 0xFE) {
+            key.write(digits + 1);
         } else {
-            return dot1 ? (number1 ? 1 : -1) : (number2 ? -1 : 1);
+            // Absurdly long numbers use a fixed width length with the high bit set on every byte
+            key.write(0xFF);
+            for (int shift = 21; shift >= 0; shift -= 7) {
+                key.write(0x80 | ((digits >>> shift) & 0x7F));
+            }
+        }
+        for (int i = start; i < len; ++i) {
+            key.write(token.charAt(i));
+        }
+    }
+
+    /**
+     * Encodes the characters of the qualifier such that the byte order matches {@code String.compareTo}. Each UTF-16
+     * code unit is offset by two (keeping the terminator and zero unused) and written using the UTF-8 byte layout.
+     */
+    private static void encodeQualifier(ByteArrayOutputStream key, String token, int start) {
+        for (int i = start; i < token.length(); ++i) {
+            int c = token.charAt(i) + 2;
+            if (c < 0x80) {
+                key.write(c);
+            } else if (c < 0x800) {
+                key.write(0xC0 | (c >>> 6));
+                key.write(0x80 | (c & 0x3F));
+            } else if (c < 0x10000) {
+                key.write(0xE0 | (c >>> 12));
+                key.write(0x80 | ((c >>> 6) & 0x3F));
+                key.write(0x80 | (c & 0x3F));
+            } else {
+                key.write(0xF0 | (c >>> 18));
+                key.write(0x80 | ((c >>> 12) & 0x3F));
+                key.write(0x80 | ((c >>> 6) & 0x3F));
+                key.write(0x80 | (c & 0x3F));
+            }
         }
+        key.write(END_OF_QUALIFIER);
     }
 
 }
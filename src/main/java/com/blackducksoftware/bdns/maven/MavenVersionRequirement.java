@@ -16,17 +16,26 @@
 package com.blackducksoftware.bdns.maven;
 
 import static java.util.Collections.unmodifiableList;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsFirst;
 import static java.util.stream.Collectors.joining;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.blackducksoftware.bdns.ParseResult;
 import com.blackducksoftware.bdns.Version;
 import com.blackducksoftware.bdns.VersionRange;
 
@@ -43,6 +52,28 @@ public class MavenVersionRequirement implements VersionRange {
 
     private static Pattern RANGE_PATTERN = Pattern.compile("(\\(|\\[)(.*),(.*)(\\)|\\])");
 
+    /**
+     * Receives the decomposition of a requirement into exact versions and intervals of the version order.
+     */
+    interface Visitor {
+        /**
+         * Visits a version that must be matched exactly (using {@code equals}).
+         */
+        void exact(MavenVersion version);
+
+        /**
+         * Visits an interval of the version order, a {@code null} bound is unbounded.
+         */
+        void interval(MavenVersion lower, boolean openLower, MavenVersion upper, boolean openUpper);
+
+        /**
+         * Visits a soft requirement, by default this is treated as the closed interval of the single version.
+         */
+        default void soft(MavenVersion version) {
+            interval(version, false, version, false);
+        }
+    }
+
     private static class Empty implements Predicate<MavenVersion> {
         private static final Empty INSTANCE = new Empty();
 
@@ -142,14 +173,69 @@ public class MavenVersionRequirement implements VersionRange {
         private final boolean openUpper;
 
         private Range(MavenVersion lower, boolean openLower, MavenVersion upper, boolean openUpper) {
-            if (lower == null && upper == null) {
-                throw new IllegalArgumentException("both versions in range cannot be null");
-            }
-            // TODO Also disallow null/false combo?
+            // A range with neither bound matches every version and is always written as "(,)"
+            boolean unbounded = lower == null && upper == null;
             this.lower = Optional.ofNullable(lower);
-            this.openLower = openLower;
+            this.openLower = openLower || unbounded;
             this.upper = Optional.ofNullable(upper);
-            this.openUpper = openUpper;
+            this.openUpper = openUpper || unbounded;
+        }
+
+        /**
+         * Check to see if no version can satisfy this range.
+         */
+        private boolean isEmpty() {
+            if (lower.isPresent() && upper.isPresent()) {
+                int c = lower.get().compareTo(upper.get());
+                return c > 0 || (c == 0 && (openLower || openUpper));
+            }
+            return false;
+        }
+
+        /**
+         * Check to see if the supplied range, which does not start before this one, overlaps or is adjacent to this
+         * range.
+         */
+        private boolean isConnected(Range other) {
+            if (!upper.isPresent() || !other.lower.isPresent()) {
+                return true;
+            }
+            int c = upper.get().compareTo(other.lower.get());
+            return c > 0 || (c == 0 && !(openUpper && other.openLower));
+        }
+
+        /**
+         * Check to see if the supplied version is not before the lower bound of this range.
+         */
+        private boolean startsAtOrBefore(MavenVersion version) {
+            if (!lower.isPresent()) {
+                return true;
+            }
+            int c = lower.get().compareTo(version);
+            return c < 0 || (c == 0 && !openLower);
+        }
+
+        private static int compareLower(Range r1, Range r2) {
+            if (!r1.lower.isPresent() || !r2.lower.isPresent()) {
+                return Boolean.compare(r1.lower.isPresent(), r2.lower.isPresent());
+            }
+            int c = r1.lower.get().compareTo(r2.lower.get());
+            return c != 0 ? c : Boolean.compare(r1.openLower, r2.openLower);
+        }
+
+        private static int compareUpper(Range r1, Range r2) {
+            if (!r1.upper.isPresent() || !r2.upper.isPresent()) {
+                return Boolean.compare(r2.upper.isPresent(), r1.upper.isPresent());
+            }
+            int c = r1.upper.get().compareTo(r2.upper.get());
+            return c != 0 ? c : Boolean.compare(r2.openUpper, r1.openUpper);
+        }
+
+        /**
+         * Returns the range between the supplied lower and upper bounds.
+         */
+        private static Range between(Range lower, Range upper) {
+            return new Range(lower.lower.orElse(null), lower.openLower, upper.upper.orElse(null), upper.openUpper);
         }
 
         @Override
@@ -201,13 +287,57 @@ public class MavenVersionRequirement implements VersionRange {
     private static class Multiple implements Predicate<MavenVersion> {
         private final List<Predicate<MavenVersion>> set;
 
+        /**
+         * The ranges of the set ordered by their lower bounds, {@code null} unless the set is canonical (only disjoint
+         * ranges and exact versions) and can be searched.
+         */
+        private final Range[] ranges;
+
+        private final Set<MavenVersion> exact;
+
         private Multiple(List<Predicate<MavenVersion>> set) {
             this.set = unmodifiableList(new ArrayList<>(set));
+
+            List<Range> ranges = new ArrayList<>();
+            Set<MavenVersion> exact = new HashSet<>();
+            boolean searchable = true;
+            for (Predicate<MavenVersion> predicate : set) {
+                if (predicate instanceof Range) {
+                    ranges.add((Range) predicate);
+                } else if (predicate instanceof HardRequirement) {
+                    exact.add(((HardRequirement) predicate).version);
+                } else {
+                    searchable = false;
+                }
+            }
+            ranges.sort(Range::compareLower);
+            for (int i = 1; searchable && i < ranges.size(); ++i) {
+                searchable = !ranges.get(i - 1).isConnected(ranges.get(i));
+            }
+            this.ranges = searchable ? ranges.toArray(new Range[0]) : null;
+            this.exact = exact;
         }
 
         @Override
         public boolean test(MavenVersion t) {
-            return set.stream().map(p -> p.test(t)).filter(Boolean::booleanValue).findFirst().isPresent();
+            if (ranges == null) {
+                return set.stream().anyMatch(p -> p.test(t));
+            } else if (exact.contains(t)) {
+                return true;
+            }
+
+            // The disjoint ranges are sorted, only the last one starting at or before the version can contain it
+            int low = 0;
+            int high = ranges.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ranges[mid].startsAtOrBefore(t)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low > 0 && ranges[low - 1].test(t);
         }
 
         @Override
@@ -232,7 +362,7 @@ public class MavenVersionRequirement implements VersionRange {
     private final Predicate<MavenVersion> predicate;
 
     private MavenVersionRequirement(Builder builder) {
-        this.predicate = Objects.requireNonNull(builder.predicate);
+        this.predicate = canonicalize(Objects.requireNonNull(builder.predicate));
     }
 
     @Override
@@ -240,6 +370,304 @@ public class MavenVersionRequirement implements VersionRange {
         return version instanceof MavenVersion ? predicate.test((MavenVersion) version) : false;
     }
 
+    /**
+     * Decomposes this requirement for the supplied visitor.
+     */
+    void accept(Visitor visitor) {
+        accept(predicate, visitor);
+    }
+
+    private static void accept(Predicate<MavenVersion> predicate, Visitor visitor) {
+        if (predicate instanceof SoftRequirement) {
+            visitor.soft(((SoftRequirement) predicate).version);
+        } else if (predicate instanceof HardRequirement) {
+            visitor.exact(((HardRequirement) predicate).version);
+        } else if (predicate instanceof Range) {
+            Range range = (Range) predicate;
+            visitor.interval(range.lower.orElse(null), range.openLower, range.upper.orElse(null), range.openUpper);
+        } else if (predicate instanceof Multiple) {
+            ((Multiple) predicate).set.forEach(p -> accept(p, visitor));
+        }
+    }
+
+    /**
+     * Check to see if no version can satisfy this requirement.
+     */
+    public boolean isEmpty() {
+        return predicate instanceof Empty;
+    }
+
+    /**
+     * Returns a requirement satisfied only by versions which satisfy both this and the supplied requirement.
+     */
+    public MavenVersionRequirement intersect(MavenVersionRequirement other) {
+        Predicate<MavenVersion> a = predicate;
+        Predicate<MavenVersion> b = other.predicate;
+        if (a instanceof Empty || contains(b, a)) {
+            return this;
+        } else if (b instanceof Empty || contains(a, b)) {
+            return other;
+        }
+
+        // Intersect the ordered, disjoint ranges pairwise and keep the exact versions matched by the other side
+        List<Range> aRanges = new ArrayList<>();
+        List<Range> bRanges = new ArrayList<>();
+        List<MavenVersion> exact = new ArrayList<>();
+        decompose(a, aRanges, exact);
+        exact.removeIf(v -> !b.test(v));
+        int exactCount = exact.size();
+        decompose(b, bRanges, exact);
+        exact.subList(exactCount, exact.size()).removeIf(v -> !a.test(v));
+
+        List<Range> ranges = new ArrayList<>();
+        for (int i = 0, j = 0; i < aRanges.size() && j < bRanges.size();) {
+            Range ar = aRanges.get(i);
+            Range br = bRanges.get(j);
+            Range range = Range.between(Range.compareLower(ar, br) < 0 ? br : ar,
+                    Range.compareUpper(ar, br) < 0 ? ar : br);
+            if (!range.isEmpty()) {
+                ranges.add(range);
+            }
+            if (Range.compareUpper(ar, br) < 0) {
+                ++i;
+            } else {
+                ++j;
+            }
+        }
+        return of(canonicalize(ranges, exact));
+    }
+
+    /**
+     * Returns a requirement satisfied by versions which satisfy either this or the supplied requirement.
+     */
+    public MavenVersionRequirement union(MavenVersionRequirement other) {
+        Predicate<MavenVersion> a = predicate;
+        Predicate<MavenVersion> b = other.predicate;
+        if (a instanceof Empty || contains(b, a)) {
+            return other;
+        } else if (b instanceof Empty || contains(a, b)) {
+            return this;
+        }
+
+        // A soft requirement is only a recommendation on its own, in a set it is just another range
+        List<Range> ranges = new ArrayList<>();
+        List<MavenVersion> exact = new ArrayList<>();
+        decompose(a, ranges, exact);
+        decompose(b, ranges, exact);
+        return of(canonicalize(ranges, exact));
+    }
+
+    private static MavenVersionRequirement of(Predicate<MavenVersion> predicate) {
+        Builder builder = new Builder();
+        builder.predicate = predicate;
+        return builder.build();
+    }
+
+    /**
+     * Check to see if the supplied container matches everything matched by a single soft or hard requirement.
+     */
+    private static boolean contains(Predicate<MavenVersion> container, Predicate<MavenVersion> single) {
+        if (single instanceof HardRequirement) {
+            return container.test(((HardRequirement) single).version);
+        } else if (single instanceof SoftRequirement) {
+            // Every version comparing equal must match, exact versions in the container do not count
+            MavenVersion version = ((SoftRequirement) single).version;
+            if (container instanceof Multiple) {
+                return ((Multiple) container).set.stream().anyMatch(p -> p instanceof Range && p.test(version));
+            }
+            return (container instanceof SoftRequirement || container instanceof Range) && container.test(version);
+        }
+        return false;
+    }
+
+    private static void decompose(Predicate<MavenVersion> predicate, List<Range> ranges, List<MavenVersion> exact) {
+        accept(predicate, new Visitor() {
+            @Override
+            public void exact(MavenVersion version) {
+                exact.add(version);
+            }
+
+            @Override
+            public void interval(MavenVersion lower, boolean openLower, MavenVersion upper, boolean openUpper) {
+                ranges.add(new Range(lower, openLower, upper, openUpper));
+            }
+        });
+    }
+
+    /**
+     * Returns the canonical form of a predicate: sets of ranges are sorted with overlapping or adjacent ranges merged
+     * and empty ranges removed.
+     */
+    private static Predicate<MavenVersion> canonicalize(Predicate<MavenVersion> predicate) {
+        if (predicate instanceof Range || predicate instanceof Multiple) {
+            List<Range> ranges = new ArrayList<>();
+            List<MavenVersion> exact = new ArrayList<>();
+            decompose(predicate, ranges, exact);
+            return canonicalize(ranges, exact);
+        }
+        return predicate;
+    }
+
+    private static Predicate<MavenVersion> canonicalize(List<Range> ranges, List<MavenVersion> exact) {
+        ranges.removeIf(Range::isEmpty);
+        ranges.sort(Range::compareLower);
+        List<Predicate<MavenVersion>> set = new ArrayList<>();
+        for (int i = 0; i < ranges.size();) {
+            Range first = ranges.get(i);
+            Range last = first;
+            for (++i; i < ranges.size() && last.isConnected(ranges.get(i)); ++i) {
+                if (Range.compareUpper(last, ranges.get(i)) < 0) {
+                    last = ranges.get(i);
+                }
+            }
+            set.add(first == last ? first : Range.between(first, last));
+        }
+
+        // Exact versions are only needed when they are not already in a range
+        int rangeCount = set.size();
+        exact.stream()
+                .distinct()
+                .filter(v -> set.subList(0, rangeCount).stream().noneMatch(r -> r.test(v)))
+                .map(HardRequirement::new)
+                .forEach(set::add);
+        if (set.isEmpty()) {
+            return Empty.INSTANCE;
+        } else if (set.size() == 1) {
+            return set.get(0);
+        } else {
+            set.sort(Comparator.comparing(MavenVersionRequirement::start, nullsFirst(naturalOrder())));
+            return new Multiple(set);
+        }
+    }
+
+    private static MavenVersion start(Predicate<MavenVersion> predicate) {
+        return predicate instanceof Range ? ((Range) predicate).lower.orElse(null)
+                : ((HardRequirement) predicate).version;
+    }
+
+    /**
+     * Returns the spans of the supplied versions which satisfy this requirement. The versions must be sorted in
+     * ascending order, the result is a sequence of {@code [from, to)} index pairs in ascending order. Each bound of the
+     * requirement costs a single binary search, regardless of the number of matching versions.
+     */
+    public int[] spans(List<MavenVersion> sortedVersions) {
+        List<MavenVersion> versions = sortedVersions instanceof RandomAccess ? sortedVersions
+                : new ArrayList<>(sortedVersions);
+        List<int[]> spans = new ArrayList<>();
+        accept(new Visitor() {
+            @Override
+            public void exact(MavenVersion version) {
+                // Versions that compare equal form a run, only those which are actually equal match
+                int to = upperBound(versions, version);
+                for (int i = lowerBound(versions, version); i < to; ++i) {
+                    if (versions.get(i).equals(version)) {
+                        spans.add(new int[] { i, i + 1 });
+                    }
+                }
+            }
+
+            @Override
+            public void interval(MavenVersion lower, boolean openLower, MavenVersion upper, boolean openUpper) {
+                int from = lower == null ? 0 : openLower ? upperBound(versions, lower) : lowerBound(versions, lower);
+                int to = upper == null ? versions.size()
+                        : openUpper ? lowerBound(versions, upper) : upperBound(versions, upper);
+                if (from < to) {
+                    spans.add(new int[] { from, to });
+                }
+            }
+        });
+
+        // Ranges in a set are not necessarily ordered or disjoint
+        return mergeSpans(spans);
+    }
+
+    /**
+     * Sorts and merges overlapping or adjacent {@code [from, to)} pairs into a flat array.
+     */
+    static int[] mergeSpans(List<int[]> spans) {
+        spans.sort((s1, s2) -> Integer.compare(s1[0], s2[0]));
+        int[] result = new int[spans.size() * 2];
+        int length = 0;
+        for (int[] span : spans) {
+            if (length > 0 && span[0] <= result[length - 1]) {
+                result[length - 1] = Math.max(result[length - 1], span[1]);
+            } else {
+                result[length++] = span[0];
+                result[length++] = span[1];
+            }
+        }
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    /**
+     * Returns the spans of the supplied versions which satisfy this requirement.
+     *
+     * @see #spans(List)
+     */
+    public int[] spans(MavenVersion... sortedVersions) {
+        return spans(Arrays.asList(sortedVersions));
+    }
+
+    /**
+     * Returns the supplied versions which satisfy this requirement. The versions must be sorted in ascending order.
+     * The result is always a new mutable list, it does not share any state with the supplied list.
+     */
+    public List<MavenVersion> filter(List<MavenVersion> sortedVersions) {
+        int[] spans = spans(sortedVersions);
+        int size = 0;
+        for (int i = 0; i < spans.length; i += 2) {
+            size += spans[i + 1] - spans[i];
+        }
+        List<MavenVersion> result = new ArrayList<>(size);
+        for (int i = 0; i < spans.length; i += 2) {
+            result.addAll(sortedVersions.subList(spans[i], spans[i + 1]));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the highest of the supplied versions which satisfies this requirement. The versions must be sorted in
+     * ascending order.
+     */
+    public Optional<MavenVersion> highest(List<MavenVersion> sortedVersions) {
+        int[] spans = spans(sortedVersions);
+        return spans.length > 0 ? Optional.of(sortedVersions.get(spans[spans.length - 1] - 1)) : Optional.empty();
+    }
+
+    /**
+     * Returns the index of the first version not less than the supplied version.
+     */
+    private static int lowerBound(List<MavenVersion> versions, MavenVersion version) {
+        int low = 0;
+        int high = versions.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (versions.get(mid).compareTo(version) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first version greater than the supplied version.
+     */
+    private static int upperBound(List<MavenVersion> versions, MavenVersion version) {
+        int low = 0;
+        int high = versions.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (versions.get(mid).compareTo(version) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     @Override
     public String toString() {
         return predicate.toString();
@@ -263,6 +691,28 @@ public class MavenVersionRequirement implements VersionRange {
     }
 
     public static MavenVersionRequirement parse(CharSequence value) {
+        return tryParse(value).getValue()
+                .orElseThrow(() -> new IllegalArgumentException("invalid range: " + value));
+    }
+
+    /**
+     * Parses the remaining UTF-8 encoded bytes of the supplied buffer without modifying its position.
+     */
+    public static MavenVersionRequirement parse(ByteBuffer value) {
+        return parse(Utf8.decode(value));
+    }
+
+    /**
+     * Parses the UTF-8 encoded bytes in the supplied range of the array without modifying the array.
+     */
+    public static MavenVersionRequirement parse(byte[] value, int offset, int length) {
+        return parse(ByteBuffer.wrap(value, offset, length));
+    }
+
+    /**
+     * Parses a version requirement without throwing exceptions for invalid input.
+     */
+    public static ParseResult<MavenVersionRequirement> tryParse(CharSequence value) {
         Builder builder = new Builder();
         String[] ranges = RANGE_SET_PATTERN.split(value);
         if (ranges.length == 1) {
@@ -272,28 +722,54 @@ public class MavenVersionRequirement implements VersionRange {
             } else if (!range.startsWith("(") && !range.startsWith("[") && !range.endsWith(")") && !range.endsWith("]")) {
                 builder.softRequirement(MavenVersion.valueOf(range));
             } else if (range.indexOf(',') < 0) {
+                if (range.length() <= 2 || !range.startsWith("[") || !range.endsWith("]")) {
+                    return ParseResult.failure(ParseResult.ErrorKind.INVALID, 0);
+                }
                 builder.hardRequirement(MavenVersion.parse(range.subSequence(1, range.length() - 1)));
             } else {
-                applyRange(builder, range);
+                ParseResult.ErrorKind error = applyRange(builder, range);
+                if (error != ParseResult.ErrorKind.NONE) {
+                    return ParseResult.failure(error, 0);
+                }
             }
         } else {
+            int offset = 0;
             for (String range : ranges) {
-                applyRange(builder, range);
+                ParseResult.ErrorKind error = applyRange(builder, range);
+                if (error != ParseResult.ErrorKind.NONE) {
+                    return ParseResult.failure(error, offset);
+                }
+                offset += range.length() + 1;
             }
         }
-        return builder.build();
+        return ParseResult.success(builder.build());
     }
 
-    private static void applyRange(Builder builder, CharSequence input) {
+    /**
+     * Parses the remaining UTF-8 encoded bytes of the supplied buffer without throwing exceptions for invalid input.
+     */
+    public static ParseResult<MavenVersionRequirement> tryParse(ByteBuffer value) {
+        return tryParse(Utf8.decode(value));
+    }
+
+    private static ParseResult.ErrorKind applyRange(Builder builder, String input) {
         Matcher m = RANGE_PATTERN.matcher(input);
         if (m.matches()) {
             String lower = m.group(2);
             String upper = m.group(3);
+            if (lower.isEmpty() && upper.isEmpty() && !(m.group(1).equals("(") && m.group(4).equals(")"))) {
+                // Only the open form "(,)" may omit both versions
+                return ParseResult.ErrorKind.EMPTY_COMPONENT;
+            }
             builder.range(lower.isEmpty() ? null : MavenVersion.valueOf(lower), m.group(1).equals("("),
                     upper.isEmpty() ? null : MavenVersion.valueOf(upper), m.group(4).equals(")"));
+        } else if (input.length() > 2 && input.charAt(0) == '[' && input.charAt(input.length() - 1) == ']') {
+            // An exact version in a set, e.g. "[1.0],[1.2,)"
+            builder.exact(MavenVersion.parse(input.subSequence(1, input.length() - 1)));
         } else {
-            throw new IllegalArgumentException("invalid range: " + input);
+            return ParseResult.ErrorKind.INVALID;
         }
+        return ParseResult.ErrorKind.NONE;
     }
 
     public static final class Builder {
@@ -320,11 +796,33 @@ public class MavenVersionRequirement implements VersionRange {
         }
 
         public Builder range(MavenVersion lower, boolean openLower, MavenVersion upper, boolean openUpper) {
-            Range range = new Range(lower, openLower, upper, openUpper);
+            if (lower == null && upper == null && !(openLower && openUpper)) {
+                throw new IllegalArgumentException("a range without versions must be open: (,)");
+            }
+            // TODO Also disallow null/false combo?
+            return append(new Range(lower, openLower, upper, openUpper));
+        }
+
+        /**
+         * Appends a version that must be matched exactly to the set of ranges.
+         */
+        Builder exact(MavenVersion version) {
+            return append(new HardRequirement(version));
+        }
+
+        /**
+         * Appends an interval to the set of ranges without validation, either or both of the bounds may be null.
+         */
+        Builder interval(MavenVersion lower, boolean openLower, MavenVersion upper, boolean openUpper) {
+            return append(new Range(lower, openLower, upper, openUpper));
+        }
+
+        private Builder append(Predicate<MavenVersion> range) {
             if (predicate instanceof Empty) {
                 predicate = range;
-            } else if (predicate instanceof Range || predicate instanceof Multiple) {
-                List<Predicate<MavenVersion>> set = new ArrayList<>(predicate instanceof Multiple ? ((Multiple) predicate).set : Collections.emptySet());
+            } else if (predicate instanceof Range || predicate instanceof HardRequirement
+                    || predicate instanceof Multiple) {
+                List<Predicate<MavenVersion>> set = new ArrayList<>(predicate instanceof Multiple ? ((Multiple) predicate).set : Collections.singleton(predicate));
                 set.add(range);
                 predicate = new Multiple(set);
             } else {
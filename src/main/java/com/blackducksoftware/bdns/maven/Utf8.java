@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Helpers for reading UTF-8 encoded text directly out of byte buffers. All of the structural characters used by the
+ * Maven syntax are ASCII, and in UTF-8 the bytes of a multi-byte sequence are never ASCII, so input can be scanned
+ * byte-by-byte and only the fields that are kept need to be decoded.
+ *
+ * @author jgustie
+ */
+final class Utf8 {
+
+    /**
+     * Decodes the bytes between the supplied absolute indexes without modifying the buffer's position or limit.
+     */
+    public static String decode(ByteBuffer buffer, int start, int end) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, end - start, UTF_8);
+        } else {
+            // Direct and memory mapped buffers do not expose an array
+            byte[] bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; ++i) {
+                bytes[i] = buffer.get(start + i);
+            }
+            return new String(bytes, UTF_8);
+        }
+    }
+
+    /**
+     * Decodes the remaining bytes of the buffer without modifying its position.
+     */
+    public static String decode(ByteBuffer buffer) {
+        return decode(buffer, buffer.position(), buffer.limit());
+    }
+
+    private Utf8() {
+    }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import com.blackducksoftware.bdns.VersionCodec;
+
+/**
+ * The known versions of a single artifact, each assigned a dense ordinal in version order. Versions that compare as
+ * equal (e.g. "1.0" and "1.0.0") share an ordinal, so once a catalog is built comparing versions or testing version
+ * requirements only requires comparing integers.
+ * <p>
+ * Catalogs are immutable. Adding versions produces a new catalog by merging the new versions into the existing order;
+ * ordinals are preserved when every new version is higher than the existing versions, otherwise the ordinals of
+ * existing versions above the insertion point shift.
+ *
+ * @author jgustie
+ */
+public final class VersionCatalog {
+
+    private static final VersionCatalog EMPTY = new VersionCatalog(new MavenVersion[0]);
+
+    /**
+     * Returns a catalog of the supplied versions.
+     */
+    public static VersionCatalog of(Collection<MavenVersion> versions) {
+        return EMPTY.withVersions(versions);
+    }
+
+    /**
+     * The first version encountered for each ordinal.
+     */
+    private final MavenVersion[] versions;
+
+    private VersionCatalog(MavenVersion[] versions) {
+        this.versions = versions;
+    }
+
+    /**
+     * Returns the number of distinct ordinals.
+     */
+    public int size() {
+        return versions.length;
+    }
+
+    /**
+     * Returns the ordinal of the supplied version, or {@code -1} if no version in this catalog compares as equal.
+     */
+    public int ordinal(MavenVersion version) {
+        int index = lowerBound(version.sortKeyBytes());
+        return index < versions.length && compare(index, version.sortKeyBytes()) == 0 ? index : -1;
+    }
+
+    /**
+     * Returns the lowest ordinal of the versions that are newer than the supplied version, or {@link #size()} if there
+     * are none. The supplied version does not need to be in the catalog.
+     */
+    public int higherOrdinal(MavenVersion version) {
+        return upperBound(version.sortKeyBytes());
+    }
+
+    /**
+     * Returns a version with the supplied ordinal.
+     *
+     * @throws IndexOutOfBoundsException
+     *             if the ordinal is not in this catalog
+     */
+    public MavenVersion version(int ordinal) {
+        return versions[ordinal];
+    }
+
+    /**
+     * Returns the ordinals which satisfy the supplied requirement as a sequence of {@code [from, to)} pairs in
+     * ascending order. Matching is by ordinal: a hard requirement on "1.0" matches the ordinal shared by "1.0" and
+     * "1.0.0".
+     */
+    public int[] spans(MavenVersionRequirement requirement) {
+        List<int[]> spans = new ArrayList<>();
+        requirement.accept(new MavenVersionRequirement.Visitor() {
+            @Override
+            public void exact(MavenVersion version) {
+                int ordinal = ordinal(version);
+                if (ordinal >= 0) {
+                    spans.add(new int[] { ordinal, ordinal + 1 });
+                }
+            }
+
+            @Override
+            public void interval(MavenVersion lower, boolean openLower, MavenVersion upper, boolean openUpper) {
+                int from = lower == null ? 0
+                        : openLower ? upperBound(lower.sortKeyBytes()) : lowerBound(lower.sortKeyBytes());
+                int to = upper == null ? versions.length
+                        : openUpper ? lowerBound(upper.sortKeyBytes()) : upperBound(upper.sortKeyBytes());
+                if (from < to) {
+                    spans.add(new int[] { from, to });
+                }
+            }
+        });
+
+        return MavenVersionRequirement.mergeSpans(spans);
+    }
+
+    /**
+     * Returns a predicate testing ordinals of this catalog against the supplied requirement.
+     *
+     * @see #spans(MavenVersionRequirement)
+     */
+    public IntPredicate matcher(MavenVersionRequirement requirement) {
+        int[] spans = spans(requirement);
+        if (spans.length == 0) {
+            return ordinal -> false;
+        } else if (spans.length == 2) {
+            int from = spans[0];
+            int to = spans[1];
+            return ordinal -> ordinal >= from && ordinal < to;
+        } else {
+            return ordinal -> {
+                // An even insertion point falls between spans, an odd one falls inside a span
+                int index = Arrays.binarySearch(spans, ordinal);
+                return index >= 0 ? (index & 1) == 0 : ((-index - 1) & 1) == 1;
+            };
+        }
+    }
+
+    /**
+     * Returns a catalog which also includes the supplied versions. Only the new versions are sorted, they are then
+     * merged with the existing order in linear time.
+     */
+    public VersionCatalog withVersions(Collection<MavenVersion> newVersions) {
+        MavenVersion[] additions = newVersions.toArray(new MavenVersion[0]);
+        Arrays.sort(additions);
+
+        MavenVersion[] result = new MavenVersion[versions.length + additions.length];
+        int length = 0;
+        int i = 0;
+        int j = 0;
+        while (i < versions.length || j < additions.length) {
+            MavenVersion next;
+            if (j == additions.length
+                    || (i < versions.length && VersionCodec.compare(versions[i].sortKeyBytes(),
+                            additions[j].sortKeyBytes()) <= 0)) {
+                next = versions[i++];
+            } else {
+                next = additions[j++];
+            }
+            // Existing versions sort first, so they remain the representative of their ordinal
+            if (length == 0 || VersionCodec.compare(result[length - 1].sortKeyBytes(), next.sortKeyBytes()) != 0) {
+                result[length++] = next;
+            }
+        }
+        if (length == versions.length) {
+            return this;
+        }
+        return new VersionCatalog(length == result.length ? result : Arrays.copyOf(result, length));
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(versions);
+    }
+
+    private int compare(int ordinal, byte[] sortKey) {
+        return VersionCodec.compare(versions[ordinal].sortKeyBytes(), sortKey);
+    }
+
+    /**
+     * Returns the first ordinal not less than the supplied sort key.
+     */
+    private int lowerBound(byte[] sortKey) {
+        int low = 0;
+        int high = versions.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid, sortKey) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the first ordinal greater than the supplied sort key.
+     */
+    private int upperBound(byte[] sortKey) {
+        int low = 0;
+        int high = versions.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid, sortKey) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+}
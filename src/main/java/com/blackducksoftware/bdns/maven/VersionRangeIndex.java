@@ -0,0 +1,289 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+import com.blackducksoftware.bdns.VersionCodec;
+
+/**
+ * An index over many version requirements (typically for a single artifact) that finds every requirement matching a
+ * version in logarithmic time.
+ * <p>
+ * The distinct bounds of all the requirements partition the version order into elementary segments: each bound and
+ * each gap between consecutive bounds. Every interval is stored in a segment tree over those segments, a lookup
+ * locates the segment of a version using a binary search over the bound sort keys and collects the requirements stored
+ * along the path to the root. Versions required exactly (e.g. "[1.0]") are kept in a separate hash table.
+ *
+ * @author jgustie
+ */
+public final class VersionRangeIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * The sort keys of the distinct interval bounds, in order.
+     */
+    private final byte[][] bounds;
+
+    /**
+     * The number of leaves in the segment tree, a power of two.
+     */
+    private final int leaves;
+
+    /**
+     * Offsets into {@code nodeIds} for each segment tree node (plus a final end offset).
+     */
+    private final int[] nodeOffsets;
+
+    /**
+     * The requirement identifiers stored at each segment tree node.
+     */
+    private final int[] nodeIds;
+
+    /**
+     * The requirement identifiers for exact version matches.
+     */
+    private final Map<MavenVersion, int[]> exact;
+
+    private VersionRangeIndex(Builder builder) {
+        // Collect the distinct bounds in order
+        List<byte[]> keys = new ArrayList<>();
+        for (Interval interval : builder.intervals) {
+            if (interval.lower != null) {
+                keys.add(interval.lower.sortKeyBytes());
+            }
+            if (interval.upper != null) {
+                keys.add(interval.upper.sortKeyBytes());
+            }
+        }
+        keys.sort(VersionCodec::compare);
+        int count = 0;
+        for (byte[] key : keys) {
+            if (count == 0 || VersionCodec.compare(keys.get(count - 1), key) != 0) {
+                keys.set(count++, key);
+            }
+        }
+        this.bounds = keys.subList(0, count).toArray(new byte[count][]);
+
+        int segments = 2 * count + 1;
+        this.leaves = Integer.highestOneBit(segments) << (Integer.bitCount(segments) > 1 ? 1 : 0);
+
+        // Convert each interval to an inclusive range of segments, merging overlaps for the same requirement
+        List<int[]> ranges = new ArrayList<>(builder.intervals.size());
+        for (Interval interval : builder.intervals) {
+            int from = interval.lower == null ? 0 : 2 * indexOf(interval.lower) + (interval.openLower ? 2 : 1);
+            int to = interval.upper == null ? segments - 1 : 2 * indexOf(interval.upper) + (interval.openUpper ? 0 : 1);
+            if (from <= to) {
+                ranges.add(new int[] { interval.id, from, to });
+            }
+        }
+        ranges.sort((r1, r2) -> r1[0] != r2[0] ? Integer.compare(r1[0], r2[0]) : Integer.compare(r1[1], r2[1]));
+
+        // Decompose each range into segment tree nodes, recorded as (node, id) pairs
+        int[] pairs = new int[16];
+        int pairCount = 0;
+        for (int i = 0; i < ranges.size();) {
+            int id = ranges.get(i)[0];
+            int from = ranges.get(i)[1];
+            int to = ranges.get(i)[2];
+            for (++i; i < ranges.size() && ranges.get(i)[0] == id && ranges.get(i)[1] <= to + 1; ++i) {
+                to = Math.max(to, ranges.get(i)[2]);
+            }
+            for (int l = from + leaves, r = to + leaves + 1; l < r; l >>>= 1, r >>>= 1) {
+                if ((l & 1) != 0) {
+                    pairs = add(pairs, pairCount, l++, id);
+                    pairCount += 2;
+                }
+                if ((r & 1) != 0) {
+                    pairs = add(pairs, pairCount, --r, id);
+                    pairCount += 2;
+                }
+            }
+        }
+
+        // Group the identifiers by node
+        this.nodeOffsets = new int[2 * leaves + 1];
+        for (int i = 0; i < pairCount; i += 2) {
+            nodeOffsets[pairs[i] + 1]++;
+        }
+        for (int i = 1; i < nodeOffsets.length; ++i) {
+            nodeOffsets[i] += nodeOffsets[i - 1];
+        }
+        this.nodeIds = new int[pairCount / 2];
+        int[] next = Arrays.copyOf(nodeOffsets, nodeOffsets.length - 1);
+        for (int i = 0; i < pairCount; i += 2) {
+            nodeIds[next[pairs[i]]++] = pairs[i + 1];
+        }
+
+        // Exact matches already covered by an interval of the same requirement must not be reported twice
+        this.exact = new HashMap<>();
+        builder.exact.forEach((version, ids) -> {
+            int[] covered = intervalMatches(leaf(version), 0);
+            Arrays.sort(covered);
+            int[] remaining = Arrays.stream(ids).distinct()
+                    .filter(id -> Arrays.binarySearch(covered, id) < 0)
+                    .toArray();
+            if (remaining.length > 0) {
+                exact.put(version, remaining);
+            }
+        });
+    }
+
+    private static int[] add(int[] pairs, int size, int node, int id) {
+        int[] result = size + 2 > pairs.length ? Arrays.copyOf(pairs, pairs.length * 2) : pairs;
+        result[size] = node;
+        result[size + 1] = id;
+        return result;
+    }
+
+    /**
+     * Returns the index of the bound equal to the supplied version, only valid for versions used as bounds.
+     */
+    private int indexOf(MavenVersion version) {
+        return Arrays.binarySearch(bounds, version.sortKeyBytes(), VersionCodec::compare);
+    }
+
+    /**
+     * Returns the identifiers of every requirement matching the supplied version, in no particular order.
+     */
+    public int[] matching(MavenVersion version) {
+        int[] exactIds = exact.getOrDefault(version, EMPTY);
+        int[] result = intervalMatches(leaf(version), exactIds.length);
+        System.arraycopy(exactIds, 0, result, result.length - exactIds.length, exactIds.length);
+        return result;
+    }
+
+    /**
+     * Returns the identifiers stored along the path from the supplied leaf to the root, leaving extra trailing space.
+     */
+    private int[] intervalMatches(int leaf, int extra) {
+        int size = extra;
+        for (int node = leaf; node > 0; node >>>= 1) {
+            size += nodeOffsets[node + 1] - nodeOffsets[node];
+        }
+        if (size == 0) {
+            return EMPTY;
+        }
+
+        int[] result = new int[size];
+        int pos = 0;
+        for (int node = leaf; node > 0; node >>>= 1) {
+            int length = nodeOffsets[node + 1] - nodeOffsets[node];
+            System.arraycopy(nodeIds, nodeOffsets[node], result, pos, length);
+            pos += length;
+        }
+        return result;
+    }
+
+    /**
+     * Supplies the identifiers of every requirement matching the supplied version to the consumer.
+     */
+    public void forEachMatching(MavenVersion version, IntConsumer consumer) {
+        for (int node = leaf(version); node > 0; node >>>= 1) {
+            for (int i = nodeOffsets[node]; i < nodeOffsets[node + 1]; ++i) {
+                consumer.accept(nodeIds[i]);
+            }
+        }
+        for (int id : exact.getOrDefault(version, EMPTY)) {
+            consumer.accept(id);
+        }
+    }
+
+    /**
+     * Check to see if any requirement matches the supplied version.
+     */
+    public boolean anyMatching(MavenVersion version) {
+        for (int node = leaf(version); node > 0; node >>>= 1) {
+            if (nodeOffsets[node + 1] > nodeOffsets[node]) {
+                return true;
+            }
+        }
+        return exact.containsKey(version);
+    }
+
+    /**
+     * Returns the segment tree leaf for the supplied version.
+     */
+    private int leaf(MavenVersion version) {
+        int index = Arrays.binarySearch(bounds, version.sortKeyBytes(), VersionCodec::compare);
+        return leaves + (index >= 0 ? 2 * index + 1 : -2 * (index + 1));
+    }
+
+    private static final class Interval {
+        private final int id;
+
+        private final MavenVersion lower;
+
+        private final boolean openLower;
+
+        private final MavenVersion upper;
+
+        private final boolean openUpper;
+
+        private Interval(int id, MavenVersion lower, boolean openLower, MavenVersion upper, boolean openUpper) {
+            this.id = id;
+            this.lower = lower;
+            this.openLower = openLower;
+            this.upper = upper;
+            this.openUpper = openUpper;
+        }
+    }
+
+    public static final class Builder {
+
+        private final List<Interval> intervals = new ArrayList<>();
+
+        private final Map<MavenVersion, int[]> exact = new HashMap<>();
+
+        public Builder() {
+        }
+
+        /**
+         * Adds a requirement to the index. The same identifier may be used for multiple requirements, it will only be
+         * reported once for any version matching at least one of them.
+         */
+        public Builder add(int id, MavenVersionRequirement requirement) {
+            Objects.requireNonNull(requirement).accept(new MavenVersionRequirement.Visitor() {
+                @Override
+                public void exact(MavenVersion version) {
+                    exact.merge(version, new int[] { id }, (a, b) -> {
+                        int[] result = Arrays.copyOf(a, a.length + 1);
+                        result[a.length] = id;
+                        return result;
+                    });
+                }
+
+                @Override
+                public void interval(MavenVersion lower, boolean openLower, MavenVersion upper, boolean openUpper) {
+                    intervals.add(new Interval(id, lower, openLower, upper, openUpper));
+                }
+            });
+            return this;
+        }
+
+        public VersionRangeIndex build() {
+            return new VersionRangeIndex(this);
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@code CachingNamespaceManager}.
+ *
+ * @author jgustie
+ */
+public class CachingNamespaceManagerTest {
+
+    @Test
+    public void version_sharedInstance() {
+        CachingNamespaceManager maven = new CachingNamespaceManager.Builder(NamespaceManager.get("maven")).build();
+        Version version = maven.version("1.0");
+        assertThat(maven.version(new StringBuilder("1.0"))).isSameAs(version);
+        assertThat(maven.tryVersion("1.0").orElseThrow()).isSameAs(version);
+        assertThat(maven.namespace()).isEqualTo("maven");
+        assertThat(maven.getVersionStats().getHitCount()).isEqualTo(2L);
+        assertThat(maven.getVersionStats().getMissCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void identifier_failuresNotCached() {
+        CachingNamespaceManager maven = new CachingNamespaceManager.Builder(NamespaceManager.get("maven")).build();
+        assertThat(maven.tryIdentifier("junk").isSuccess()).isFalse();
+        assertThat(maven.isValidIdentifier("junk")).isFalse();
+        assertThrows(IllegalArgumentException.class, () -> maven.identifier("junk"));
+        assertThat(maven.getIdentifierStats().getHitCount()).isEqualTo(0L);
+        assertThat(maven.getIdentifierStats().getWeight()).isEqualTo(0L);
+    }
+
+    @Test
+    public void memoryBudget_frequentEntriesSurvive() {
+        long budget = 5 * 64 * 1024;
+        CachingNamespaceManager maven = new CachingNamespaceManager.Builder(NamespaceManager.get("maven"))
+                .memoryBudget(budget)
+                .build();
+        for (int i = 0; i < 10; ++i) {
+            for (int j = 0; j < 100; ++j) {
+                maven.version("1." + j);
+            }
+        }
+
+        // A scan of one-off versions must not flush the hot versions
+        for (int i = 0; i < 2_000; ++i) {
+            maven.version("2.0." + i);
+        }
+        assertThat(maven.getVersionStats().getWeight()).isAtMost(budget / 5);
+        assertThat(maven.getVersionStats().getEvictionCount()).isGreaterThan(0L);
+
+        long hits = maven.getVersionStats().getHitCount();
+        for (int j = 0; j < 100; ++j) {
+            maven.version("1." + j);
+        }
+        // The frequency sketch is approximate, allow for the occasional collision
+        assertThat(maven.getVersionStats().getHitCount()).isAtLeast(hits + 95);
+    }
+
+}
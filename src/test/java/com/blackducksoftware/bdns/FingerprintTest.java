@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import org.junit.jupiter.api.Test;
+
+import com.blackducksoftware.bdns.maven.MavenCoordinate;
+
+/**
+ * Tests for {@code Fingerprint}.
+ *
+ * @author jgustie
+ */
+public class FingerprintTest {
+
+    /**
+     * A straightforward implementation of the specification.
+     */
+    private static long reference(String... fields) {
+        long hash = 0xCBF29CE484222325L;
+        for (String field : fields) {
+            if (field == null) {
+                hash = (hash ^ 0xFE) * 0x100000001B3L;
+            } else {
+                for (byte b : field.getBytes(UTF_8)) {
+                    hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+                }
+                hash = (hash ^ 0xFF) * 0x100000001B3L;
+            }
+        }
+        return Fingerprint.fmix64(hash);
+    }
+
+    @Test
+    public void of_matchesSpecification() {
+        assertThat(Fingerprint.of("org.example", "caf\u00e9", "\u20ac1.0", "\ud83d\ude00"))
+                .isEqualTo(reference("org.example", "caf\u00e9", "\u20ac1.0", "\ud83d\ude00"));
+        assertThat(Fingerprint.of("a", null, "")).isEqualTo(reference("a", null, ""));
+        assertThat(Fingerprint.of("ab", "c")).isNotEqualTo(Fingerprint.of("a", "bc"));
+        assertThat(Fingerprint.of((String) null)).isNotEqualTo(Fingerprint.of(""));
+    }
+
+    @Test
+    public void fingerprint64_defaultPackaging() {
+        assertThat(MavenCoordinate.parse("junit:junit:4.12").fingerprint64())
+                .isEqualTo(MavenCoordinate.parse("junit:junit:jar:4.12").fingerprint64());
+        assertThat(MavenCoordinate.parse("junit:junit:4.12").fingerprint64())
+                .isNotEqualTo(MavenCoordinate.parse("junit:junit:war:4.12").fingerprint64());
+        SemVer built = new SemVer.Builder().version(1, 2, 3).preReleaseVersion("rc", "1").buildMetadata("b5").build();
+        assertThat(SemVer.valueOf("1.2.3-rc.1+b5").fingerprint64()).isEqualTo(built.fingerprint64());
+    }
+
+    @Test
+    public void partition_consistent() {
+        int[] counts = new int[10];
+        for (long i = 0; i < 10_000; ++i) {
+            long fingerprint = Fingerprint.of(Long.toString(i));
+            int before = Fingerprint.partition(fingerprint, 10);
+            int after = Fingerprint.partition(fingerprint, 11);
+            assertThat(after == before || after == 10).isTrue();
+            counts[before]++;
+        }
+        for (int count : counts) {
+            assertThat(count).isAtLeast(800);
+            assertThat(count).isAtMost(1200);
+        }
+        assertThat(Fingerprint.partition(42L, 1)).isEqualTo(0);
+    }
+
+}
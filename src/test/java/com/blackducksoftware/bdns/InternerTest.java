@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@code Interner}.
+ *
+ * @author jgustie
+ */
+public class InternerTest {
+
+    @Test
+    public void intern_sharedInstance() {
+        Interner<String> interner = Interner.weak();
+        String first = new String("1.0");
+        assertThat(interner.intern(first)).isSameAs(first);
+        assertThat(interner.intern(new String("1.0"))).isSameAs(first);
+        assertThat(interner.intern(new String("2.0"))).isEqualTo("2.0");
+        assertThat(interner.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void intern_concurrent() {
+        Interner<String> interner = Interner.weak();
+        List<String> canonical = IntStream.range(0, 10_000).parallel()
+                .mapToObj(i -> interner.intern(new String("value-" + (i % 100))))
+                .collect(Collectors.toList());
+        for (String value : canonical) {
+            assertThat(value).isSameAs(interner.intern(new String(value)));
+        }
+        assertThat(interner.size()).isEqualTo(100);
+    }
+
+}
@@ -16,8 +16,12 @@
 package com.blackducksoftware.bdns;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
@@ -74,4 +78,113 @@ public class SemVerTest {
                 SemVer.valueOf("1.0.0"))).isOrdered();
     }
 
+    @Test
+    public void precedence_largeNumbers() {
+        assertThat(Arrays.asList(
+                SemVer.valueOf("1.0.0-999"),
+                SemVer.valueOf("1.0.0-2147483648"),
+                SemVer.valueOf("1.0.0-999999999999999999"),
+                SemVer.valueOf("1.0.0-9999999999999999999"),
+                SemVer.valueOf("1.0.0-10000000000000000000"),
+                SemVer.valueOf("1.0.0-alpha"))).isOrdered();
+
+        assertThat(Arrays.asList(
+                SemVer.valueOf("2097151.2097151.2097151"),
+                SemVer.valueOf("2097152.0.0"),
+                SemVer.valueOf("2097152.0.2097152"),
+                SemVer.valueOf("2147483647.0.0"))).isOrdered();
+    }
+
+    @Test
+    public void tryParse_valid() {
+        for (String value : Arrays.asList("0.0.4", "1.2.3", "10.20.30", "1.1.2-prerelease+meta", "1.1.2+meta",
+                "1.1.2+meta-valid", "1.0.0-alpha", "1.0.0-alpha.beta.1", "1.0.0-alpha0.valid", "1.0.0-alpha-a.b-c",
+                "1.0.0-rc.1+build.1", "2.0.0-rc.1+build.123", "1.2.3-beta", "10.2.3-DEV-SNAPSHOT", "1.0.0+0.build.1-rc",
+                "1.2.3----RC-SNAPSHOT.12.9.1--.12+788", "2147483647.2147483647.2147483647", "1.0.0-0A.is.legal")) {
+            ParseResult<SemVer> result = SemVer.tryParse(value);
+            assertThat(result.isSuccess()).isTrue();
+            assertThat(result.orElseThrow().toString()).isEqualTo(value);
+            assertThat(result.orElseThrow()).isEqualTo(new SemVer.Builder()
+                    .version(result.orElseThrow().getMajorVersion(), result.orElseThrow().getMinorVersion(),
+                            result.orElseThrow().getPatchVersion())
+                    .preReleaseVersion(result.orElseThrow().getPreReleaseVersion())
+                    .buildMetadata(result.orElseThrow().getBuildMetadata())
+                    .build());
+        }
+    }
+
+    @Test
+    public void tryParse_invalid() {
+        assertInvalid("", ParseResult.ErrorKind.UNEXPECTED_END, 0);
+        assertInvalid("1", ParseResult.ErrorKind.UNEXPECTED_END, 1);
+        assertInvalid("1.2", ParseResult.ErrorKind.UNEXPECTED_END, 3);
+        assertInvalid("1.2.", ParseResult.ErrorKind.UNEXPECTED_END, 4);
+        assertInvalid("1x2x3", ParseResult.ErrorKind.UNEXPECTED_CHARACTER, 1);
+        assertInvalid("v1.2.3", ParseResult.ErrorKind.UNEXPECTED_CHARACTER, 0);
+        assertInvalid("01.1.1", ParseResult.ErrorKind.LEADING_ZERO, 0);
+        assertInvalid("1.01.1", ParseResult.ErrorKind.LEADING_ZERO, 2);
+        assertInvalid("1.2.3-0123", ParseResult.ErrorKind.LEADING_ZERO, 6);
+        assertInvalid("1.2.3-", ParseResult.ErrorKind.EMPTY_COMPONENT, 6);
+        assertInvalid("1.2.3-alpha..1", ParseResult.ErrorKind.EMPTY_COMPONENT, 12);
+        assertInvalid("1.2.3+", ParseResult.ErrorKind.EMPTY_COMPONENT, 6);
+        assertInvalid("1.2.3-alpha_beta", ParseResult.ErrorKind.UNEXPECTED_CHARACTER, 11);
+        assertInvalid("1.2.3+meta+meta", ParseResult.ErrorKind.UNEXPECTED_CHARACTER, 10);
+        assertInvalid("1.2.3-\u00e9", ParseResult.ErrorKind.UNEXPECTED_CHARACTER, 6);
+        assertInvalid("2147483648.0.0", ParseResult.ErrorKind.OVERFLOW, 0);
+        assertThrows(IllegalArgumentException.class, () -> SemVer.valueOf("01.1.1"));
+    }
+
+    private static void assertInvalid(String value, ParseResult.ErrorKind errorKind, int errorOffset) {
+        ParseResult<SemVer> result = SemVer.tryParse(value);
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getErrorKind()).isEqualTo(errorKind);
+        assertThat(result.getErrorOffset()).isEqualTo(errorOffset);
+    }
+
+    @Test
+    public void codec_roundTrip() {
+        for (SemVer version : corpus(new Random(0x5E3), 5_000)) {
+            byte[] encoded = SemVer.codec().encode(version);
+            assertThat(SemVer.codec().decode(encoded)).isEqualTo(version);
+        }
+    }
+
+    @Test
+    public void codec_preservesOrder() {
+        Random random = new Random(0x0DE4);
+        List<SemVer> versions = corpus(random, 2_000);
+        for (SemVer v1 : versions) {
+            byte[] encoded1 = SemVer.codec().encode(v1);
+            for (int i = 0; i < 50; ++i) {
+                SemVer v2 = versions.get(random.nextInt(versions.size()));
+                int expected = Integer.signum(v1.compareTo(v2));
+                int actual = Integer.signum(VersionCodec.compare(encoded1, SemVer.codec().encode(v2)));
+                if (expected == 0) {
+                    // Build metadata is only used to break ties
+                    assertThat(actual == 0).isEqualTo(v1.equals(v2));
+                } else {
+                    assertThat(actual).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    private static List<SemVer> corpus(Random random, int size) {
+        String[] identifiers = { "alpha", "beta", "rc", "0", "1", "2", "11", "x-y", "a1" };
+        List<SemVer> result = new ArrayList<>(size);
+        for (int n = 0; n < size; ++n) {
+            SemVer.Builder builder = new SemVer.Builder().version(random.nextInt(3), random.nextInt(300), random.nextInt(3));
+            List<String> preReleaseVersion = new ArrayList<>();
+            for (int i = random.nextInt(4) - 1; i > 0; --i) {
+                preReleaseVersion.add(identifiers[random.nextInt(identifiers.length)]);
+            }
+            List<String> buildMetadata = new ArrayList<>();
+            for (int i = random.nextInt(4) - 2; i > 0; --i) {
+                buildMetadata.add(identifiers[random.nextInt(identifiers.length)]);
+            }
+            result.add(builder.preReleaseVersion(preReleaseVersion).buildMetadata(buildMetadata).build());
+        }
+        return result;
+    }
+
 }
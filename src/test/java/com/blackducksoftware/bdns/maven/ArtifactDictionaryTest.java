@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@code ArtifactDictionary}.
+ *
+ * @author jgustie
+ */
+public class ArtifactDictionaryTest {
+
+    @Test
+    public void id_denseAndReversible() {
+        TreeSet<String> keys = new TreeSet<>();
+        ArtifactDictionary.Builder builder = new ArtifactDictionary.Builder();
+        for (int g = 0; g < 40; ++g) {
+            for (int a = 0; a < g % 7 + 1; ++a) {
+                String groupId = "org.example" + (g % 3 == 0 ? ".sub" : "") + ".g" + g;
+                String artifactId = "artifact-" + a;
+                keys.add(groupId + ":" + artifactId);
+                builder.add(groupId, artifactId).add(groupId, artifactId);
+            }
+        }
+        builder.add(MavenCoordinate.valueOf("junit:junit:4.12"));
+        keys.add("junit:junit");
+        ArtifactDictionary dictionary = builder.build();
+
+        List<String> sorted = new ArrayList<>(keys);
+        assertThat(dictionary.size()).isEqualTo(sorted.size());
+        for (int id = 0; id < sorted.size(); ++id) {
+            String key = sorted.get(id);
+            int separator = key.indexOf(':');
+            assertThat(dictionary.key(id)).isEqualTo(key);
+            assertThat(dictionary.id(key.substring(0, separator), key.substring(separator + 1))).isEqualTo(id);
+            assertThat(dictionary.groupId(id)).isEqualTo(key.substring(0, separator));
+            assertThat(dictionary.artifactId(id)).isEqualTo(key.substring(separator + 1));
+        }
+        assertThat(dictionary.id(MavenCoordinate.valueOf("junit:junit:3.8"))).isEqualTo(sorted.indexOf("junit:junit"));
+        assertThat(dictionary.id("junit", "junit-dep")).isEqualTo(-1);
+        assertThat(dictionary.id("aaa", "aaa")).isEqualTo(-1);
+        assertThrows(IndexOutOfBoundsException.class, () -> dictionary.key(sorted.size()));
+    }
+
+    @Test
+    public void prefixRange_contiguous() {
+        ArtifactDictionary.Builder builder = new ArtifactDictionary.Builder();
+        for (int i = 0; i < 100; ++i) {
+            builder.add("org.apache.commons", "commons-" + i);
+            builder.add("org.apache.common", "x" + i);
+            builder.add("org.apache.commonsx", "y" + i);
+        }
+        ArtifactDictionary dictionary = builder.build();
+
+        int[] group = dictionary.groupRange("org.apache.commons");
+        assertThat(group[1] - group[0]).isEqualTo(100);
+        for (int id = group[0]; id < group[1]; ++id) {
+            assertThat(dictionary.groupId(id)).isEqualTo("org.apache.commons");
+        }
+        int[] prefix = dictionary.prefixRange("org.apache.commons");
+        assertThat(prefix[1] - prefix[0]).isEqualTo(200);
+        assertThat(dictionary.prefixRange("org.apache.")).isEqualTo(new int[] { 0, 300 });
+        int[] missing = dictionary.prefixRange("com.");
+        assertThat(missing[0]).isEqualTo(missing[1]);
+    }
+
+    @Test
+    public void writeTo_mapped() throws IOException {
+        ArtifactDictionary dictionary = new ArtifactDictionary.Builder()
+                .add("junit", "junit")
+                .add("com.google.guava", "guava")
+                .build();
+        Path file = Files.createTempFile("artifacts", ".dict");
+        try {
+            dictionary.writeTo(file);
+            ArtifactDictionary mapped = ArtifactDictionary.open(file);
+            assertThat(mapped.size()).isEqualTo(2);
+            assertThat(mapped.id("junit", "junit")).isEqualTo(1);
+            assertThat(mapped.key(0)).isEqualTo("com.google.guava:guava");
+            assertThat(mapped.sizeInBytes()).isEqualTo(dictionary.sizeInBytes());
+        } finally {
+            Files.delete(file);
+        }
+        assertThrows(IllegalArgumentException.class, () -> ArtifactDictionary.wrap(ByteBuffer.allocate(64)));
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.blackducksoftware.bdns.SemVer;
+
+/**
+ * Tests for {@code BinaryCodec}.
+ *
+ * @author jgustie
+ */
+public class BinaryCodecTest {
+
+    private static final List<Object> VALUES = Arrays.asList(
+            MavenVersion.valueOf("1.0-SNAPSHOT"),
+            MavenVersionRequirement.valueOf("1.5"),
+            MavenVersionRequirement.valueOf("[1.5]"),
+            MavenVersionRequirement.valueOf("(,1.0],[1.2,)"),
+            MavenVersionRequirement.valueOf("[1.0],[1.2,2.0)"),
+            new MavenVersionRequirement.Builder().build(),
+            MavenVersionRequirement.valueOf("(,1.0)").union(MavenVersionRequirement.valueOf("[1.0,)")),
+            MavenCoordinate.parse("org.example:caf\u00e9:1.0"),
+            MavenCoordinate.parse("org.example:library:war:2.0.1"),
+            MavenCoordinate.parse("org.example:library:jar:tests:2.0.1"),
+            new MavenCoordinate.Builder().groupId("org.example").artifactId("library").build(),
+            new MavenDependency.Builder().groupId("org.example").artifactId("library").version("[1.0,2.0)").build(),
+            new MavenDependency.Builder().groupId("org.example").artifactId("tools").version("1.8")
+                    .scope(MavenScope.system).systemPath("/opt/tools.jar").optional(true).type("jar")
+                    .classifier("jdk8").build(),
+            MavenRepository.mavenCentral(),
+            MavenRepository.valueOf("https://repo.example.com/maven2"),
+            SemVer.valueOf("1.2.3-rc.1+build.5"),
+            SemVer.valueOf("0.1.0"));
+
+    @Test
+    public void roundTrip_dataOutput() throws IOException {
+        for (boolean groupDictionary : new boolean[] { false, true }) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            BinaryCodec.Encoder encoder = BinaryCodec.newEncoder(new DataOutputStream(bytes), groupDictionary);
+            for (Object value : VALUES) {
+                encoder.write(value);
+            }
+
+            BinaryCodec.Decoder decoder = BinaryCodec.newDecoder(
+                    new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+            for (Object value : VALUES) {
+                Object decoded = decoder.read();
+                assertThat(decoded).isEqualTo(value);
+                assertThat(decoded.toString()).isEqualTo(value.toString());
+            }
+        }
+    }
+
+    @Test
+    public void roundTrip_byteBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        BinaryCodec.Encoder encoder = BinaryCodec.newEncoder(buffer, true);
+        for (int i = 0; i < 100; ++i) {
+            encoder.writeCoordinate(MavenCoordinate.parse("org.example.group" + (i % 3) + ":artifact" + i + ":1." + i));
+        }
+        buffer.flip();
+
+        BinaryCodec.Decoder decoder = BinaryCodec.newDecoder(buffer);
+        for (int i = 0; i < 100; ++i) {
+            MavenCoordinate coordinate = decoder.readCoordinate();
+            assertThat(coordinate).isEqualTo(MavenCoordinate.parse("org.example.group" + (i % 3) + ":artifact" + i
+                    + ":1." + i));
+            assertThat(coordinate.getVersion().get().compareTo(MavenVersion.valueOf("1." + i))).isEqualTo(0);
+        }
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test
+    public void groupDictionary_smaller() throws IOException {
+        ByteBuffer plain = ByteBuffer.allocate(4096);
+        ByteBuffer dictionary = ByteBuffer.allocate(4096);
+        BinaryCodec.Encoder plainEncoder = BinaryCodec.newEncoder(plain, false);
+        BinaryCodec.Encoder dictionaryEncoder = BinaryCodec.newEncoder(dictionary, true);
+        for (int i = 0; i < 20; ++i) {
+            MavenCoordinate coordinate = MavenCoordinate.parse("org.example.group:artifact:1." + i);
+            plainEncoder.writeCoordinate(coordinate);
+            dictionaryEncoder.writeCoordinate(coordinate);
+        }
+        assertThat(dictionary.position()).isLessThan(plain.position());
+    }
+
+    @Test
+    public void read_wrongTag() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        BinaryCodec.newEncoder(buffer, false).writeVersion(MavenVersion.valueOf("1.0"));
+        buffer.flip();
+        BinaryCodec.Decoder decoder = BinaryCodec.newDecoder(buffer);
+        assertThrows(IllegalArgumentException.class, decoder::readCoordinate);
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@code CoordinateBatch}.
+ *
+ * @author jgustie
+ */
+public class CoordinateBatchTest {
+
+    private static CoordinateBatch sample() {
+        return new CoordinateBatch.Builder()
+                .add("junit:junit:4.8.2")
+                .add("com.google.guava:guava:19.0")
+                .add("junit:junit:4.12")
+                .add("com.google.guava:guava:23.0-android")
+                .add("com.google.guava:guava:jar:tests:20.0")
+                .add("junit:junit:3.8.1")
+                .add("com.google.guava:guava-testlib:20.0")
+                .add(new MavenCoordinate.Builder().groupId("junit").artifactId("junit").build())
+                .build();
+    }
+
+    private static List<String> coordinates(CoordinateBatch batch, int[] rows) {
+        List<String> result = new ArrayList<>();
+        for (int row : rows) {
+            result.add(batch.get(row).toString());
+        }
+        return result;
+    }
+
+    @Test
+    public void get() {
+        CoordinateBatch batch = sample();
+        assertThat(batch.size()).isEqualTo(8);
+        assertThat(batch.get(4)).isEqualTo(MavenCoordinate.parse("com.google.guava:guava:jar:tests:20.0"));
+        assertThat(batch.get(7).getVersion().isPresent()).isFalse();
+    }
+
+    @Test
+    public void filter() {
+        CoordinateBatch batch = sample();
+        int[] junit = batch.filterGroupId(batch.rows(), "junit");
+        assertThat(junit).asList().containsExactly(0, 2, 5, 7).inOrder();
+        assertThat(batch.filterVersion(junit, MavenVersionRequirement.valueOf("[4.0,)"))).asList()
+                .containsExactly(0, 2).inOrder();
+        assertThat(batch.filterGroupId(batch.rows(), "org.example")).isEmpty();
+    }
+
+    @Test
+    public void groupByArtifact() {
+        CoordinateBatch batch = sample();
+        assertThat(batch.groupByArtifact(batch.rows())).asList().containsExactly(0, 1, 0, 1, 1, 0, 2, 0).inOrder();
+    }
+
+    @Test
+    public void topByVersion() {
+        CoordinateBatch batch = sample();
+        assertThat(coordinates(batch, batch.topByVersion(batch.rows(), 1)))
+                .containsExactly("junit:junit:4.12", "com.google.guava:guava:23.0-android",
+                        "com.google.guava:guava-testlib:20.0")
+                .inOrder();
+        assertThat(coordinates(batch, batch.topByVersion(batch.rows(), 2)))
+                .containsExactly("junit:junit:4.12", "junit:junit:4.8.2", "com.google.guava:guava:23.0-android",
+                        "com.google.guava:guava:jar:tests:20.0", "com.google.guava:guava-testlib:20.0")
+                .inOrder();
+        assertThat(coordinates(batch, batch.topByVersion(batch.rows(), Integer.MAX_VALUE)))
+                .containsExactly("junit:junit:4.12", "junit:junit:4.8.2", "junit:junit:3.8.1",
+                        "com.google.guava:guava:23.0-android", "com.google.guava:guava:jar:tests:20.0",
+                        "com.google.guava:guava:19.0", "com.google.guava:guava-testlib:20.0")
+                .inOrder();
+    }
+
+    @Test
+    public void read_roundTrip() throws IOException {
+        CoordinateBatch batch = sample();
+        Path file = Files.createTempFile("batch", ".bin");
+        try {
+            batch.writeTo(file);
+            CoordinateBatch read = CoordinateBatch.read(file);
+            assertThat(read.size()).isEqualTo(batch.size());
+            for (int row = 0; row < batch.size(); ++row) {
+                assertThat(read.get(row)).isEqualTo(batch.get(row));
+            }
+            assertThat(read.topByVersion(read.rows(), 3)).isEqualTo(batch.topByVersion(batch.rows(), 3));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
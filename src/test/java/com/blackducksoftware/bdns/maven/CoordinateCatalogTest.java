@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth8.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@code CoordinateCatalog}.
+ *
+ * @author jgustie
+ */
+public class CoordinateCatalogTest {
+
+    private static CoordinateCatalog sample() {
+        return new CoordinateCatalog.Builder()
+                .add(MavenCoordinate.parse("com.google.guava:guava:20.0"))
+                .add(MavenCoordinate.parse("com.google.guava:guava:19.0"))
+                .add(MavenCoordinate.parse("com.google.guava:guava:23.0-android"))
+                .add(MavenCoordinate.parse("com.google.guava:guava:jar:20.0"))
+                .add(MavenCoordinate.parse("junit:junit:4.12"))
+                .add(MavenCoordinate.parse("junit:junit:4.8.2"))
+                .add("org.example", "empty", MavenVersion.valueOf("1.0"))
+                .build();
+    }
+
+    private static List<String> strings(List<MavenVersion> versions) {
+        return versions.stream().map(MavenVersion::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    public void versions() {
+        CoordinateCatalog catalog = sample();
+        assertThat(catalog.artifacts().size()).isEqualTo(3);
+        assertThat(strings(catalog.versions("com.google.guava", "guava")))
+                .containsExactly("19.0", "20.0", "23.0-android").inOrder();
+        assertThat(strings(catalog.versions("junit", "junit"))).containsExactly("4.8.2", "4.12").inOrder();
+        assertThat(catalog.versions("junit", "missing")).isEmpty();
+        assertThat(strings(catalog.versions("com.google.guava", "guava", MavenVersionRequirement.valueOf("[19,22]"))))
+                .containsExactly("19.0", "20.0").inOrder();
+    }
+
+    @Test
+    public void resolveHighest() {
+        CoordinateCatalog catalog = sample();
+        MavenDependency dependency = new MavenDependency.Builder().groupId("junit").artifactId("junit")
+                .version(MavenVersionRequirement.valueOf("[4.0,5.0)")).build();
+        assertThat(catalog.resolveHighest(dependency)).hasValue(MavenCoordinate.parse("junit:junit:4.12"));
+
+        MavenDependency missing = new MavenDependency.Builder().groupId("junit").artifactId("junit")
+                .version(MavenVersionRequirement.valueOf("[5.0,)")).build();
+        assertThat(catalog.resolveHighest(missing)).isEmpty();
+    }
+
+    @Test
+    public void open_roundTrip() throws IOException {
+        CoordinateCatalog catalog = sample();
+        Path file = Files.createTempFile("catalog", ".bin");
+        try {
+            catalog.writeTo(file);
+            assertThat(Files.size(file)).isEqualTo(catalog.sizeInBytes());
+
+            CoordinateCatalog mapped = CoordinateCatalog.open(file);
+            assertThat(mapped.artifacts().size()).isEqualTo(3);
+            for (int id = 0; id < mapped.artifacts().size(); ++id) {
+                String key = mapped.artifacts().key(id);
+                assertThat(key).isEqualTo(catalog.artifacts().key(id));
+                assertThat(mapped.versions(id)).containsExactlyElementsIn(catalog.versions(id)).inOrder();
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@code CoordinateFilter}.
+ *
+ * @author jgustie
+ */
+public class CoordinateFilterTest {
+
+    private static MavenCoordinate coordinate(int group, int artifact, int version) {
+        return MavenCoordinate.parse("org.example" + group + ":artifact" + artifact + ":1." + version);
+    }
+
+    @Test
+    public void mightContain_noFalseNegatives() {
+        CoordinateFilter.Builder builder = new CoordinateFilter.Builder()
+                .expectedInsertions(20_000L)
+                .falsePositiveRate(0.01);
+        for (int i = 0; i < 10_000; ++i) {
+            builder.add(coordinate(i % 50, i % 200, i));
+        }
+        CoordinateFilter filter = builder.build();
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; ++i) {
+            assertThat(filter.mightContain(coordinate(i % 50, i % 200, i))).isTrue();
+            if (filter.mightContain(coordinate(i % 50, i % 200, i + 10_000))) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+        assertThat(filter.mightContain("org.example7", "artifact7")).isTrue();
+        assertThat(filter.mightContain(
+                new MavenCoordinate.Builder().groupId("org.example7").artifactId("artifact7").build())).isTrue();
+        assertThat(filter.mightContain(MavenCoordinate.parse("org.example7:artifact7:jar:1.7"))).isTrue();
+    }
+
+    @Test
+    public void open_roundTrip() throws IOException {
+        CoordinateFilter filter = new CoordinateFilter.Builder()
+                .expectedInsertions(100L)
+                .add(MavenCoordinate.parse("junit:junit:4.12"))
+                .build();
+        Path file = Files.createTempFile("filter", ".bin");
+        try {
+            filter.writeTo(file);
+            CoordinateFilter mapped = CoordinateFilter.open(file);
+            assertThat(mapped.sizeInBytes()).isEqualTo(filter.sizeInBytes());
+            assertThat(mapped.mightContain(MavenCoordinate.parse("junit:junit:4.12"))).isTrue();
+            assertThat(mapped.mightContain("junit", "junit")).isTrue();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
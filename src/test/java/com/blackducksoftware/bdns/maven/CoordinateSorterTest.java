@@ -0,0 +1,169 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.blackducksoftware.bdns.ExternalSorter;
+import com.blackducksoftware.bdns.ExternalSorter.Deduplication;
+import com.blackducksoftware.bdns.Identifier;
+import com.blackducksoftware.bdns.VersionCodec;
+
+/**
+ * Tests for {@code CoordinateSorter} and {@code ExternalSorter}.
+ *
+ * @author jgustie
+ */
+public class CoordinateSorterTest {
+
+    private static final Comparator<MavenCoordinate> ORDER = Comparator.comparing(MavenCoordinate::getGroupId)
+            .thenComparing(MavenCoordinate::getArtifactId)
+            .thenComparing(c -> c.getVersion().get())
+            .thenComparing(c -> c.getPackaging().orElse("jar"));
+
+    private static List<MavenCoordinate> randomCoordinates(Random random, int count) {
+        String[] versions = { "1", "1.0", "1.0.1", "1.0-SNAPSHOT", "1.0-alpha", "2.0", "2.0-rc1", "10.0", "1.0-sp1" };
+        List<MavenCoordinate> result = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            result.add(MavenCoordinate.parse("org.example" + random.nextInt(5) + ":artifact" + random.nextInt(5)
+                    + (random.nextInt(4) == 0 ? ":war" : "") + ":" + versions[random.nextInt(versions.length)]));
+        }
+        return result;
+    }
+
+    private static List<MavenCoordinate> sort(List<MavenCoordinate> input, Path directory, Deduplication dedup)
+            throws IOException {
+        List<MavenCoordinate> result = new ArrayList<>();
+        CoordinateSorter.newBuilder()
+                .memoryBudget(4096L)
+                .parallelism(2)
+                .tempDirectory(directory)
+                .deduplication(dedup)
+                .build()
+                .sort(input.iterator(), result::add);
+        return result;
+    }
+
+    @Test
+    public void sort_spillsAndMerges() throws IOException {
+        List<MavenCoordinate> input = randomCoordinates(new Random(24L), 2_000);
+        Path directory = Files.createTempDirectory("sort");
+        try {
+            List<MavenCoordinate> sorted = sort(input, directory, Deduplication.NONE);
+            assertThat(sorted).hasSize(input.size());
+            for (int i = 1; i < sorted.size(); ++i) {
+                assertThat(ORDER.compare(sorted.get(i - 1), sorted.get(i))).isAtMost(0);
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                assertThat(files.count()).isEqualTo(0L);
+            }
+
+            List<MavenCoordinate> distinct = sort(input, directory, Deduplication.EQUALS);
+            assertThat(distinct).containsExactlyElementsIn(new LinkedHashSet<>(input));
+            assertThat(distinct).hasSize(new LinkedHashSet<>(input).size());
+
+            List<MavenCoordinate> compareDistinct = sort(input, directory, Deduplication.SORT_KEY);
+            assertThat(compareDistinct.size()).isLessThan(distinct.size());
+            for (int i = 1; i < compareDistinct.size(); ++i) {
+                assertThat(ORDER.compare(compareDistinct.get(i - 1), compareDistinct.get(i))).isLessThan(0);
+            }
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void sort_boundedFanIn() throws IOException {
+        List<MavenCoordinate> input = randomCoordinates(new Random(42L), 2_000);
+        Path directory = Files.createTempDirectory("sort");
+        try {
+            // Every run left when the output starts is open, intermediate passes must have reduced them
+            long[] maxOpenRuns = new long[1];
+            List<MavenCoordinate> sorted = new ArrayList<>();
+            CoordinateSorter.newBuilder()
+                    .memoryBudget(64L * 1024L)
+                    .maxFanIn(3)
+                    .tempDirectory(directory)
+                    .build()
+                    .sort(input.iterator(), c -> {
+                        try (Stream<Path> files = Files.list(directory)) {
+                            maxOpenRuns[0] = Math.max(maxOpenRuns[0], files.count());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        sorted.add(c);
+                    });
+            assertThat(maxOpenRuns[0]).isGreaterThan(1L);
+            assertThat(maxOpenRuns[0]).isAtMost(3L);
+            assertThat(sorted).hasSize(input.size());
+            for (int i = 1; i < sorted.size(); ++i) {
+                assertThat(ORDER.compare(sorted.get(i - 1), sorted.get(i))).isAtMost(0);
+            }
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void sort_inMemory() throws IOException {
+        List<MavenCoordinate> input = Stream.of("b:b:1.0", "a:b:2.0", "a:b:1.0", "a:b:1", "a:a:10")
+                .map(MavenCoordinate::parse).collect(Collectors.toList());
+        List<String> result = new ArrayList<>();
+        CoordinateSorter.newBuilder().deduplication(Deduplication.SORT_KEY).build()
+                .sort(input.iterator(), c -> result.add(c.toString()));
+        assertThat(result).containsExactly("a:a:10", "a:b:1", "a:b:2.0", "b:b:1.0").inOrder();
+    }
+
+    @Test
+    public void identifierSortKey() throws IOException {
+        VersionCodec<MavenVersion> codec = MavenVersion.codec();
+        ExternalSorter<Identifier> sorter = new ExternalSorter.Builder<Identifier>(
+                ExternalSorter.identifierSortKey(codec),
+                new ExternalSorter.Serializer<Identifier>() {
+                    @Override
+                    public void write(DataOutput output, Identifier value) throws IOException {
+                        output.writeUTF(value.toString());
+                    }
+
+                    @Override
+                    public Identifier read(DataInput input) throws IOException {
+                        return MavenCoordinate.parse(input.readUTF());
+                    }
+                }).build();
+        List<String> result = new ArrayList<>();
+        sorter.sort(Arrays.<Identifier> asList(MavenCoordinate.parse("a:a:10"), MavenCoordinate.parse("a:a:9"),
+                MavenCoordinate.parse("a:aa:1")).iterator(), i -> result.add(i.toString()));
+        assertThat(result).containsExactly("a:a:9", "a:a:10", "a:aa:1").inOrder();
+    }
+
+}
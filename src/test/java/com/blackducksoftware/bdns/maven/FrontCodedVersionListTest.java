@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@code FrontCodedVersionList}.
+ *
+ * @author jgustie
+ */
+public class FrontCodedVersionListTest {
+
+    private static List<MavenVersion> randomVersions(Random random, int count) {
+        String[] qualifiers = { "", "-M1", "-M2", "-RC1", "-SNAPSHOT", "-alpha", ".Final", "-sp1" };
+        List<MavenVersion> versions = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            versions.add(MavenVersion.valueOf(random.nextInt(3) + "." + random.nextInt(15)
+                    + (random.nextBoolean() ? "." + random.nextInt(3) : "")
+                    + qualifiers[random.nextInt(qualifiers.length)]));
+        }
+        return versions;
+    }
+
+    @Test
+    public void of_agreesWithSortedList() {
+        List<MavenVersion> versions = randomVersions(new Random(17L), 500);
+        FrontCodedVersionList list = FrontCodedVersionList.of(versions);
+        versions.sort(Comparator.<MavenVersion> naturalOrder().thenComparing(MavenVersion::toString));
+
+        assertThat(list).containsExactlyElementsIn(versions).inOrder();
+        assertThat(list.size()).isEqualTo(versions.size());
+        for (int i = 0; i < versions.size(); i += 7) {
+            assertThat(list.get(i)).isEqualTo(versions.get(i));
+            assertThat(list.get(i).compareTo(versions.get(i))).isEqualTo(0);
+            assertThat(list.indexOf(versions.get(i))).isEqualTo(versions.indexOf(versions.get(i)));
+            assertThat(list.lastIndexOf(versions.get(i))).isEqualTo(versions.lastIndexOf(versions.get(i)));
+        }
+        assertThat(list.contains(MavenVersion.valueOf("9.9"))).isFalse();
+        assertThat(list.sizeInBytes()).isLessThan(versions.size() * 16L);
+    }
+
+    @Test
+    public void spans_agreesWithRequirement() {
+        List<MavenVersion> versions = randomVersions(new Random(18L), 300);
+        FrontCodedVersionList list = FrontCodedVersionList.of(versions);
+        List<MavenVersion> sorted = new ArrayList<>(list);
+        for (String value : Arrays.asList("[1.0,2.0)", "(,1.0],[1.12,)", "[1.5]", "1.5", "(0.3,0.5),[2.1,2.4]",
+                "[1.3-M1,1.3-RC1]", "[4,5]")) {
+            MavenVersionRequirement requirement = MavenVersionRequirement.valueOf(value);
+            assertThat(list.spans(requirement)).isEqualTo(requirement.spans(sorted));
+            assertThat(list.filter(requirement)).containsExactlyElementsIn(requirement.filter(sorted)).inOrder();
+        }
+    }
+
+}
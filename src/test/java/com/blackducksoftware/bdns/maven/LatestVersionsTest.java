@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@code LatestVersions}.
+ *
+ * @author jgustie
+ */
+public class LatestVersionsTest {
+
+    private static List<String> versions(LatestVersions latest, String groupId, String artifactId) {
+        return latest.versions(groupId, artifactId).stream().map(MavenVersion::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    public void isSnapshot() {
+        assertThat(MavenVersion.parse("1.0-SNAPSHOT").isSnapshot()).isTrue();
+        assertThat(MavenVersion.parse("1.0.snapshot").isSnapshot()).isTrue();
+        assertThat(MavenVersion.parse("1.0").isSnapshot()).isFalse();
+        assertThat(MavenVersion.parse("1.0-snapshots").isSnapshot()).isFalse();
+        assertThat(MavenVersion.parse("1.0-rc1").isSnapshot()).isFalse();
+    }
+
+    @Test
+    public void isPreRelease() {
+        assertThat(MavenVersion.parse("1.0-alpha-1").isPreRelease()).isTrue();
+        assertThat(MavenVersion.parse("1.0-b2").isPreRelease()).isTrue();
+        assertThat(MavenVersion.parse("1.0-M3").isPreRelease()).isTrue();
+        assertThat(MavenVersion.parse("1.0.RC1").isPreRelease()).isTrue();
+        assertThat(MavenVersion.parse("1.0-cr").isPreRelease()).isTrue();
+        assertThat(MavenVersion.parse("1.0-SNAPSHOT").isPreRelease()).isFalse();
+        assertThat(MavenVersion.parse("1.0").isPreRelease()).isFalse();
+        assertThat(MavenVersion.parse("1.0-final").isPreRelease()).isFalse();
+        assertThat(MavenVersion.parse("1.0-sp1").isPreRelease()).isFalse();
+        assertThat(MavenVersion.parse("1.0-android").isPreRelease()).isFalse();
+        assertThat(MavenVersion.parse("123456789012345678901234567890-beta").isPreRelease()).isTrue();
+    }
+
+    @Test
+    public void add() {
+        LatestVersions latest = new LatestVersions.Builder().limit(3).build();
+        Stream.of("junit:junit:3.8.1", "junit:junit:4.12", "junit:junit:4.8.2", "junit:junit:4.13-beta-1",
+                "junit:junit:4.12.0", "junit:junit:4.11", "com.google.guava:guava:23.0",
+                "com.google.guava:guava:jar:tests:19.0")
+                .map(MavenCoordinate::parse).forEach(latest::add);
+        latest.add(new MavenCoordinate.Builder().groupId("junit").artifactId("junit").build());
+
+        assertThat(latest.artifactCount()).isEqualTo(2);
+        assertThat(versions(latest, "junit", "junit")).containsExactly("4.13-beta-1", "4.12", "4.11").inOrder();
+        assertThat(versions(latest, "com.google.guava", "guava")).containsExactly("23.0", "19.0").inOrder();
+        assertThat(versions(latest, "org.example", "example")).isEmpty();
+    }
+
+    @Test
+    public void exclusions() {
+        LatestVersions latest = new LatestVersions.Builder().limit(2).excludeSnapshots().excludePreReleases().build();
+        Stream.of("a:a:2.0-SNAPSHOT", "a:a:2.0-rc1", "a:a:1.1", "a:a:1.0", "a:a:0.9", "a:a:1.0-sp1")
+                .map(MavenCoordinate::parse).forEach(latest::add);
+        assertThat(versions(latest, "a", "a")).containsExactly("1.1", "1.0-sp1").inOrder();
+    }
+
+    @Test
+    public void merge() {
+        LatestVersions left = new LatestVersions.Builder().limit(2).build();
+        LatestVersions right = new LatestVersions.Builder().limit(2).build();
+        left.add(MavenCoordinate.parse("a:a:1")).add(MavenCoordinate.parse("a:a:3"));
+        right.add(MavenCoordinate.parse("a:a:2")).add(MavenCoordinate.parse("a:a:3.0"))
+                .add(MavenCoordinate.parse("b:b:1"));
+        left.merge(right);
+        assertThat(versions(left, "a", "a")).containsExactly("3", "2").inOrder();
+        assertThat(versions(left, "b", "b")).containsExactly("1");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> left.merge(new LatestVersions.Builder().limit(2).excludeSnapshots().build()));
+    }
+
+    @Test
+    public void collector_parallel() {
+        String[] versions = { "1.0", "1", "1.0.1", "1.1-SNAPSHOT", "2.0-alpha-1", "2.0-m1", "1.10", "1.9", "1.0-sp1" };
+        List<MavenCoordinate> input = new ArrayList<>();
+        Random random = new Random(25L);
+        for (int i = 0; i < 10_000; ++i) {
+            input.add(MavenCoordinate.parse("org.example" + random.nextInt(10) + ":artifact" + random.nextInt(10) + ":"
+                    + versions[random.nextInt(versions.length)]));
+        }
+
+        LatestVersions.Builder builder = new LatestVersions.Builder().limit(3).excludePreReleases();
+        Map<MavenCoordinate, List<MavenVersion>> sequential = input.stream().collect(builder.collector());
+        Collections.shuffle(input, random);
+        Map<MavenCoordinate, List<MavenVersion>> parallel = input.parallelStream().collect(builder.collector());
+
+        assertThat(parallel.size()).isEqualTo(100);
+        assertThat(parallel).isEqualTo(sequential);
+        assertThat(parallel.get(new MavenCoordinate.Builder().groupId("org.example3").artifactId("artifact7").build())
+                .stream().map(MavenVersion::toString).collect(Collectors.toList()))
+                        .containsExactly("1.10", "1.9", "1.1-SNAPSHOT").inOrder();
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.blackducksoftware.bdns.ParseResult;
+
+/**
+ * Tests for {@code MavenCoordinateLoader}.
+ *
+ * @author jgustie
+ */
+public class MavenCoordinateLoaderTest {
+
+    @Test
+    public void load_smallChunks() throws IOException {
+        StringBuilder content = new StringBuilder();
+        Set<MavenCoordinate> expected = new HashSet<>();
+        List<Long> expectedErrors = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            if (i % 97 == 13) {
+                content.append("broken-").append(i).append("\r\n");
+                expectedErrors.add((long) i + 1);
+            } else if (i % 101 == 7) {
+                content.append('\n');
+            } else {
+                String coordinate = "com.example.g" + (i % 10) + ":artifact-" + i + (i % 3 == 0 ? ":war:tests" : "")
+                        + ":1." + i;
+                content.append(coordinate).append(i % 2 == 0 ? "\n" : "\r\n");
+                expected.add(MavenCoordinate.valueOf(coordinate));
+            }
+        }
+        // No trailing newline on the last line
+        content.append("org.example:last:1.0");
+        expected.add(MavenCoordinate.valueOf("org.example:last:1.0"));
+
+        Path file = Files.createTempFile("coordinates", ".txt");
+        try {
+            Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+
+            List<Long> errors = Collections.synchronizedList(new ArrayList<>());
+            Set<MavenCoordinate> loaded = ConcurrentHashMap.newKeySet();
+            long count = new MavenCoordinateLoader.Builder()
+                    .chunkSize(100)
+                    .pool(new ForkJoinPool(4))
+                    .errorSink((lineNumber, line, result) -> {
+                        assertThat(line).isEqualTo("broken-" + (lineNumber - 1));
+                        assertThat(result.getErrorKind()).isEqualTo(ParseResult.ErrorKind.UNEXPECTED_END);
+                        errors.add(lineNumber);
+                    })
+                    .build()
+                    .load(file, loaded::add);
+            assertThat(count).isEqualTo((long) expected.size());
+            assertThat(loaded).containsExactlyElementsIn(expected);
+            assertThat(errors).containsExactlyElementsIn(expectedErrors).inOrder();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void load_manyErrors() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; ++i) {
+            content.append(i % 2 == 0 ? "broken" : "junit:junit:4." + i).append('\n');
+        }
+        Path file = Files.createTempFile("coordinates", ".txt");
+        try {
+            Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+            List<Long> errors = new ArrayList<>();
+            long count = new MavenCoordinateLoader.Builder()
+                    .errorSink((lineNumber, line, result) -> errors.add(lineNumber))
+                    .build()
+                    .load(file, c -> {});
+            assertThat(count).isEqualTo(500L);
+            assertThat(errors).hasSize(500);
+            for (int i = 0; i < errors.size(); ++i) {
+                assertThat(errors.get(i)).isEqualTo(2L * i + 1);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void load_failFast() throws IOException {
+        StringBuilder content = new StringBuilder("broken\n");
+        for (int i = 0; i < 10_000; ++i) {
+            content.append("junit:junit:4.").append(i).append('\n');
+        }
+        Path file = Files.createTempFile("coordinates", ".txt");
+        try {
+            Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+            AtomicLong consumed = new AtomicLong();
+            MavenCoordinateLoader loader = new MavenCoordinateLoader.Builder()
+                    .chunkSize(100)
+                    .pool(new ForkJoinPool(2))
+                    .build();
+            assertThrows(IllegalArgumentException.class, () -> loader.load(file, c -> consumed.incrementAndGet()));
+            long afterFailure = consumed.get();
+            assertThat(afterFailure).isLessThan(10_000L);
+            try {
+                Thread.sleep(50L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            assertThat(consumed.get()).isEqualTo(afterFailure);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void load_defaultErrorSink() throws IOException {
+        Path file = Files.createTempFile("coordinates", ".txt");
+        try {
+            Files.write(file, "junit:junit:4.12\nbroken\n".getBytes(StandardCharsets.UTF_8));
+            MavenCoordinateLoader loader = new MavenCoordinateLoader.Builder().build();
+            assertThrows(IllegalArgumentException.class, () -> loader.load(file, c -> {}));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
@@ -21,6 +21,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.junit.jupiter.api.Test;
 
+import com.blackducksoftware.bdns.ParseResult;
+
 /**
  * Tests for {@code MavenCoordinate}.
  *
@@ -48,4 +50,69 @@ public class MavenCoordinateTest {
         });
     }
 
+    @Test
+    public void parse_classifier() {
+        MavenCoordinate coordinate = MavenCoordinate.valueOf("org.codehaus.mojo:my-project:jar:jdk15:1.0");
+        assertThat(coordinate.getPackaging()).hasValue("jar");
+        assertThat(coordinate.getClassifier()).hasValue("jdk15");
+        assertThat(coordinate.getVersion()).hasValue(MavenVersion.valueOf("1.0"));
+        assertThat(coordinate.toString()).isEqualTo("org.codehaus.mojo:my-project:jar:jdk15:1.0");
+    }
+
+    @Test
+    public void tryParse_invalid() {
+        assertInvalid("org.codehaus.mojo", ParseResult.ErrorKind.UNEXPECTED_END, 17);
+        assertInvalid("org.codehaus.mojo:my-project", ParseResult.ErrorKind.UNEXPECTED_END, 28);
+        assertInvalid("a:b:c:d:e:f", ParseResult.ErrorKind.UNEXPECTED_CHARACTER, 9);
+        assertInvalid(":my-project:1.0", ParseResult.ErrorKind.EMPTY_COMPONENT, 0);
+        assertInvalid("org.codehaus.mojo:my-project:", ParseResult.ErrorKind.EMPTY_COMPONENT, 29);
+        assertThat(Maven.get().tryIdentifier("org.codehaus.mojo:my-project:1.0").getValue())
+                .hasValue(MavenCoordinate.valueOf("org.codehaus.mojo:my-project:1.0"));
+        assertThat(Maven.get().isValidIdentifier("org.codehaus.mojo")).isFalse();
+        assertThrows(IllegalArgumentException.class, () -> MavenCoordinate.parse("org.codehaus.mojo"));
+    }
+
+    @Test
+    public void withoutVersion() {
+        MavenCoordinate coordinate = MavenCoordinate.valueOf("org.codehaus.mojo:my-project:jar:jdk15:1.0");
+        MavenCoordinate withoutVersion = coordinate.withoutVersion();
+        assertThat(withoutVersion.getVersion()).isEmpty();
+        assertThat(withoutVersion.getClassifier()).hasValue("jdk15");
+        assertThat(withoutVersion.toString()).isEqualTo("org.codehaus.mojo:my-project:jar:jdk15");
+        assertThat(withoutVersion.withoutVersion()).isSameAs(withoutVersion);
+        assertThat(withoutVersion.equals(coordinate)).isFalse();
+    }
+
+    @Test
+    public void equals_defaultPackaging() {
+        MavenCoordinate implicit = MavenCoordinate.valueOf("org.codehaus.mojo:my-project:1.0");
+        MavenCoordinate explicit = MavenCoordinate.valueOf("org.codehaus.mojo:my-project:jar:1.0");
+        assertThat(explicit).isEqualTo(implicit);
+        assertThat(explicit.hashCode()).isEqualTo(implicit.hashCode());
+        assertThat(explicit.getPackaging()).hasValue("jar");
+        assertThat(implicit.getPackaging()).isEmpty();
+    }
+
+    @Test
+    public void builder_interned() {
+        MavenCoordinate first = new MavenCoordinate.Builder()
+                .groupId(new StringBuilder("org.codehaus.mojo"))
+                .artifactId("my-project")
+                .version("1.0")
+                .interned(true)
+                .build();
+        MavenCoordinate second = MavenCoordinate.valueOf("org.codehaus.mojo:my-project:1.0").intern();
+        assertThat(second).isSameAs(first);
+        assertThat(MavenVersion.valueOf("1.0").intern()).isSameAs(first.getVersion().get());
+        assertThat(MavenCoordinate.valueOf("org.codehaus.mojo:other:2.0").intern().getGroupId())
+                .isSameAs(first.getGroupId());
+    }
+
+    private static void assertInvalid(String value, ParseResult.ErrorKind errorKind, int errorOffset) {
+        ParseResult<MavenCoordinate> result = MavenCoordinate.tryParse(value);
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getErrorKind()).isEqualTo(errorKind);
+        assertThat(result.getErrorOffset()).isEqualTo(errorOffset);
+    }
+
 }
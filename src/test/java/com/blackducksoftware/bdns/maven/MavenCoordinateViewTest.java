@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.blackducksoftware.bdns.ParseResult;
+
+/**
+ * Tests for {@code MavenCoordinateView}.
+ *
+ * @author jgustie
+ */
+public class MavenCoordinateViewTest {
+
+    @Test
+    public void reset_offsets() {
+        String value = "org.codehaus.mojo:my-project:jar:jdk15:1.0";
+        MavenCoordinateView view = new MavenCoordinateView();
+        assertThat(view.reset(value)).isTrue();
+        assertThat(view.groupIdStart()).isEqualTo(0);
+        assertThat(view.groupIdEnd()).isEqualTo(17);
+        assertThat(value.substring(view.artifactIdStart(), view.artifactIdEnd())).isEqualTo("my-project");
+        assertThat(value.substring(view.packagingStart(), view.packagingEnd())).isEqualTo("jar");
+        assertThat(value.substring(view.classifierStart(), view.classifierEnd())).isEqualTo("jdk15");
+        assertThat(view.getVersion()).isEqualTo("1.0");
+        assertThat(view.groupIdEquals("org.codehaus.mojo")).isTrue();
+        assertThat(view.artifactIdEquals("my-projec")).isFalse();
+        assertThat(view.groupIdHashCode()).isEqualTo("org.codehaus.mojo".hashCode());
+        assertThat(view.toCoordinate()).isEqualTo(MavenCoordinate.valueOf(value));
+    }
+
+    @Test
+    public void reset_reusedAcrossRegions() {
+        char[] lines = "junit:junit:4.12\ncom.google.guava:guava:bundle:23.0\nbad\n".toCharArray();
+        MavenCoordinateView view = new MavenCoordinateView();
+
+        assertThat(view.reset(lines, 0, 16)).isTrue();
+        assertThat(view.hasPackaging()).isFalse();
+        assertThat(view.packagingStart()).isEqualTo(-1);
+        assertThat(view.toCoordinate()).isEqualTo(MavenCoordinate.valueOf("junit:junit:4.12"));
+
+        assertThat(view.reset(lines, 17, 34)).isTrue();
+        assertThat(view.groupIdStart()).isEqualTo(17);
+        assertThat(view.groupIdEquals("com.google.guava")).isTrue();
+        assertThat(view.hasPackaging()).isTrue();
+        assertThat(view.hasClassifier()).isFalse();
+        assertThat(view.toString()).isEqualTo("com.google.guava:guava:bundle:23.0");
+
+        assertThat(view.reset(lines, 52, 3)).isFalse();
+        assertThat(view.getErrorKind()).isEqualTo(ParseResult.ErrorKind.UNEXPECTED_END);
+        assertThat(view.getErrorOffset()).isEqualTo(3);
+        assertThat(view.toParseResult().isSuccess()).isFalse();
+        assertThrows(IllegalStateException.class, view::toCoordinate);
+    }
+
+    @Test
+    public void reset_bytes() {
+        byte[] encoded = "xx\ncom.example:caf\u00e9:1.0-\u03b2\n".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(encoded.length);
+        buffer.put(encoded).position(3).limit(encoded.length - 1);
+
+        MavenCoordinateView view = new MavenCoordinateView();
+        assertThat(view.reset(buffer)).isTrue();
+        assertThat(buffer.position()).isEqualTo(3);
+        assertThat(view.groupIdStart()).isEqualTo(3);
+        assertThat(view.groupIdEquals("com.example")).isTrue();
+        assertThat(view.artifactIdEquals("caf\u00e9")).isTrue();
+        assertThat(view.groupIdHashCode()).isEqualTo("com.example".hashCode());
+        assertThat(view.getVersion()).isEqualTo("1.0-\u03b2");
+        assertThat(view.toCoordinate()).isEqualTo(MavenCoordinate.valueOf("com.example:caf\u00e9:1.0-\u03b2"));
+        assertThat(MavenCoordinate.parse(encoded, 3, encoded.length - 4)).isEqualTo(view.toCoordinate());
+    }
+
+    @Test
+    public void reset_outOfBounds() {
+        MavenCoordinateView view = new MavenCoordinateView();
+        assertThrows(IndexOutOfBoundsException.class, () -> view.reset("a:b:c", 2, 6));
+        assertThrows(IndexOutOfBoundsException.class, () -> view.reset(new char[4], 1, 4));
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth8.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.blackducksoftware.bdns.ParseResult;
+
+/**
+ * Tests for {@code MavenVersionRequirement}.
+ *
+ * @author jgustie
+ */
+public class MavenVersionRequirementTest {
+
+    private static final List<MavenVersion> CATALOG = Stream.of("0.9", "1.0-alpha", "1.0", "1.0.0", "1.1", "1.2.3-rc1",
+            "1.2.3", "1.5", "2.0-beta", "2", "2.0.1", "3.0-sp1", "10")
+            .map(MavenVersion::valueOf)
+            .sorted()
+            .collect(Collectors.toList());
+
+    @Test
+    public void spans_range() {
+        assertThat(MavenVersionRequirement.valueOf("[1.0,2.0)").spans(CATALOG)).asList()
+                .containsExactly(2, 9).inOrder();
+        assertThat(MavenVersionRequirement.valueOf("(1.0,2.0]").spans(CATALOG)).asList()
+                .containsExactly(4, 10).inOrder();
+        assertThat(MavenVersionRequirement.valueOf("(,1.0),[2.0.1,)").spans(CATALOG)).asList()
+                .containsExactly(0, 2, 10, 13).inOrder();
+        assertThat(MavenVersionRequirement.valueOf("[20,)").spans(CATALOG)).isEmpty();
+    }
+
+    @Test
+    public void spans_softAndHard() {
+        // "1.0" and "1.0.0" compare equal but only one of them is equal
+        assertThat(MavenVersionRequirement.valueOf("1.0").spans(CATALOG)).asList().containsExactly(2, 4).inOrder();
+        assertThat(MavenVersionRequirement.valueOf("[1.0.0]").spans(CATALOG)).asList().containsExactly(3, 4).inOrder();
+        assertThat(MavenVersionRequirement.valueOf("[1.0.1]").spans(CATALOG)).isEmpty();
+    }
+
+    @Test
+    public void highest() {
+        assertThat(MavenVersionRequirement.valueOf("[1.0,2.0)").highest(CATALOG))
+                .hasValue(MavenVersion.valueOf("2.0-beta"));
+        assertThat(MavenVersionRequirement.valueOf("(,1.0)").highest(CATALOG))
+                .hasValue(MavenVersion.valueOf("1.0-alpha"));
+        assertThat(MavenVersionRequirement.valueOf("(10,)").highest(CATALOG)).isEmpty();
+    }
+
+    @Test
+    public void filter_agreesWithTest() {
+        Random random = new Random(5L);
+        List<String> values = CATALOG.stream().map(MavenVersion::toString).collect(Collectors.toList());
+        for (int i = 0; i < 1000; ++i) {
+            List<String> bounds = new ArrayList<>(values);
+            Collections.shuffle(bounds, random);
+            String value = (random.nextBoolean() ? "[" : "(") + bounds.get(0) + "," + bounds.get(1)
+                    + (random.nextBoolean() ? "]" : ")") + "," + (random.nextBoolean() ? "[" : "(") + bounds.get(2)
+                    + "," + (random.nextBoolean() ? "]" : ")");
+            MavenVersionRequirement requirement = MavenVersionRequirement.valueOf(value);
+            List<MavenVersion> expected = CATALOG.stream().filter(requirement).collect(Collectors.toList());
+            assertThat(requirement.filter(CATALOG)).containsExactlyElementsIn(expected).inOrder();
+            assertThat(requirement.spans(CATALOG.toArray(new MavenVersion[0]))).asList()
+                    .containsExactlyElementsIn(Arrays.stream(requirement.spans(CATALOG)).boxed()
+                            .collect(Collectors.toList()))
+                    .inOrder();
+        }
+    }
+
+    @Test
+    public void canonical_mergesRanges() {
+        assertThat(MavenVersionRequirement.valueOf("[1.5,2.0),[1.0,1.5]").toString()).isEqualTo("[1.0,2.0)");
+        assertThat(MavenVersionRequirement.valueOf("[1.5,2.0),(,1.0]").toString()).isEqualTo("(,1.0],[1.5,2.0)");
+        assertThat(MavenVersionRequirement.valueOf("(,1.0),(1.0,)").toString()).isEqualTo("(,1.0),(1.0,)");
+        assertThat(MavenVersionRequirement.valueOf("[1.0,1.5),[1.2,2.0],(2.0,3.0)").toString()).isEqualTo("[1.0,3.0)");
+        assertThat(MavenVersionRequirement.valueOf("[1.5,2.0),[1.0,1.5]"))
+                .isEqualTo(MavenVersionRequirement.valueOf("[1.0,2.0)"));
+    }
+
+    @Test
+    public void canonical_exactInSet() {
+        MavenVersionRequirement requirement = MavenVersionRequirement.valueOf("[1.2,),[1.0.0]");
+        assertThat(requirement.toString()).isEqualTo("[1.0.0],[1.2,)");
+        assertThat(requirement.test(MavenVersion.valueOf("1.0.0"))).isTrue();
+        assertThat(requirement.test(MavenVersion.valueOf("1.0"))).isFalse();
+        assertThat(MavenVersionRequirement.valueOf(requirement.toString())).isEqualTo(requirement);
+        assertThat(MavenVersionRequirement.valueOf("[1.0,2.0),[1.5]").toString()).isEqualTo("[1.0,2.0)");
+    }
+
+    @Test
+    public void isEmpty() {
+        assertThat(MavenVersionRequirement.valueOf("").isEmpty()).isTrue();
+        assertThat(MavenVersionRequirement.valueOf("[2.0,1.0]").isEmpty()).isTrue();
+        assertThat(MavenVersionRequirement.valueOf("(1.0,1.0]").isEmpty()).isTrue();
+        assertThat(MavenVersionRequirement.valueOf("[1.0,1.0]").isEmpty()).isFalse();
+        assertThat(MavenVersionRequirement.valueOf("1.0").isEmpty()).isFalse();
+    }
+
+    @Test
+    public void intersect_example() {
+        MavenVersionRequirement a = MavenVersionRequirement.valueOf("(,1.1],[1.5,)");
+        MavenVersionRequirement b = MavenVersionRequirement.valueOf("[1.0,2.0)");
+        assertThat(a.intersect(b).toString()).isEqualTo("[1.0,1.1],[1.5,2.0)");
+        assertThat(a.intersect(MavenVersionRequirement.valueOf("[1.0.0]")).toString()).isEqualTo("[1.0.0]");
+        assertThat(b.intersect(MavenVersionRequirement.valueOf("1.0")).toString()).isEqualTo("1.0");
+        assertThat(b.intersect(MavenVersionRequirement.valueOf("[3.0,)")).isEmpty()).isTrue();
+        assertThat(MavenVersionRequirement.valueOf("[1.0.0]").intersect(MavenVersionRequirement.valueOf("1.0"))
+                .toString()).isEqualTo("[1.0.0]");
+    }
+
+    @Test
+    public void union_example() {
+        MavenVersionRequirement a = MavenVersionRequirement.valueOf("[1.0,1.1]");
+        MavenVersionRequirement b = MavenVersionRequirement.valueOf("(1.1,2.0)");
+        assertThat(a.union(b).toString()).isEqualTo("[1.0,2.0)");
+        assertThat(a.union(MavenVersionRequirement.valueOf("[3.0]")).toString()).isEqualTo("[1.0,1.1],[3.0]");
+        assertThat(a.union(MavenVersionRequirement.valueOf("1.0"))).isSameAs(a);
+        assertThat(a.union(MavenVersionRequirement.valueOf(""))).isSameAs(a);
+    }
+
+    @Test
+    public void filter_copies() {
+        List<MavenVersion> versions = new ArrayList<>(CATALOG);
+        List<MavenVersion> filtered = MavenVersionRequirement.valueOf("[1.0,)").filter(versions);
+        assertThat(filtered).isNotEmpty();
+        filtered.clear();
+        assertThat(versions).containsExactlyElementsIn(CATALOG).inOrder();
+    }
+
+    @Test
+    public void test_manyRanges() {
+        StringBuilder spec = new StringBuilder("(,0]");
+        for (int i = 1; i < 100; ++i) {
+            spec.append(",[").append(i).append(".0,").append(i).append(".5)");
+        }
+        spec.append(",[200.1],[200.2]");
+        MavenVersionRequirement requirement = MavenVersionRequirement.valueOf(spec.toString());
+        assertThat(requirement.test(MavenVersion.valueOf("0.0"))).isTrue();
+        assertThat(requirement.test(MavenVersion.valueOf("0.1"))).isFalse();
+        assertThat(requirement.test(MavenVersion.valueOf("50"))).isTrue();
+        assertThat(requirement.test(MavenVersion.valueOf("50.4.9"))).isTrue();
+        assertThat(requirement.test(MavenVersion.valueOf("50.5"))).isFalse();
+        assertThat(requirement.test(MavenVersion.valueOf("99.9"))).isFalse();
+        assertThat(requirement.test(MavenVersion.valueOf("200.2"))).isTrue();
+        assertThat(requirement.test(MavenVersion.valueOf("200.2.0"))).isFalse();
+    }
+
+    @Test
+    public void union_unbounded() {
+        MavenVersionRequirement union = MavenVersionRequirement.valueOf("(,1.0)")
+                .union(MavenVersionRequirement.valueOf("[1.0,)"));
+        assertThat(union.toString()).isEqualTo("(,)");
+        assertThat(MavenVersionRequirement.valueOf(union.toString())).isEqualTo(union);
+        assertThat(union.test(MavenVersion.valueOf("0.1"))).isTrue();
+        assertThat(new MavenVersionRequirement.Builder().range(null, true, null, true).build()).isEqualTo(union);
+        assertThrows(IllegalArgumentException.class,
+                () -> new MavenVersionRequirement.Builder().range(null, false, null, true));
+    }
+
+    @Test
+    public void intersectAndUnion_agreeWithTest() {
+        Random random = new Random(6L);
+        for (int i = 0; i < 2000; ++i) {
+            MavenVersionRequirement a = MavenVersionRequirement.valueOf(randomRequirement(random));
+            MavenVersionRequirement b = MavenVersionRequirement.valueOf(randomRequirement(random));
+            MavenVersionRequirement intersection = a.intersect(b);
+            MavenVersionRequirement union = a.union(b);
+            for (MavenVersion version : CATALOG) {
+                assertThat(intersection.test(version)).isEqualTo(a.test(version) && b.test(version));
+                assertThat(union.test(version)).isEqualTo(a.test(version) || b.test(version));
+            }
+            assertThat(MavenVersionRequirement.valueOf(union.toString())).isEqualTo(union);
+            if (CATALOG.stream().anyMatch(intersection)) {
+                assertThat(intersection.isEmpty()).isFalse();
+            }
+        }
+    }
+
+    @Test
+    public void parse_bytes() {
+        byte[] value = "[1.0,2.0),[3.0,)".getBytes(StandardCharsets.UTF_8);
+        assertThat(MavenVersionRequirement.parse(value, 0, value.length))
+                .isEqualTo(MavenVersionRequirement.valueOf("[1.0,2.0),[3.0,)"));
+        assertThat(MavenVersionRequirement.tryParse(ByteBuffer.wrap(value, 0, 8)).isSuccess()).isFalse();
+        assertThat(MavenVersion.parse(value, 1, 3)).isEqualTo(MavenVersion.valueOf("1.0"));
+    }
+
+    @Test
+    public void tryParse_invalid() {
+        ParseResult<MavenVersionRequirement> result = MavenVersionRequirement.tryParse("[1.0,2.0),[,]");
+        assertThat(result.getErrorKind()).isEqualTo(ParseResult.ErrorKind.EMPTY_COMPONENT);
+        assertThat(result.getErrorOffset()).isEqualTo(10);
+        assertThat(MavenVersionRequirement.tryParse("[1.0,2.0),[1.0").getErrorKind())
+                .isEqualTo(ParseResult.ErrorKind.INVALID);
+        for (String invalid : new String[] { "[", "(", "]", ")", "[]", "[1.0", "1.0]", "(1.0)" }) {
+            result = MavenVersionRequirement.tryParse(invalid);
+            assertThat(result.getErrorKind()).isEqualTo(ParseResult.ErrorKind.INVALID);
+            assertThat(result.getErrorOffset()).isEqualTo(0);
+        }
+        assertThat(Maven.get().tryVersionRange("[1.0,2.0)").getValue())
+                .hasValue(MavenVersionRequirement.valueOf("[1.0,2.0)"));
+        assertThat(Maven.get().isValidScope("compile")).isTrue();
+        assertThat(Maven.get().isValidScope("bogus")).isFalse();
+        assertThat(Maven.get().isValidContext("central::default::https://repo.maven.apache.org/maven2")).isTrue();
+        assertThat(Maven.get().isValidContext("central::https://repo.maven.apache.org/maven2")).isFalse();
+    }
+
+    private static String randomRequirement(Random random) {
+        List<String> values = CATALOG.stream().map(MavenVersion::toString).collect(Collectors.toList());
+        switch (random.nextInt(6)) {
+        case 0:
+            return values.get(random.nextInt(values.size()));
+        case 1:
+            return "[" + values.get(random.nextInt(values.size())) + "]";
+        default:
+            List<String> ranges = new ArrayList<>();
+            for (int i = random.nextInt(3); i >= 0; --i) {
+                if (random.nextInt(4) == 0) {
+                    ranges.add("[" + values.get(random.nextInt(values.size())) + "]");
+                } else {
+                    String lower = random.nextInt(5) == 0 ? "" : values.get(random.nextInt(values.size()));
+                    String upper = !lower.isEmpty() && random.nextInt(5) == 0 ? ""
+                            : values.get(random.nextInt(values.size()));
+                    ranges.add((lower.isEmpty() || random.nextBoolean() ? "(" : "[") + lower + "," + upper
+                            + (upper.isEmpty() || random.nextBoolean() ? ")" : "]"));
+                }
+            }
+            return String.join(",", ranges);
+        }
+    }
+
+}
@@ -16,9 +16,18 @@
 package com.blackducksoftware.bdns.maven;
 
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth8.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
+import com.blackducksoftware.bdns.VersionCodec;
+
 /**
  * Tests for {@code MavenVersion}.
  *
@@ -78,6 +87,164 @@ public class MavenVersionTest {
         assertThat(v("1-a1")).isEquivalentAccordingToCompareTo(v("1-alpha-1"));
     }
 
+    @Test
+    public void sortKey_preReleaseQualifiersAfterZero() {
+        assertThat(v("5.0.0.Beta1")).isLessThan(v("5.0.0"));
+        assertThat(v("5.0.0.CR1")).isLessThan(v("5.0.0.Final"));
+        assertThat(v("5.0.0.Final")).isEquivalentAccordingToCompareTo(v("5"));
+        assertThat(v("5.0.0.Beta1")).isGreaterThan(v("5-SNAPSHOT"));
+        assertThat(v("5.0.1")).isGreaterThan(v("5-1"));
+    }
+
+    @Test
+    public void sortKey_transitive() {
+        // A literal reading of the padding rules would make these cyclic
+        assertThat(v("1.0.sp")).isLessThan(v("1"));
+        assertThat(v("1")).isLessThan(v("1-ga.1"));
+        assertThat(v("1.0.sp")).isLessThan(v("1-ga.1"));
+    }
+
+    @Test
+    public void sortKey_largeNumbers() {
+        assertThat(v("1.99999999999999999999")).isLessThan(v("1.100000000000000000000"));
+        assertThat(v("1.0099")).isEquivalentAccordingToCompareTo(v("1.99"));
+    }
+
+    @Test
+    public void sortKey_unknownQualifiers() {
+        assertThat(v("1-abc")).isLessThan(v("1-abd"));
+        assertThat(v("1-ab")).isLessThan(v("1-abc"));
+        assertThat(v("1-zzz")).isLessThan(v("1-alpha"));
+        assertThat(v("1-\u00e9")).isGreaterThan(v("1-z"));
+    }
+
+    @Test
+    public void sortKey_copy() {
+        MavenVersion version = v("1.0");
+        version.sortKey()[0] = 0;
+        assertThat(version).isEquivalentAccordingToCompareTo(v("1"));
+    }
+
+    @Test
+    public void sortKey_agreesWithLegacyOrder() {
+        // Service packs are excluded, their order relative to pre-releases following a zero is intentionally changed
+        String[] qualifiers = { "", "-SNAPSHOT", "-alpha-1", "-alpha-2", "-beta.2", "-rc1", "-RC2", "-M3", ".Final",
+                ".Beta1", ".CR2", "-final", ".GA", "-foo", "-bar2", "a1" };
+        Random random = new Random(0x0DE4);
+        List<MavenVersion> versions = new ArrayList<>();
+        for (int n = 0; n < 2_000; ++n) {
+            StringBuilder version = new StringBuilder().append(random.nextInt(3));
+            for (int i = random.nextInt(4); i > 0; --i) {
+                version.append('.').append(random.nextInt(3));
+            }
+            versions.add(v(version.append(qualifiers[random.nextInt(qualifiers.length)]).toString()));
+        }
+
+        Map<MavenVersion, List<String>> tokens = new HashMap<>();
+        versions.forEach(version -> tokens.put(version, MavenVersion.tokenize(version.toString())));
+        for (MavenVersion v1 : versions) {
+            for (int i = 0; i < 50; ++i) {
+                MavenVersion v2 = versions.get(random.nextInt(versions.size()));
+                assertThat(Integer.signum(v1.compareTo(v2)))
+                        .isEqualTo(Integer.signum(legacyCompare(tokens.get(v1), tokens.get(v2))));
+            }
+        }
+    }
+
+    @Test
+    public void codec_roundTrip() {
+        for (String value : new String[] { "1.0", "1", "2.13.0-RC1", "1.0-\u00e9t\u00e9", "", "-" }) {
+            MavenVersion version = v(value);
+            MavenVersion decoded = MavenVersion.codec().decode(MavenVersion.codec().encode(version));
+            assertThat(decoded).isEqualTo(version);
+            assertThat(decoded).isEquivalentAccordingToCompareTo(version);
+        }
+    }
+
+    @Test
+    public void codec_preservesOrder() {
+        String[] qualifiers = { "", "-SNAPSHOT", "-alpha-1", "-beta.2", "-rc1", "-M3", ".Final", ".Beta1", "-foo", "-sp" };
+        Random random = new Random(0xC0DEC);
+        List<MavenVersion> versions = new ArrayList<>();
+        for (int n = 0; n < 2_000; ++n) {
+            StringBuilder version = new StringBuilder().append(random.nextInt(12));
+            for (int i = random.nextInt(4); i > 0; --i) {
+                version.append('.').append(random.nextInt(12));
+            }
+            versions.add(v(version.append(qualifiers[random.nextInt(qualifiers.length)]).toString()));
+        }
+        for (MavenVersion v1 : versions) {
+            byte[] encoded1 = MavenVersion.codec().encode(v1);
+            for (int i = 0; i < 50; ++i) {
+                MavenVersion v2 = versions.get(random.nextInt(versions.size()));
+                int expected = Integer.signum(v1.compareTo(v2));
+                int actual = Integer.signum(VersionCodec.compare(encoded1, MavenVersion.codec().encode(v2)));
+                if (expected == 0) {
+                    assertThat(actual == 0).isEqualTo(v1.equals(v2));
+                } else {
+                    assertThat(actual).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void codec_namespaceManager() {
+        assertThat(Maven.get().versionCodec()).hasValue(MavenVersion.codec());
+    }
+
+    /**
+     * The original token comparison, retained as a reference implementation.
+     */
+    private static int legacyCompare(List<String> tokens1, List<String> tokens2) {
+        Map<String, Integer> qualifierOrder = new HashMap<>();
+        qualifierOrder.put("alpha", 1);
+        qualifierOrder.put("beta", 2);
+        qualifierOrder.put("milestone", 3);
+        qualifierOrder.put("rc", 4);
+        qualifierOrder.put("cr", 4);
+        qualifierOrder.put("snapshot", 5);
+        qualifierOrder.put("", 6);
+        qualifierOrder.put("final", 6);
+        qualifierOrder.put("ga", 6);
+        qualifierOrder.put("sp", 7);
+
+        int result = 0;
+        for (int i = 0; i < Math.max(tokens1.size(), tokens2.size()) && result == 0; ++i) {
+            String token1 = i < tokens1.size() ? tokens1.get(i) : null;
+            String token2 = i < tokens2.size() ? tokens2.get(i) : null;
+            if (token1 == null) {
+                token1 = token2.startsWith(".") ? ".0" : "-";
+            } else if (token2 == null) {
+                token2 = token1.startsWith(".") ? ".0" : "-";
+            }
+
+            boolean dot1 = token1.startsWith(".");
+            boolean dot2 = token2.startsWith(".");
+            boolean dash1 = token1.startsWith("-");
+            boolean dash2 = token2.startsWith("-");
+            boolean number1 = token1.matches("^[\\.-]?\\d+");
+            boolean number2 = token2.matches("^[\\.-]?\\d+");
+            if ((dot1 == dot2) && (dash1 == dash2)) {
+                token1 = dot1 || dash1 ? token1.substring(1) : token1;
+                token2 = dot2 || dash2 ? token2.substring(1) : token2;
+                if (number1 && number2) {
+                    result = Long.valueOf(token1).compareTo(Long.valueOf(token2));
+                } else if (number1 || number2) {
+                    result = number1 ? 1 : -1;
+                } else {
+                    int qualifier1 = qualifierOrder.getOrDefault(token1, 0).intValue();
+                    int qualifier2 = qualifierOrder.getOrDefault(token2, 0).intValue();
+                    result = qualifier1 == 0 && qualifier2 == 0 ? token1.compareTo(token2)
+                            : Integer.compare(qualifier1, qualifier2);
+                }
+            } else {
+                result = dot1 ? (number1 ? 1 : -1) : (number2 ? -1 : 1);
+            }
+        }
+        return result;
+    }
+
     // Readability helper
     private static MavenVersion v(String value) {
         return MavenVersion.valueOf(value);
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.Locale.ENGLISH;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Differential tests for {@code MavenVersion.tokenize} against the original regular expression implementation.
+ *
+ * @author jgustie
+ */
+public class MavenVersionTokenizeTest {
+
+    private static final Set<String> NULL_VALUES = new HashSet<>(Arrays.asList("0", "", "final", "ga"));
+
+    private static final String[] REAL_WORLD = {
+            "1", "1.0", "1.0.0", "2.3.1", "1.0-SNAPSHOT", "3.0.0-M1", "2.13.0-RC1", "5.0.0.Beta1", "4.3.0.Final",
+            "1.2.3-alpha-1", "1-a1", "1-b2", "1-m3", "1.0a1", "1.0-beta.2", "1.0-ga", "1.0.GA", "1-sp.1", "1-sp-1",
+            "20180101", "1.0.0.RELEASE", "2.0.0-beta-1-SNAPSHOT", "r09", "1.0_01", "1.7.0_80-b15", "v1.2", "1..2",
+            "1--2", "-1", ".1", "-", ".", "", "a1-a2-a3", "a1.a2", "b1-a1-b1", "1.A1.B2.M3", "1-foo10", "1.0-",
+            "1.0.", "final", "ga-1", "1_A2", "1`2", "\u0130a1", "1.\u00e9t\u00e9", "R2D2", "1.0-0.1", "1.0.0-0.0.0"
+    };
+
+    private static final String[] FRAGMENTS = {
+            "0", "1", "2", "10", "99", "a", "b", "m", "A", "M", "x", "z", "_", "`", "[", "alpha", "beta", "rc",
+            "cr", "snapshot", "SNAPSHOT", "final", "Final", "ga", "sp", "release", ".", "-", ".", "-", "\u00e9"
+    };
+
+    @Test
+    public void realWorld() {
+        for (String version : REAL_WORLD) {
+            assertThat(MavenVersion.tokenize(version)).containsExactlyElementsIn(legacyTokenize(version)).inOrder();
+        }
+    }
+
+    @Test
+    public void randomFragments() {
+        Random random = new Random(0x5EED);
+        for (int n = 0; n < 200_000; ++n) {
+            StringBuilder version = new StringBuilder();
+            for (int i = random.nextInt(8); i >= 0; --i) {
+                version.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            String value = version.toString();
+            assertThat(MavenVersion.tokenize(value)).containsExactlyElementsIn(legacyTokenize(value)).inOrder();
+        }
+    }
+
+    @Test
+    public void randomCharacters() {
+        Random random = new Random(0xC0FFEE);
+        String alphabet = "0123456789.-abmAz_`~";
+        for (int n = 0; n < 200_000; ++n) {
+            char[] version = new char[random.nextInt(12)];
+            for (int i = 0; i < version.length; ++i) {
+                version[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            String value = new String(version);
+            assertThat(MavenVersion.tokenize(value)).containsExactlyElementsIn(legacyTokenize(value)).inOrder();
+        }
+    }
+
+    /**
+     * The original tokenizer, retained as a reference implementation.
+     */
+    private static List<String> legacyTokenize(String value) {
+        ArrayList<String> tokens = new ArrayList<>();
+
+        tokens.addAll(Arrays.asList(value.toLowerCase(ENGLISH)
+                .replaceAll("(^|[\\.-])a(\\d+)([\\.-]|$)", "$1alpha-$2$3")
+                .replaceAll("(^|[\\.-])b(\\d+)([\\.-]|$)", "$1beta-$2$3")
+                .replaceAll("(^|[\\.-])m(\\d+)([\\.-]|$)", "$1milestone-$2$3")
+                .split("(?=[\\.-])|(?:(?<=\\d)(?=[a-zA-z]))|(?:(?<=[a-zA-Z])(?=\\d))")));
+
+        tokens.subList(1, tokens.size()).replaceAll(s -> s.equals("-") || s.equals(".") ? s + "0" : !s.startsWith("-") && !s.startsWith(".") ? "-" + s : s);
+
+        ListIterator<String> t = tokens.listIterator(tokens.size());
+        while (t.hasPrevious() && t.previousIndex() > 0) {
+            String token = t.previous();
+            if (NULL_VALUES.contains(token.substring(1))) {
+                t.remove();
+            } else {
+                while (!token.startsWith("-") && t.hasPrevious() && t.previousIndex() > 0) {
+                    token = t.previous();
+                }
+            }
+        }
+
+        tokens.trimToSize();
+        return tokens;
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@code VersionCatalog}.
+ *
+ * @author jgustie
+ */
+public class VersionCatalogTest {
+
+    private static List<MavenVersion> versions(String... versions) {
+        return Stream.of(versions).map(MavenVersion::valueOf).collect(Collectors.toList());
+    }
+
+    @Test
+    public void ordinal_sharedByEqualVersions() {
+        VersionCatalog catalog = VersionCatalog.of(versions("2.0", "1.0", "1.0.0", "1.0-alpha", "1", "1.1"));
+        assertThat(catalog.size()).isEqualTo(4);
+        assertThat(catalog.ordinal(MavenVersion.valueOf("1.0-alpha"))).isEqualTo(0);
+        assertThat(catalog.ordinal(MavenVersion.valueOf("1"))).isEqualTo(1);
+        assertThat(catalog.ordinal(MavenVersion.valueOf("1.0.0"))).isEqualTo(1);
+        assertThat(catalog.ordinal(MavenVersion.valueOf("2.0"))).isEqualTo(3);
+        assertThat(catalog.ordinal(MavenVersion.valueOf("1.5"))).isEqualTo(-1);
+        assertThat(catalog.higherOrdinal(MavenVersion.valueOf("1.5"))).isEqualTo(3);
+        assertThat(catalog.higherOrdinal(MavenVersion.valueOf("1.1"))).isEqualTo(3);
+        assertThat(catalog.higherOrdinal(MavenVersion.valueOf("3"))).isEqualTo(4);
+    }
+
+    @Test
+    public void withVersions_merge() {
+        VersionCatalog catalog = VersionCatalog.of(versions("1.0", "2.0"));
+        VersionCatalog appended = catalog.withVersions(versions("3.0", "2.5", "2.0.0"));
+        assertThat(appended.size()).isEqualTo(4);
+        assertThat(appended.ordinal(MavenVersion.valueOf("2.0"))).isEqualTo(1);
+        assertThat(appended.version(1).toString()).isEqualTo("2.0");
+        assertThat(appended.ordinal(MavenVersion.valueOf("3.0"))).isEqualTo(3);
+
+        VersionCatalog inserted = appended.withVersions(versions("1.5"));
+        assertThat(inserted.ordinal(MavenVersion.valueOf("1.5"))).isEqualTo(1);
+        assertThat(inserted.ordinal(MavenVersion.valueOf("2.0"))).isEqualTo(2);
+        assertThat(inserted.withVersions(versions("1.5.0", "2"))).isSameAs(inserted);
+    }
+
+    @Test
+    public void matcher_agreesWithRequirement() {
+        List<MavenVersion> known = versions("0.9", "1.0-alpha", "1.0", "1.1", "1.2.3-rc1", "1.2.3", "1.5", "2.0-beta",
+                "2.0.1", "3.0-sp1", "10");
+        VersionCatalog catalog = VersionCatalog.of(known);
+        for (String value : Arrays.asList("[1.0,2.0)", "(,1.0],[1.2,)", "[1.5]", "1.5", "(1.1,1.5),[3.0,10]", "[4,5]",
+                "(,2.0-beta]")) {
+            MavenVersionRequirement requirement = MavenVersionRequirement.valueOf(value);
+            IntPredicate matcher = catalog.matcher(requirement);
+            for (MavenVersion version : known) {
+                assertThat(matcher.test(catalog.ordinal(version))).isEqualTo(requirement.test(version));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 Synopsys, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blackducksoftware.bdns.maven;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@code VersionRangeIndex}.
+ *
+ * @author jgustie
+ */
+public class VersionRangeIndexTest {
+
+    private static final String[] VERSIONS = { "0.9", "1", "1.0", "1.0.0", "1.0-alpha", "1.0-SNAPSHOT", "1.1", "1.2.3",
+            "1.2.3-rc1", "1.5", "2", "2.0-beta", "2.0.1", "3.0-sp1", "10" };
+
+    @Test
+    public void matching_example() {
+        VersionRangeIndex index = new VersionRangeIndex.Builder()
+                .add(0, MavenVersionRequirement.valueOf("[1.0,2.0)"))
+                .add(1, MavenVersionRequirement.valueOf("(,1.0]"))
+                .add(1, MavenVersionRequirement.valueOf("[1.2,)"))
+                .add(2, MavenVersionRequirement.valueOf("[1.5]"))
+                .add(3, MavenVersionRequirement.valueOf("1.5"))
+                .add(4, MavenVersionRequirement.valueOf("[1.5]"))
+                .add(4, MavenVersionRequirement.valueOf("[1.0,2.0]"))
+                .build();
+        assertThat(sorted(index.matching(MavenVersion.valueOf("0.1")))).asList().containsExactly(1).inOrder();
+        assertThat(sorted(index.matching(MavenVersion.valueOf("1.0")))).asList().containsExactly(0, 1, 4).inOrder();
+        assertThat(sorted(index.matching(MavenVersion.valueOf("1.1")))).asList().containsExactly(0, 4).inOrder();
+        assertThat(sorted(index.matching(MavenVersion.valueOf("1.5")))).asList().containsExactly(0, 1, 2, 3, 4)
+                .inOrder();
+        assertThat(sorted(index.matching(MavenVersion.valueOf("2.0")))).asList().containsExactly(1, 4).inOrder();
+        assertThat(index.anyMatching(MavenVersion.valueOf("1.1"))).isTrue();
+    }
+
+    @Test
+    public void matching_agreesWithRequirements() {
+        Random random = new Random(4L);
+        List<MavenVersionRequirement> requirements = new ArrayList<>();
+        VersionRangeIndex.Builder builder = new VersionRangeIndex.Builder();
+        for (int i = 0; i < 200; ++i) {
+            MavenVersionRequirement requirement = MavenVersionRequirement.valueOf(randomRequirement(random));
+            requirements.add(requirement);
+            builder.add(i, requirement);
+        }
+        VersionRangeIndex index = builder.build();
+
+        for (String value : VERSIONS) {
+            MavenVersion version = MavenVersion.valueOf(value);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < requirements.size(); ++i) {
+                if (requirements.get(i).test(version)) {
+                    expected.add(i);
+                }
+            }
+            assertThat(sorted(index.matching(version))).asList().containsExactlyElementsIn(expected).inOrder();
+            assertThat(index.anyMatching(version)).isEqualTo(!expected.isEmpty());
+        }
+    }
+
+    private static String randomRequirement(Random random) {
+        StringBuilder result = new StringBuilder();
+        int count = 1 + random.nextInt(2);
+        for (int i = 0; i < count; ++i) {
+            if (i > 0) {
+                result.append(',');
+            }
+            switch (count == 1 ? random.nextInt(4) : 1) {
+            case 0:
+                result.append('[').append(VERSIONS[random.nextInt(VERSIONS.length)]).append(']');
+                break;
+            default:
+                String lower = random.nextInt(4) == 0 ? "" : VERSIONS[random.nextInt(VERSIONS.length)];
+                String upper = !lower.isEmpty() && random.nextInt(4) == 0 ? ""
+                        : VERSIONS[random.nextInt(VERSIONS.length)];
+                result.append(lower.isEmpty() || random.nextBoolean() ? '(' : '[').append(lower).append(',')
+                        .append(upper).append(upper.isEmpty() || random.nextBoolean() ? ')' : ']');
+                break;
+            }
+        }
+        return count == 1 && random.nextInt(3) == 0 && result.charAt(0) == '['
+                && result.indexOf(",") < 0 ? result.substring(1, result.length() - 1) : result.toString();
+    }
+
+    private static int[] sorted(int[] ids) {
+        int[] result = ids.clone();
+        Arrays.sort(result);
+        return result;
+    }
+
+}